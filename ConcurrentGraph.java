@@ -0,0 +1,574 @@
+/**
+ * Abstract state:
+ * ConcurrentGraph represents a directed multi-graph containing nodes with a specified type
+ * for data and edges labeled by the second specified type, which may be read and modified
+ * by any number of threads at once. Reads never block; each read of a single node sees
+ * that node's edges as they were after some complete modification
+ */
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class ConcurrentGraph <N extends Comparable<N>, E extends Comparable<E>> {
+
+    private final ConcurrentHashMap<N, Node<N,E>> entries;
+    private final AtomicLong lockOrder;
+    private final LongAdder edgeCount;
+
+    // Abstraction Function:
+    // ConcurrentGraph, g, represents the directed multigraph with each node
+    // represented by a Node object stored in entries under its own data. The
+    // edges leading away from a Node are the Edges in its 'out' array, each
+    // holding the child Node and the label. The Edges in a Node's 'in' array
+    // mirror the edges leading into it, each holding the parent Node instead.
+    //
+    // Representation Invariant for every ConcurrentGraph g, holding whenever
+    // no Node's lock is held:
+    // entries, lockOrder and edgeCount are not null
+    // Every Node in entries is stored under the key equal to its data, is not
+    // marked removed, and has a lock order no other Node has
+    // Every Edge is non-null with non-null label and Node
+    // Every Node's out array is in strictly increasing order by child data and
+    // then label, so no Node has two edges with the same label to the same Node
+    // Every Node's in array is in strictly increasing order by parent data and then label
+    // A Node n has an Edge (label, c) in out exactly when c has an Edge (label, n) in in
+    // Every Node reached through an Edge of a Node in entries is itself in entries
+    // edgeCount is the total length of every out array of every Node in entries
+    //
+    // Thread safety:
+    // out and in arrays are never modified once published; a writer replaces a
+    // Node's array only while holding that Node's lock. A writer holding several
+    // locks always takes them in increasing lock order, so writers cannot deadlock.
+
+    /**
+     * @spec.effects creates new ConcurrentGraph containing no Nodes or Edges
+     */
+    public ConcurrentGraph() {
+        entries = new ConcurrentHashMap<N, Node<N,E>>();
+        lockOrder = new AtomicLong();
+        edgeCount = new LongAdder();
+    }
+
+    /**
+     * @param nodeData is the data inside of a Node that the user
+     * wants to know whether or not appears in the Graph
+     * @return true if a node with the given data is found in this Graph,
+     * false otherwise
+     */
+    public boolean containsNode(N nodeData) {
+        return entries.containsKey(nodeData);
+    }
+
+    /**
+     * @spec.modifies if no Node containing the same data is found, a
+     * new Node containing said data is added to the Graph, otherwise
+     * no modification is made to the graph
+     * @param data is the data of specified type of the Node being added to the graph
+     * @return returns true if no Node in the Graph contains the same data as this
+     * @spec.requires data is not null and its hashCode is consistent with equals
+     */
+    public boolean addNode(N data) {
+        if(entries.containsKey(data)) {
+            return false;
+        }
+        return entries.putIfAbsent(data, new Node<N,E>(data, lockOrder.getAndIncrement())) == null;
+    }
+
+    /**
+     * @spec.modifies if a Node containing the same data is found, it will
+     * be removed from the graph and all Edges leading to it from other
+     * Nodes will be removed as well, all at once with respect to every other
+     * modification. If no such node is found, no modification is performed
+     * @param data is the data of the Node being removed from the graph
+     * @return returns true if there is an existing Node in the graph
+     * matching the given data and it is successfully removed, else returns false.
+     * @spec.requires data is not null
+     */
+    public boolean removeNode(N data) {
+        while(true) {
+            Node<N,E> unwanted = entries.get(data);
+            if(unwanted == null) {
+                return false;
+            }
+            Edge<N,E>[] out = unwanted.out;
+            Edge<N,E>[] in = unwanted.in;
+            List<Node<N,E>> children = otherNodes(out, unwanted);
+            List<Node<N,E>> parents = otherNodes(in, unwanted);
+            List<Node<N,E>> neighbors = new ArrayList<Node<N,E>>(children.size() + parents.size() + 1);
+            neighbors.add(unwanted);
+            neighbors.addAll(children);
+            neighbors.addAll(parents);
+            List<Node<N,E>> locked = lockAll(neighbors);
+            try {
+                if(unwanted.removed) {
+                    return false;
+                }
+                //a neighbor gained or lost while we were locking means our lock set may be
+                //incomplete, so start again
+                if(unwanted.out != out || unwanted.in != in) {
+                    continue;
+                }
+                //each neighbor's array is rewritten once, however many parallel Edges it held
+                for(Node<N,E> parent : parents) {
+                    parent.out = withoutNode(parent.out, unwanted);
+                }
+                for(Node<N,E> child : children) {
+                    child.in = withoutNode(child.in, unwanted);
+                }
+                edgeCount.add(-(out.length + in.length - selfLoops(out, unwanted)));
+                unwanted.removed = true;
+                entries.remove(data, unwanted);
+                return true;
+            } finally {
+                unlockAll(locked);
+            }
+        }
+    }
+
+    /**
+     * @spec.requires Edge label isn't null
+     * @param parentData is the data of the Node from which the new Edge leads
+     * @param childData is the data of the Node into which the new Edge leads
+     * @param label is the label of the new Edge
+     * @spec.modifies If the graph contains Nodes containing the given data,
+     * the graph is modified to contain a new Edge going from
+     * the Node with data 'parentData' to the node with data 'childData' all with
+     * the label 'label', if either of these Nodes is absent the graph is not modified
+     * @return returns true if the Nodes with the specified data were found and
+     * the Edge was added, else returns false.
+     */
+    public boolean addEdge(N parentData, N childData, E label) {
+        Node<N,E> parent = entries.get(parentData);
+        Node<N,E> child = entries.get(childData);
+        if(parent == null || child == null) {
+            return false;
+        }
+        List<Node<N,E>> locked = lockAll(Arrays.asList(parent, child));
+        try {
+            if(parent.removed || child.removed) {
+                return false;
+            }
+            int index = search(parent.out, childData, label);
+            if(index >= 0) {
+                return false;
+            }
+            parent.out = inserted(parent.out, -1 * index - 1, new Edge<N,E>(label, child));
+            int backIndex = search(child.in, parentData, label);
+            child.in = inserted(child.in, -1 * backIndex - 1, new Edge<N,E>(label, parent));
+            edgeCount.increment();
+            return true;
+        } finally {
+            unlockAll(locked);
+        }
+    }
+
+    /**
+     * @spec.requires Edge label isn't null
+     * @param parentData is the data of the Node from which the Edge will be removed
+     * @param childData is the data of the Node that is led to by the Edge being removed
+     * @param label is the label of the edge being removed
+     * @spec.modifies If the graph is found to contain Nodes with data corresponding to
+     * the given data, the graph is modified to remove the Edge going from
+     * the Node with data 'parentData' to the Node with data 'childData' and with
+     * the label 'label', otherwise the graph is not modified
+     * @return returns true if the Nodes with the specified data were found and the
+     * Edge was removed, else returns false
+     */
+    public boolean removeEdge(N parentData, N childData, E label) {
+        Node<N,E> parent = entries.get(parentData);
+        Node<N,E> child = entries.get(childData);
+        if(parent == null || child == null) {
+            return false;
+        }
+        List<Node<N,E>> locked = lockAll(Arrays.asList(parent, child));
+        try {
+            if(parent.removed || child.removed) {
+                return false;
+            }
+            int index = search(parent.out, childData, label);
+            if(index < 0) {
+                return false;
+            }
+            parent.out = removed(parent.out, index);
+            child.in = removed(child.in, search(child.in, parentData, label));
+            edgeCount.decrement();
+            return true;
+        } finally {
+            unlockAll(locked);
+        }
+    }
+
+    /**
+     * @spec.requires Node with corresponding data is present in graph
+     * @param nodeData is the data stored in the Node for which
+     * the user wants to see the Edge labels and their corresponding Nodes
+     * @return a Map where the keys are the data
+     * which label the Edges leading away from the Node with the given data
+     * and the internal data is a List of data containing the data
+     * inside the Nodes that this data's Node has Edges to.
+     */
+    public Map<E, List<N>> edgesOf(N nodeData) {
+        return grouped(entries.get(nodeData).out);
+    }
+
+    /**
+     * @spec.requires Node with corresponding data is present in graph
+     * @param nodeData is the data stored in the Node whose incoming Edges are sought
+     * @return a Map where the keys are the data which label the Edges leading
+     * into the Node with the given data and the internal data is a List
+     * containing the data inside the Nodes that these Edges originate from.
+     */
+    public Map<E, List<N>> edgesInto(N nodeData) {
+        return grouped(entries.get(nodeData).in);
+    }
+
+    /**
+     * @return returns the number of Nodes in this Graph
+     */
+    public int numberOfNodes() {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of Edges found in this graph
+     */
+    public int numberOfEdges() {
+        return edgeCount.intValue();
+    }
+
+    /**
+     * @spec.requires Nodes exist with startingData and endingData as their respective data
+     * @param startingData is the parent Node from which the sought edges originate
+     * @param endingData is the child Node into which the sought edges are leading
+     * @return a List of data containing the Labels of edges originating at
+     * the Node with startingData and ending at endingData
+     */
+    public List<E> edgesBetween(N startingData, N endingData) {
+        Edge<N,E>[] out = entries.get(startingData).out;
+        List<E> labels = new ArrayList<E>();
+        for(int i = firstEdgeTo(out, endingData); i < out.length && out[i].node.data.equals(endingData); i++) {
+            labels.add(out[i].label);
+        }
+        return labels;
+    }
+
+    /**
+     * @spec.requires The graph contains a Node with data 'starting data'
+     * @param startingData is the data of the Node from which this method starts
+     * @param label is the Edge label this method follows to find children Nodes along
+     * @return returns a List listing all data in Nodes with Edges labeled by 'label'
+     *  leading into them from the Node with startingNode as its data.
+     */
+    public List<N> nextNodesForLabel(N startingData, E label) {
+        List<N> reachableNodes = new ArrayList<N>();
+        for(Edge<N,E> edge : entries.get(startingData).out) {
+            if(edge.label.equals(label)) {
+                reachableNodes.add(edge.node.data);
+            }
+        }
+        return reachableNodes;
+    }
+
+    /**
+     * @spec.requires Node with startingData exists in Graph
+     * @param startingData is the data in the Node this method
+     * finds the children of
+     * @return a List containing the data of all Nodes
+     * which are the direct child of the Node with given data
+     */
+    public List<N> childNodes(N startingData) {
+        return endpoints(entries.get(startingData).out);
+    }
+
+    /**
+     * @spec.requires Node with childData exists in Graph
+     * @param childData is the data in the Node this method finds the parents of
+     * @return a List containing the data of the parent of every Edge
+     * leading into the Node with given data, sorted lexicographically
+     */
+    public List<N> parentNodes(N childData) {
+        return endpoints(entries.get(childData).in);
+    }
+
+    /**
+     * @spec.requires Node with childData exists in Graph
+     * @param childData is the data in the Node whose incoming Edges are counted
+     * @return the number of Edges leading into the Node with given data
+     */
+    public int inDegree(N childData) {
+        return entries.get(childData).in.length;
+    }
+
+    /**
+     * @spec.requires Node with nodeData exists in Graph
+     * @param nodeData is the data in the Node whose outgoing Edge labels are sought
+     * @return a List of every distinct label on the Edges leading away from
+     * the Node with given data, sorted lexicographically
+     */
+    public List<E> labelsOf(N nodeData) {
+        return new ArrayList<E>(grouped(entries.get(nodeData).out).keySet());
+    }
+
+    /**
+     * @return returns a List of all data stored in every
+     * Node of the graph sorted lexicographically
+     */
+    public List<N> allNodes() {
+        List<N> allNodes = new ArrayList<N>(entries.keySet());
+        Collections.sort(allNodes);
+        return allNodes;
+    }
+
+    /**
+     * @return graph as String in the same format as Graph.toString
+     */
+    @Override
+    public String toString() {
+        StringBuilder allGraph = new StringBuilder();
+        for(N data : allNodes()) {
+            Node<N,E> current = entries.get(data);
+            if(current == null) {
+                continue;
+            }
+            if(allGraph.length() > 0) {
+                allGraph.append('\n');
+            }
+            allGraph.append(data).append("'s connections:  ").append(grouped(current.out));
+        }
+        return allGraph.toString();
+    }
+
+    /**
+     * @param edges is an out or in array
+     * @return a Map from every label in edges to the data of the Nodes held
+     * by the Edges with that label, in the order found
+     */
+    private Map<E, List<N>> grouped(Edge<N,E>[] edges) {
+        Map<E, List<N>> edgeToNodes = new TreeMap<E, List<N>>();
+        for(Edge<N,E> edge : edges) {
+            if(!edgeToNodes.containsKey(edge.label)) {
+                edgeToNodes.put(edge.label, new ArrayList<N>());
+            }
+            edgeToNodes.get(edge.label).add(edge.node.data);
+        }
+        return edgeToNodes;
+    }
+
+    /**
+     * @param edges is an out or in array
+     * @return a List of the data of the Node held by every Edge in edges, in order
+     */
+    private List<N> endpoints(Edge<N,E>[] edges) {
+        List<N> nodes = new ArrayList<N>(edges.length);
+        for(Edge<N,E> edge : edges) {
+            nodes.add(edge.node.data);
+        }
+        return nodes;
+    }
+
+    /**
+     * @spec.requires nodes is not empty and holds no null
+     * @param nodes are the Nodes to lock, possibly with repeats
+     * @spec.effects blocks until every distinct Node in nodes is locked by this thread
+     * @return the distinct Nodes locked, in the order they were locked
+     */
+    private List<Node<N,E>> lockAll(List<Node<N,E>> nodes) {
+        List<Node<N,E>> ordered = new ArrayList<Node<N,E>>(nodes);
+        ordered.sort((first, second) -> Long.compare(first.order, second.order));
+        List<Node<N,E>> locked = new ArrayList<Node<N,E>>(ordered.size());
+        for(Node<N,E> node : ordered) {
+            if(locked.isEmpty() || locked.get(locked.size() - 1) != node) {
+                node.lock.lock();
+                locked.add(node);
+            }
+        }
+        return locked;
+    }
+
+    /**
+     * @param locked are Nodes locked by this thread
+     * @spec.effects unlocks every Node in locked, in reverse order
+     */
+    private void unlockAll(List<Node<N,E>> locked) {
+        for(int i = locked.size() - 1; i >= 0; i--) {
+            locked.get(i).lock.unlock();
+        }
+    }
+
+    /**
+     * @param edges is an out or in array
+     * @param data is the data of the sought Edge's Node
+     * @param label is the sought Edge's label
+     * @return the index of the matching Edge if present, otherwise
+     * (-(insertion point) - 1) as Arrays.binarySearch returns
+     */
+    private int search(Edge<N,E>[] edges, N data, E label) {
+        int start = 0;
+        int end = edges.length - 1;
+        while(start <= end) {
+            int middle = (start + end) >>> 1;
+            int comparison = edges[middle].node.data.compareTo(data);
+            if(comparison == 0) {
+                comparison = edges[middle].label.compareTo(label);
+            }
+            if(comparison < 0) {
+                start = middle + 1;
+            } else if(comparison > 0) {
+                end = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1 * start - 1;
+    }
+
+    /**
+     * @param edges is an out or in array
+     * @param data is the data of the Node whose Edges are sought
+     * @return the index of the first Edge in edges whose Node's data is not
+     * less than data
+     */
+    private int firstEdgeTo(Edge<N,E>[] edges, N data) {
+        int start = 0;
+        int end = edges.length;
+        while(start < end) {
+            int middle = (start + end) >>> 1;
+            if(edges[middle].node.data.compareTo(data) < 0) {
+                start = middle + 1;
+            } else {
+                end = middle;
+            }
+        }
+        return start;
+    }
+
+    /**
+     * @param edges is an out or in array
+     * @param node is the Node whose Edges are dropped
+     * @return a new array holding, in order, every Edge of edges not holding node
+     */
+    private Edge<N,E>[] withoutNode(Edge<N,E>[] edges, Node<N,E> node) {
+        int start = firstEdgeTo(edges, node.data);
+        int end = start;
+        while(end < edges.length && edges[end].node == node) {
+            end++;
+        }
+        Edge<N,E>[] shorter = newEdges(edges.length - (end - start));
+        System.arraycopy(edges, 0, shorter, 0, start);
+        System.arraycopy(edges, end, shorter, start, edges.length - end);
+        return shorter;
+    }
+
+    /**
+     * @param edges is an out or in array of node
+     * @param node is a Node
+     * @return every Node other than node held by an Edge of edges, each once, in
+     * the order of edges. Parallel Edges to one Node are adjacent in edges
+     */
+    private List<Node<N,E>> otherNodes(Edge<N,E>[] edges, Node<N,E> node) {
+        List<Node<N,E>> others = new ArrayList<Node<N,E>>();
+        for(Edge<N,E> edge : edges) {
+            if(edge.node != node && (others.isEmpty() || others.get(others.size() - 1) != edge.node)) {
+                others.add(edge.node);
+            }
+        }
+        return others;
+    }
+
+    /**
+     * @param out is the out array of node
+     * @param node is a Node
+     * @return the number of Edges in out leading back to node
+     */
+    private int selfLoops(Edge<N,E>[] out, Node<N,E> node) {
+        int loops = 0;
+        for(Edge<N,E> edge : out) {
+            if(edge.node == node) {
+                loops++;
+            }
+        }
+        return loops;
+    }
+
+    /**
+     * @return a new array equal to edges with added inserted at index
+     */
+    private Edge<N,E>[] inserted(Edge<N,E>[] edges, int index, Edge<N,E> added) {
+        Edge<N,E>[] longer = newEdges(edges.length + 1);
+        System.arraycopy(edges, 0, longer, 0, index);
+        longer[index] = added;
+        System.arraycopy(edges, index, longer, index + 1, edges.length - index);
+        return longer;
+    }
+
+    /**
+     * @return a new array equal to edges without the Edge at index
+     */
+    private Edge<N,E>[] removed(Edge<N,E>[] edges, int index) {
+        Edge<N,E>[] shorter = newEdges(edges.length - 1);
+        System.arraycopy(edges, 0, shorter, 0, index);
+        System.arraycopy(edges, index + 1, shorter, index, edges.length - index - 1);
+        return shorter;
+    }
+
+    /**
+     * @return a new array of Edges of given length
+     */
+    @SuppressWarnings("unchecked")
+    private static <N extends Comparable<N>, E extends Comparable<E>> Edge<N,E>[] newEdges(int length) {
+        return (Edge<N,E>[]) new Edge<?,?>[length];
+    }
+
+    /**
+     * Abstract state:
+     * Edge represents an immutable directed graph edge containing reference to exactly
+     * one Node and a label with data. In an out array the Node is the child,
+     * in an in array it is the parent
+     */
+    private static final class Edge<N extends Comparable<N>, E extends Comparable<E>> {
+
+        private final E label;
+        private final Node<N,E> node;
+
+        /**
+         * @spec.requires label, node are not null
+         * @spec.effects Constructs a new Edge holding given label and Node
+         */
+        public Edge(E label, Node<N,E> node) {
+            this.label = label;
+            this.node = node;
+        }
+    }
+
+    /**
+     * Abstract state:
+     * Node represents a directed graph node containing one unchanging piece of data
+     * and the Edges leading away from and into it
+     */
+    private static final class Node<N extends Comparable<N>, E extends Comparable<E>> {
+
+        private final N data;
+        private final long order;
+        private final ReentrantLock lock;
+        private volatile Edge<N,E>[] out;
+        private volatile Edge<N,E>[] in;
+        private volatile boolean removed;
+
+        /**
+         * @spec.effects Constructs a new Node containing given data with no Edges
+         * @param data is the Node's data
+         * @param order is the Node's unique place in the order locks are taken
+         */
+        public Node(N data, long order) {
+            this.data = data;
+            this.order = order;
+            this.lock = new ReentrantLock();
+            this.out = newEdges(0);
+            this.in = newEdges(0);
+            this.removed = false;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Abstract state:
+ * DegreeCounter represents the node count, edge count, and in- and out-degree of
+ * every node of one Graph, kept up to date as the Graph changes by listening to it,
+ * so that none of them is ever recounted
+ */
+
+import java.util.*;
+
+public final class DegreeCounter <N extends Comparable<N>, E extends Comparable<E>> implements GraphListener<N,E> {
+
+    private final Map<N, int[]> degrees;
+    private long edgeCount;
+
+    // Representation Invariant for every DegreeCounter:
+    // degrees != null, and every value is an array of two non-negative ints
+    // edgeCount is the sum of the first int of every value of degrees, and
+    // also the sum of the second
+    //
+    // Abstraction Function:
+    // DegreeCounter represents the counts of a graph whose nodes are the keys
+    // of degrees, the node with data n having out-degree degrees.get(n)[0] and
+    // in-degree degrees.get(n)[1], and which has edgeCount edges
+
+    /**
+     * @spec.requires graph is not null
+     * @param graph is the Graph to count
+     * @spec.effects Constructs a new DegreeCounter holding the counts of graph as
+     * it is now, and registers it with graph to follow its later changes. Remove
+     * it with Graph.removeListener to stop following them
+     */
+    public DegreeCounter(Graph<N,E> graph) {
+        degrees = new HashMap<N, int[]>();
+        edgeCount = 0;
+        for(N node : graph.allNodesView()) {
+            degrees.put(node, new int[2]);
+        }
+        for(N node : graph.allNodesView()) {
+            graph.forEachEdge(node, (label, child) -> apply(GraphEvent.<N,E>edgeAdded(node, child, label)));
+        }
+        graph.addListener(this);
+        this.checkRep();
+    }
+
+    /**
+     * @spec.modifies the counts are brought up to date with events
+     */
+    @Override
+    public void graphChanged(List<GraphEvent<N,E>> events) {
+        for(GraphEvent<N,E> event : events) {
+            apply(event);
+        }
+        this.checkRep();
+    }
+
+    /**
+     * @return the number of nodes in the Graph
+     */
+    public int numberOfNodes() {
+        return degrees.size();
+    }
+
+    /**
+     * @return the number of edges in the Graph
+     */
+    public long numberOfEdges() {
+        return edgeCount;
+    }
+
+    /**
+     * @param nodeData is the data of a node
+     * @return the number of edges leading away from the node with nodeData, or 0
+     * if the Graph holds no such node
+     */
+    public int outDegree(N nodeData) {
+        int[] counts = degrees.get(nodeData);
+        return counts == null ? 0 : counts[0];
+    }
+
+    /**
+     * @param nodeData is the data of a node
+     * @return the number of edges leading into the node with nodeData, or 0 if
+     * the Graph holds no such node
+     */
+    public int inDegree(N nodeData) {
+        int[] counts = degrees.get(nodeData);
+        return counts == null ? 0 : counts[1];
+    }
+
+    /**
+     * @spec.modifies the counts are changed as event describes
+     */
+    private void apply(GraphEvent<N,E> event) {
+        switch(event.getKind()) {
+            case NODE_ADDED:
+                degrees.put(event.getNode(), new int[2]);
+                break;
+            case NODE_REMOVED:
+                degrees.remove(event.getNode());
+                break;
+            default:
+                int change = event.getKind() == GraphEvent.Kind.EDGE_ADDED ? 1 : -1;
+                int[] parent = degrees.get(event.getParent());
+                int[] child = degrees.get(event.getChild());
+                if(parent == null || child == null) {
+                    return;
+                }
+                parent[0] += change;
+                child[1] += change;
+                edgeCount += change;
+                break;
+        }
+    }
+
+    /**
+     * Ensures representation invariant holds
+     */
+    private void checkRep() {
+        assert(degrees != null && edgeCount >= 0);
+    }
+}
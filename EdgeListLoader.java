@@ -0,0 +1,298 @@
+/**
+ * Abstract state:
+ * EdgeListLoader represents a reusable way of reading delimited text files of
+ * edges, one "parent, child, label" line per edge, into a Graph. Files are read
+ * through a fixed-size NIO buffer and edges are added in bounded batches, so
+ * memory use beyond the Graph itself does not grow with the file. A file
+ * GraphExporter wrote as TSV is read back with a '\t' delimiter and
+ * FieldParser.escapedStrings()
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+public final class EdgeListLoader <N extends Comparable<N>, E extends Comparable<E>> {
+
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final FieldParser<N> nodeParser;
+    private final FieldParser<E> labelParser;
+    private final byte delimiter;
+    private final int batchSize;
+
+    // Representation Invariant for every EdgeListLoader:
+    // nodeParser != null && labelParser != null && batchSize > 0
+    // delimiter is neither '\n' nor '\r'
+
+    /**
+     * @spec.requires parsers are not null, batchSize > 0, and delimiter is
+     * neither '\n' nor '\r'
+     * @spec.effects Constructs a new EdgeListLoader
+     * @param nodeParser reads the parent and child fields
+     * @param labelParser reads the label field
+     * @param delimiter separates the fields of a line, such as '\t' or ','
+     * @param batchSize is the most edges held before they are added to the Graph
+     */
+    public EdgeListLoader(FieldParser<N> nodeParser, FieldParser<E> labelParser, char delimiter, int batchSize) {
+        this.nodeParser = nodeParser;
+        this.labelParser = labelParser;
+        this.delimiter = (byte) delimiter;
+        this.batchSize = batchSize;
+        this.checkRep();
+    }
+
+    /**
+     * @spec.requires path and graph are not null
+     * @param path is a text file with one edge per line, as parent, child and label
+     * separated by the delimiter. Blank lines and lines starting with '#' are ignored,
+     * fields after the third are ignored, and lines may end in "\n" or "\r\n"
+     * @param graph is the Graph the edges are added to
+     * @spec.modifies every edge of the file is added to graph, along with any of its
+     * parent and child Nodes graph does not yet contain. Lines with fewer than three
+     * fields or fields the parsers reject are skipped
+     * @return counts and timing of the load
+     * @throws IOException if the file cannot be read
+     */
+    public Progress load(Path path, Graph<N,E> graph) throws IOException {
+        return load(path, graph, progress -> { });
+    }
+
+    /**
+     * @spec.requires path, graph and listener are not null
+     * @param path is a text file as described for load(Path, Graph)
+     * @param graph is the Graph the edges are added to
+     * @param listener is told the progress of the load after every batch
+     * @spec.modifies as for load(Path, Graph)
+     * @return counts and timing of the load
+     * @throws IOException if the file cannot be read
+     */
+    public Progress load(Path path, Graph<N,E> graph, ProgressListener listener) throws IOException {
+        long started = System.nanoTime();
+        Progress progress = new Progress(started);
+        List<LabeledEdge<N,E>> batch = new ArrayList<LabeledEdge<N,E>>(batchSize);
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            progress.totalBytes = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+            boolean ended = false;
+            //inv: every complete line before the buffer's position has been parsed,
+            //and every edge parsed is in graph or in batch
+            while(!ended) {
+                ended = channel.read(buffer) < 0;
+                byte[] bytes = buffer.array();
+                int limit = buffer.position();
+                int lineStart = 0;
+                for(int i = 0; i < limit; i++) {
+                    if(bytes[i] == '\n') {
+                        parseLine(bytes, lineStart, i, batch, progress);
+                        lineStart = i + 1;
+                        if(batch.size() >= batchSize) {
+                            flush(batch, graph, progress, listener);
+                        }
+                    }
+                }
+                if(ended && lineStart < limit) {
+                    parseLine(bytes, lineStart, limit, batch, progress);
+                    lineStart = limit;
+                }
+                progress.bytesRead += lineStart;
+                if(lineStart == 0 && limit == buffer.capacity()) {
+                    //a single line fills the buffer, so make room for the rest of it
+                    buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer.flip());
+                } else {
+                    buffer.flip().position(lineStart);
+                    buffer.compact();
+                }
+            }
+        }
+        flush(batch, graph, progress, listener);
+        return progress;
+    }
+
+    /**
+     * @param bytes holds the line
+     * @param start is the index of the line's first byte
+     * @param end is the index of the line's terminating newline, or one past its last byte
+     * @param batch is where the line's edge is held
+     * @param progress counts the line
+     * @spec.modifies if the line holds an edge it is added to batch; the line is counted
+     * in progress as read and, if it is malformed, as skipped
+     */
+    private void parseLine(byte[] bytes, int start, int end, List<LabeledEdge<N,E>> batch, Progress progress) {
+        progress.lines++;
+        if(end > start && bytes[end - 1] == '\r') {
+            end--;
+        }
+        if(start == end || bytes[start] == '#') {
+            return;
+        }
+        int first = indexOf(bytes, start, end);
+        int second = first < end ? indexOf(bytes, first + 1, end) : end;
+        if(second >= end) {
+            progress.skipped++;
+            return;
+        }
+        int third = indexOf(bytes, second + 1, end);
+        try {
+            N parent = nodeParser.parse(bytes, start, first);
+            N child = nodeParser.parse(bytes, first + 1, second);
+            E label = labelParser.parse(bytes, second + 1, third);
+            batch.add(new LabeledEdge<N,E>(parent, child, label));
+        } catch(IllegalArgumentException malformed) {
+            progress.skipped++;
+        }
+    }
+
+    /**
+     * @return the index of the first delimiter from start up to end, or end if there is none
+     */
+    private int indexOf(byte[] bytes, int start, int end) {
+        for(int i = start; i < end; i++) {
+            if(bytes[i] == delimiter) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * @spec.modifies every endpoint of batch missing from graph is added to it, then
+     * every edge of batch is added to graph, batch is emptied, the counts of progress
+     * are brought up to date, and listener is told of them
+     */
+    private void flush(List<LabeledEdge<N,E>> batch, Graph<N,E> graph, Progress progress,
+                       ProgressListener listener) {
+        List<N> endpoints = new ArrayList<N>(batch.size() * 2);
+        for(LabeledEdge<N,E> edge : batch) {
+            endpoints.add(edge.getParent());
+            endpoints.add(edge.getChild());
+        }
+        progress.nodesAdded += graph.addNodes(endpoints);
+        progress.edgesAdded += graph.addEdges(batch);
+        progress.edgesRead += batch.size();
+        batch.clear();
+        progress.elapsedNanos = System.nanoTime() - progress.started;
+        listener.progress(progress);
+    }
+
+    /**
+     * Ensures representation invariant holds
+     */
+    private void checkRep() {
+        assert(nodeParser != null && labelParser != null && batchSize > 0);
+        assert(delimiter != '\n' && delimiter != '\r');
+    }
+
+    /**
+     * Abstract state:
+     * ProgressListener represents something told how far a load has come
+     */
+    public interface ProgressListener {
+
+        /**
+         * @param progress is the state of the load so far. It is updated in place
+         * as the load continues, so must not be kept past this call
+         */
+        void progress(Progress progress);
+    }
+
+    /**
+     * Abstract state:
+     * Progress represents the counts and timing of one load, so far or when finished
+     */
+    public static final class Progress {
+
+        private final long started;
+        private long totalBytes;
+        private long bytesRead;
+        private long lines;
+        private long skipped;
+        private long edgesRead;
+        private long edgesAdded;
+        private long nodesAdded;
+        private long elapsedNanos;
+
+        /**
+         * @spec.effects Constructs a new Progress for a load begun at 'started'
+         */
+        private Progress(long started) {
+            this.started = started;
+        }
+
+        /**
+         * @return the size in bytes of the file being loaded
+         */
+        public long totalBytes() {
+            return totalBytes;
+        }
+
+        /**
+         * @return the number of bytes of the file parsed so far
+         */
+        public long bytesRead() {
+            return bytesRead;
+        }
+
+        /**
+         * @return the number of lines parsed so far, including blank, comment and skipped lines
+         */
+        public long lines() {
+            return lines;
+        }
+
+        /**
+         * @return the number of lines skipped as malformed so far
+         */
+        public long skipped() {
+            return skipped;
+        }
+
+        /**
+         * @return the number of edges read and handed to the Graph so far
+         */
+        public long edgesRead() {
+            return edgesRead;
+        }
+
+        /**
+         * @return the number of edges the Graph did not already hold, and so gained, so far
+         */
+        public long edgesAdded() {
+            return edgesAdded;
+        }
+
+        /**
+         * @return the number of Nodes created for endpoints the Graph lacked so far
+         */
+        public long nodesAdded() {
+            return nodesAdded;
+        }
+
+        /**
+         * @return the time in nanoseconds from the start of the load to the last batch
+         */
+        public long elapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * @return the edges read per second, averaged over the load so far
+         */
+        public double edgesPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : edgesRead * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * @return the counts and throughput of the load so far as one line
+         */
+        @Override
+        public String toString() {
+            return String.format("%d/%d bytes, %d lines, %d edges read (%d new), %d nodes added, "
+                    + "%d skipped, %.0f edges/s", bytesRead, totalBytes, lines, edgesRead, edgesAdded,
+                    nodesAdded, skipped, edgesPerSecond());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Abstract state:
+ * FieldParser represents a conversion from the text of one field of a delimited
+ * text file, given as raw bytes, to a value of one type
+ */
+
+import java.nio.charset.StandardCharsets;
+
+public interface FieldParser <T> {
+
+    /**
+     * @spec.requires 0 <= start <= end <= bytes.length
+     * @param bytes holds the field
+     * @param start is the index of the field's first byte
+     * @param end is one past the index of the field's last byte
+     * @return the value the field stands for
+     * @throws IllegalArgumentException if the field does not stand for any value
+     */
+    T parse(byte[] bytes, int start, int end);
+
+    /**
+     * @return a FieldParser reading fields as UTF-8 Strings
+     */
+    static FieldParser<String> strings() {
+        return (bytes, start, end) -> new String(bytes, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return a FieldParser reading fields as UTF-8 Strings in which \t, \n, \r and
+     * \\ stand for a tab, line feed, carriage return and backslash, and a backslash
+     * before any other character stands for that character, as GraphExporter writes
+     * TSV. A field ending in a lone backslash is rejected
+     */
+    static FieldParser<String> escapedStrings() {
+        return (bytes, start, end) -> {
+            int escape = start;
+            while(escape < end && bytes[escape] != '\\') {
+                escape++;
+            }
+            if(escape == end) {
+                return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+            }
+            byte[] unescaped = new byte[end - start];
+            int length = escape - start;
+            System.arraycopy(bytes, start, unescaped, 0, length);
+            //a backslash never occurs within a multi-byte UTF-8 character
+            for(int i = escape; i < end; i++) {
+                byte b = bytes[i];
+                if(b == '\\') {
+                    if(++i == end) {
+                        throw new IllegalArgumentException("field ends in a lone backslash");
+                    }
+                    b = bytes[i];
+                    b = b == 't' ? (byte) '\t' : b == 'n' ? (byte) '\n' : b == 'r' ? (byte) '\r' : b;
+                }
+                unescaped[length++] = b;
+            }
+            return new String(unescaped, 0, length, StandardCharsets.UTF_8);
+        };
+    }
+
+    /**
+     * @return a FieldParser reading fields as optionally signed decimal Integers
+     * straight from the bytes, without building a String
+     */
+    static FieldParser<Integer> integers() {
+        return (bytes, start, end) -> {
+            long value = FieldParser.parseDecimal(bytes, start, end);
+            if(value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                throw new NumberFormatException("field out of int range");
+            }
+            return (int) value;
+        };
+    }
+
+    /**
+     * @return a FieldParser reading fields as optionally signed decimal Longs
+     * straight from the bytes, without building a String
+     */
+    static FieldParser<Long> longs() {
+        return FieldParser::parseDecimal;
+    }
+
+    /**
+     * @param bytes holds the field
+     * @param start is the index of the field's first byte
+     * @param end is one past the index of the field's last byte
+     * @return the value of the field read as an optionally signed decimal number
+     * @throws NumberFormatException if the field is not such a number or does
+     * not fit in a long
+     */
+    private static long parseDecimal(byte[] bytes, int start, int end) {
+        boolean negative = start < end && bytes[start] == '-';
+        int i = (start < end && (bytes[start] == '-' || bytes[start] == '+')) ? start + 1 : start;
+        if(i == end) {
+            throw new NumberFormatException("empty numeric field");
+        }
+        long value = 0;
+        //accumulates negatively so Long.MIN_VALUE can be read
+        for(; i < end; i++) {
+            int digit = bytes[i] - '0';
+            if(digit < 0 || digit > 9) {
+                throw new NumberFormatException("non-digit in numeric field");
+            }
+            if(value < (Long.MIN_VALUE + digit) / 10) {
+                throw new NumberFormatException("numeric field out of range");
+            }
+            value = value * 10 - digit;
+        }
+        if(!negative) {
+            if(value == Long.MIN_VALUE) {
+                throw new NumberFormatException("numeric field out of range");
+            }
+            return -value;
+        }
+        return value;
+    }
+}
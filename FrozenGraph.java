@@ -0,0 +1,326 @@
+/**
+ * Abstract state:
+ * FrozenGraph represents an immutable directed multi-graph containing nodes with a
+ * specified type for data and edges labeled by the second specified type. Every node
+ * is also known by a dense int id, and every distinct label by a dense int label id,
+ * both assigned in lexicographic order of the data they stand for
+ */
+
+import java.util.*;
+
+public final class FrozenGraph <N extends Comparable<N>, E extends Comparable<E>> {
+
+    private final N[] nodes;
+    private final E[] labels;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] edgeLabels;
+
+    // Abstraction Function:
+    // FrozenGraph, f, represents the directed multigraph whose node with id i
+    // holds the data nodes[i]. The edges leading away from node i are the
+    // edges numbered offsets[i] up to but not including offsets[i + 1], and edge
+    // number k leads to the node with id targets[k] and is labeled by
+    // labels[edgeLabels[k]].
+    //
+    // Representation Invariant for every FrozenGraph f:
+    // no field is null and no element of nodes or labels is null
+    // nodes and labels are each in strictly increasing lexicographic order,
+    // so the id of a node or label is found by binary search
+    // offsets.length == nodes.length + 1, offsets[0] == 0,
+    // offsets[nodes.length] == targets.length == edgeLabels.length
+    // and offsets is non-decreasing
+    // Every element of targets is a valid node id and every element of
+    // edgeLabels is a valid label id
+    // Within the edges of each node, edges are in strictly increasing order
+    // by target id and then label id, so no node has two edges with the same
+    // label going to the same node
+
+    /**
+     * @spec.requires arguments satisfy the representation invariant of FrozenGraph,
+     * and are not retained or modified by the caller afterwards
+     * @spec.effects Constructs a new FrozenGraph over the given arrays
+     * @param nodes is the data of every node in id order
+     * @param labels is every distinct label in label id order
+     * @param offsets is where each node's edges begin in targets and edgeLabels
+     * @param targets is the child node id of every edge
+     * @param edgeLabels is the label id of every edge
+     */
+    FrozenGraph(N[] nodes, E[] labels, int[] offsets, int[] targets, int[] edgeLabels) {
+        this.nodes = nodes;
+        this.labels = labels;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.edgeLabels = edgeLabels;
+        this.checkRep();
+    }
+
+    /**
+     * @param nodeData is the data of the node being sought
+     * @return true if a node with the given data is in this FrozenGraph,
+     * false otherwise
+     */
+    public boolean containsNode(N nodeData) {
+        return idOf(nodeData) >= 0;
+    }
+
+    /**
+     * @return the number of nodes in this FrozenGraph
+     */
+    public int numberOfNodes() {
+        return nodes.length;
+    }
+
+    /**
+     * @return the number of edges in this FrozenGraph
+     */
+    public int numberOfEdges() {
+        return targets.length;
+    }
+
+    /**
+     * @return the number of distinct labels on the edges of this FrozenGraph
+     */
+    public int numberOfLabels() {
+        return labels.length;
+    }
+
+    /**
+     * @return a List of the data of every node sorted lexicographically
+     */
+    public List<N> allNodes() {
+        return new ArrayList<N>(Arrays.asList(nodes));
+    }
+
+    /**
+     * @spec.requires node with startingData exists in this FrozenGraph
+     * @param startingData is the data of the node whose children are sought
+     * @return a List containing the data of the child of every edge leading
+     * away from the node with given data, in the same order as Graph.childNodes
+     */
+    public List<N> childNodes(N startingData) {
+        int id = idOf(startingData);
+        List<N> children = new ArrayList<N>(outDegree(id));
+        for(int k = offsets[id]; k < offsets[id + 1]; k++) {
+            children.add(nodes[targets[k]]);
+        }
+        return children;
+    }
+
+    /**
+     * @spec.requires node with nodeData exists in this FrozenGraph
+     * @param nodeData is the data of the node whose edges are sought
+     * @return a Map where the keys are the labels of the edges leading away
+     * from the node with the given data and the internal data is a List
+     * containing the data of the nodes those edges lead to
+     */
+    public Map<E, List<N>> edgesOf(N nodeData) {
+        int id = idOf(nodeData);
+        Map<E, List<N>> edgeToNodes = new TreeMap<E, List<N>>();
+        for(int k = offsets[id]; k < offsets[id + 1]; k++) {
+            E label = labels[edgeLabels[k]];
+            if(!edgeToNodes.containsKey(label)) {
+                edgeToNodes.put(label, new ArrayList<N>());
+            }
+            edgeToNodes.get(label).add(nodes[targets[k]]);
+        }
+        return edgeToNodes;
+    }
+
+    /**
+     * @spec.requires nodes exist with startingData and endingData as their respective data
+     * @param startingData is the data of the parent node of the sought edges
+     * @param endingData is the data of the child node of the sought edges
+     * @return a List of the labels of edges leading from the node with
+     * startingData to the node with endingData, sorted lexicographically
+     */
+    public List<E> edgesBetween(N startingData, N endingData) {
+        int id = idOf(startingData);
+        int child = idOf(endingData);
+        List<E> between = new ArrayList<E>();
+        for(int k = firstEdgeTo(id, child); k < offsets[id + 1] && targets[k] == child; k++) {
+            between.add(labels[edgeLabels[k]]);
+        }
+        return between;
+    }
+
+    /**
+     * @spec.requires node with startingData exists in this FrozenGraph
+     * @param startingData is the data of the node this method starts from
+     * @param label is the edge label this method follows
+     * @return a List of the data of every node reached by an edge labeled
+     * by 'label' leading away from the node with startingData, sorted lexicographically
+     */
+    public List<N> nextNodesForLabel(N startingData, E label) {
+        int id = idOf(startingData);
+        List<N> reachable = new ArrayList<N>();
+        int labelId = labelIdOf(label);
+        if(labelId < 0) {
+            return reachable;
+        }
+        for(int k = offsets[id]; k < offsets[id + 1]; k++) {
+            if(edgeLabels[k] == labelId) {
+                reachable.add(nodes[targets[k]]);
+            }
+        }
+        return reachable;
+    }
+
+    /**
+     * @spec.requires node with nodeData exists in this FrozenGraph
+     * @param nodeData is the data of the node whose outgoing labels are sought
+     * @return a List of every distinct label on edges leading away from the
+     * node with given data, sorted lexicographically
+     */
+    public List<E> labelsOf(N nodeData) {
+        int id = idOf(nodeData);
+        boolean[] seen = new boolean[labels.length];
+        for(int k = offsets[id]; k < offsets[id + 1]; k++) {
+            seen[edgeLabels[k]] = true;
+        }
+        List<E> present = new ArrayList<E>();
+        for(int i = 0; i < seen.length; i++) {
+            if(seen[i]) {
+                present.add(labels[i]);
+            }
+        }
+        return present;
+    }
+
+    /**
+     * @param nodeData is the data of the node whose id is sought
+     * @return the id of the node with given data, or -1 if there is none
+     */
+    public int idOf(N nodeData) {
+        int id = Arrays.binarySearch(nodes, nodeData);
+        if(id < 0) {
+            return -1;
+        }
+        return id;
+    }
+
+    /**
+     * @spec.requires 0 <= id < numberOfNodes()
+     * @param id is the id of the node whose data is sought
+     * @return the data of the node with given id
+     */
+    public N nodeAt(int id) {
+        return nodes[id];
+    }
+
+    /**
+     * @param label is the label whose id is sought
+     * @return the label id of given label, or -1 if no edge has that label
+     */
+    public int labelIdOf(E label) {
+        int id = Arrays.binarySearch(labels, label);
+        if(id < 0) {
+            return -1;
+        }
+        return id;
+    }
+
+    /**
+     * @spec.requires 0 <= labelId < numberOfLabels()
+     * @param labelId is the id of the label sought
+     * @return the label with given label id
+     */
+    public E labelAt(int labelId) {
+        return labels[labelId];
+    }
+
+    /**
+     * @spec.requires 0 <= id < numberOfNodes()
+     * @param id is the id of the node whose edges are counted
+     * @return the number of edges leading away from the node with given id
+     */
+    public int outDegree(int id) {
+        return offsets[id + 1] - offsets[id];
+    }
+
+    /**
+     * @spec.requires 0 <= id < numberOfNodes()
+     * @param id is the id of a node
+     * @return the number of the first edge leading away from the node with
+     * given id. Its edges are numbered edgeStart(id) up to but not including edgeEnd(id)
+     */
+    public int edgeStart(int id) {
+        return offsets[id];
+    }
+
+    /**
+     * @spec.requires 0 <= id < numberOfNodes()
+     * @param id is the id of a node
+     * @return one past the number of the last edge leading away from the node with given id
+     */
+    public int edgeEnd(int id) {
+        return offsets[id + 1];
+    }
+
+    /**
+     * @spec.requires 0 <= edge < numberOfEdges()
+     * @param edge is the number of an edge
+     * @return the id of the node the given edge leads to
+     */
+    public int targetOf(int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * @spec.requires 0 <= edge < numberOfEdges()
+     * @param edge is the number of an edge
+     * @return the label id of the given edge
+     */
+    public int labelIdOfEdge(int edge) {
+        return edgeLabels[edge];
+    }
+
+    /**
+     * @spec.requires 0 <= id, child < numberOfNodes()
+     * @param id is the id of the parent node
+     * @param child is the id of the child node
+     * @return the number of the first edge from id to child, or if there
+     * is none, the number of the first edge from id whose target is after
+     * child, or edgeEnd(id) if there is no such edge either
+     */
+    public int firstEdgeTo(int id, int child) {
+        int start = offsets[id];
+        int end = offsets[id + 1];
+        //inv: every edge before start leads to a node before child
+        //and no edge from end on does
+        while(start < end) {
+            int middle = (start + end) >>> 1;
+            if(targets[middle] < child) {
+                start = middle + 1;
+            } else {
+                end = middle;
+            }
+        }
+        return start;
+    }
+
+    /**
+     * @return graph as String in the same format as Graph.toString
+     */
+    @Override
+    public String toString() {
+        StringBuilder allGraph = new StringBuilder();
+        for(int i = 0; i < nodes.length; i++) {
+            if(i > 0) {
+                allGraph.append('\n');
+            }
+            allGraph.append(nodes[i]).append("'s connections:  ").append(edgesOf(nodes[i]));
+        }
+        return allGraph.toString();
+    }
+
+    /**
+     * Ensures representation invariant holds
+     */
+    private void checkRep() {
+        assert(nodes != null && labels != null && offsets != null
+                && targets != null && edgeLabels != null);
+        assert(offsets.length == nodes.length + 1 && offsets[0] == 0);
+        assert(offsets[nodes.length] == targets.length && targets.length == edgeLabels.length);
+    }
+}
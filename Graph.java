@@ -5,38 +5,90 @@
  */
 
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class Graph <N extends Comparable<N>, E extends Comparable<E>> {
 
-    private final List<Node<N,E>> entries;
+    private final Map<N, Node<N,E>> entries;
+    private List<Node<N,E>> sortedEntries;
+    private final boolean indexIncoming;
+    private long clock;
+    private int edgeCount;
+    private final List<GraphListener<N,E>> listeners;
+    private volatile GraphSnapshot<N,E> committed;
+    private Set<Node<N,E>> dirty;
+    private GraphMetrics metrics;
 
     // Abstraction Function:
     // Graph, g, represents the directed multigraph
-    // with each node represented by a Node object in entries.
+    // with each node represented by a Node object stored in entries
+    // under its own data.
     // The edges of these nodes are represented by the List of
     // Edge objects held by each Node. When a Node's Edge object has a
     // Node as its 'childNode' that is equivalent to a node with an edge
-    // pointing to said child node
+    // pointing to said child node. When indexIncoming is true each
+    // Node additionally holds an Edge back to the parent of every
+    // edge leading into it; these mirror the edges above and represent
+    // nothing on their own.
     //
     // Representation Invariant for every Graph g:
     // entries != null
     // Every Node in entries must be non-null and marked by
-    // a unique, piece of data of the given type that no other Node has.
+    // a unique, piece of data of the given type that no other Node has,
+    // and must be stored under the key equal to its data.
+    // sortedEntries is either null or holds exactly the Nodes of entries
     // Every edge between Two Nodes is non-null and is marked by a piece of data
     // of its specified type
     // No Nodes can have two edges with the same label going to the same Node
-    // For every edge in the graph, its childNode is also in the graph
-    // The Nodes are in sorted order lexicographically
+    // For every edge in the graph, its childNode is also in the graph, and is
+    // the very Node object stored in entries under the child's data
+    // sortedEntries, when not null, is in sorted order lexicographically
     // Each Node's Edges are in sorted order lexicographically
+    // If indexIncoming, a Node n has an incoming Edge (label, p) exactly when
+    // p has an Edge (label, n), and each Node's incoming Edges are in sorted
+    // order lexicographically by parent data and then label
+    // If !indexIncoming, no Node holds incoming Edges
+    // clock is at least the version of every Node, and no two Nodes, even one
+    // since removed and one added later, have ever been given the same version
+    // edgeCount is the number of Edges held by all Nodes together
+    // listeners != null and holds no null element
+    // committed and dirty are both null, or both not null. If not null,
+    // committed holds, between public method calls, exactly the Nodes of entries
+    // and the data and label of each of their Edges, and dirty is empty
+    // metrics is null if operations are not being measured
 
     //Note to Self: Test implementation where entries is a TreeSet<Node>
     //Note to Self: Consider implementation where Edge has a Type N object instead of a second Node
 
     /**
      * @spec.effects creates new Graph containing no Nodes or Edges
+     * that does not keep an index of incoming Edges
      */
     public Graph(){
-        entries = new ArrayList<Node<N,E>>();
+        this(false);
+    }
+
+    /**
+     * @spec.effects creates new Graph containing no Nodes or Edges
+     * @param indexIncoming is whether the Graph should keep, for every Node, an
+     * index of the Edges leading into it. The index costs one extra Edge per Edge
+     * but makes removeNode proportional to the removed Node's in- and out-degree
+     * and parentNodes, edgesInto and inDegree proportional to its in-degree
+     */
+    public Graph(boolean indexIncoming){
+        entries = new HashMap<N, Node<N,E>>();
+        sortedEntries = null;
+        this.indexIncoming = indexIncoming;
+        this.clock = 0;
+        this.edgeCount = 0;
+        this.listeners = new ArrayList<GraphListener<N,E>>();
+        this.committed = null;
+        this.dirty = null;
+        this.metrics = null;
         this.checkRep();
     }
 
@@ -46,14 +98,8 @@ public class Graph <N extends Comparable<N>, E extends Comparable<E>> {
      * @return true if a node with the given data is found in this Graph,
      * false otherwise
      */
-    //Note to self: could be made faster using binary search
     public boolean containsNode(N nodeData) {
-        for(int i = 0; i < entries.size(); i++) {
-            if(entries.get(i).getData().equals(nodeData)) {
-                return true;
-            }
-        }
-        return false;
+        return entries.containsKey(nodeData);
     }
 
     /**
@@ -62,17 +108,30 @@ public class Graph <N extends Comparable<N>, E extends Comparable<E>> {
      * no modification is made to the graph
      * @param data is the data of specified type of the Node being added to the graph
      * @return returns true if no Node in the Graph contains the same data as this
-     * @spec.requires data is not null, entries is in alphabetical order
+     * @spec.requires data is not null and its hashCode is consistent with equals
      */
     public boolean addNode(N data) {
-        Node<N,E> newEntry = new Node<N,E>(data);
-        int index = Collections.binarySearch(entries, newEntry);
-        //if index >= 0 an identical Node is already in the graph
-        if(index < 0) {
-            entries.add(-1 * index - 1, newEntry );
-            this.checkRep();
+        GraphMetrics metrics = this.metrics;
+        long started = metrics == null ? 0 : metrics.start();
+        if(entries.containsKey(data)) {
+            if(metrics != null) {
+                metrics.finish(GraphMetrics.Operation.ADD_NODE, started, null, 0, 0);
+            }
+            return false;
         }
-        return (index < 0);
+        Node<N,E> added = new Node<N,E>(data, indexIncoming);
+        touch(added);
+        entries.put(data, added);
+        sortedEntries = null;
+        commit();
+        if(!listeners.isEmpty()) {
+            publish(List.of(GraphEvent.<N,E>nodeAdded(data)));
+        }
+        if(metrics != null) {
+            metrics.finish(GraphMetrics.Operation.ADD_NODE, started, null, 0, 0);
+        }
+        this.checkRep();
+        return true;
     }
 
     /**
@@ -86,21 +145,69 @@ public class Graph <N extends Comparable<N>, E extends Comparable<E>> {
      * @spec.requires data is not null
      */
     public boolean removeNode(N data) {
+        GraphMetrics metrics = this.metrics;
+        long started = metrics == null ? 0 : metrics.start();
         Node<N,E> unwanted = nodeWithData(data);
         if(unwanted == null) {
+            if(metrics != null) {
+                metrics.finish(GraphMetrics.Operation.REMOVE_NODE, started, null, 0, 0);
+            }
             return false;
         }
-        for(int i = 0; i < entries.size(); i++) {
-            entries.get(i).removeEdgesLeadingTo(unwanted);
+        //the Nodes swept for Edges into unwanted, or its Edges either way if indexed
+        long swept = indexIncoming ? unwanted.getIncoming().size() + unwanted.numberOfEdges() : entries.size();
+        int degree = unwanted.numberOfEdges();
+        List<GraphEvent<N,E>> events = listeners.isEmpty() ? null : new ArrayList<GraphEvent<N,E>>();
+        if(indexIncoming) {
+            List<Edge<N,E>> incoming = unwanted.getIncoming();
+            //inv: every parent of the first i incoming Edges no longer
+            //has Edges leading to unwanted
+            for(int i = 0; i < incoming.size(); i++) {
+                Node<N,E> parent = incoming.get(i).getChild();
+                //incoming Edges are sorted by parent, so each parent is visited once
+                if(i == 0 || !parent.dataEquals(incoming.get(i - 1).getChild())) {
+                    List<Edge<N,E>> gone = parent.removeEdgesLeadingTo(unwanted);
+                    touch(parent);
+                    edgeCount -= gone.size();
+                    record(events, parent, gone, false);
+                }
+            }
+            for(Edge<N,E> outgoing : unwanted.getEdges()) {
+                Node<N,E> child = outgoing.getChild();
+                if(child != unwanted) {
+                    child.removeIncomingFrom(unwanted);
+                }
+            }
+        } else {
+            for(Node<N,E> current : entries.values()) {
+                List<Edge<N,E>> gone = current.removeEdgesLeadingTo(unwanted);
+                if(!gone.isEmpty()) {
+                    touch(current);
+                    edgeCount -= gone.size();
+                    record(events, current, gone, false);
+                }
+            }
+        }
+        edgeCount -= unwanted.numberOfEdges();
+        record(events, unwanted, unwanted.getEdges(), false);
+        entries.remove(data);
+        sortedEntries = null;
+        touch(unwanted);
+        commit();
+        if(events != null) {
+            events.add(GraphEvent.<N,E>nodeRemoved(data));
+            publish(events);
+        }
+        if(metrics != null) {
+            metrics.finish(GraphMetrics.Operation.REMOVE_NODE, started, data, degree, swept);
         }
-        entries.remove(unwanted);
         this.checkRep();
         return true;
     }
 
     /**
-     * @spec.requires Edge label isn't null, Nodes with parentData and
-     * childData exist in graph, the Edges of the parent node are in alphabetical order
+     * @spec.requires Edge label isn't null, the Edges of the parent node are in
+     * alphabetical order
      * @param parentData is the data of the Node from which the new Edge leads
      * @param childData is the data of the Node into which the new Edge leads
      * @param label is the label of the new Edge
@@ -112,9 +219,33 @@ public class Graph <N extends Comparable<N>, E extends Comparable<E>> {
      * the Edge was added, else returns false.
      */
     public boolean addEdge(N parentData, N childData, E label) {
+        GraphMetrics metrics = this.metrics;
+        long started = metrics == null ? 0 : metrics.start();
         Node<N,E> parent = nodeWithData(parentData);
-        Edge<N,E> newEdge = new Edge<N,E>(label, new Node<N,E>(childData));
+        Node<N,E> child = nodeWithData(childData);
+        if(parent == null || child == null) {
+            if(metrics != null) {
+                metrics.finish(GraphMetrics.Operation.ADD_EDGE, started, null, 0, 0);
+            }
+            return false;
+        }
+        Edge<N,E> newEdge = new Edge<N,E>(label, child);
         boolean addable = parent.addEdge(newEdge);
+        if(addable) {
+            if(indexIncoming) {
+                child.addIncoming(new Edge<N,E>(label, parent));
+            }
+            touch(parent);
+            edgeCount++;
+            commit();
+            if(!listeners.isEmpty()) {
+                publish(List.of(GraphEvent.<N,E>edgeAdded(parentData, childData, label)));
+            }
+        }
+        if(metrics != null) {
+            int degree = parent.numberOfEdges();
+            metrics.finish(GraphMetrics.Operation.ADD_EDGE, started, parentData, degree, probes(degree));
+        }
         this.checkRep();
         return addable;
     }
@@ -132,17 +263,231 @@ public class Graph <N extends Comparable<N>, E extends Comparable<E>> {
      * Edge was added, else returns false
      */
     public boolean removeEdge(N parentData, N childData, E label) {
+        GraphMetrics metrics = this.metrics;
+        long started = metrics == null ? 0 : metrics.start();
         Node<N,E> child = nodeWithData(childData);
         Node<N,E> parent = nodeWithData(parentData);
         if(parent == null || child == null) {
+            if(metrics != null) {
+                metrics.finish(GraphMetrics.Operation.REMOVE_EDGE, started, null, 0, 0);
+            }
             return false;
         }
+        int degree = parent.numberOfEdges();
         Edge<N,E> newEdge = new Edge<N,E>(label, child);
         boolean removable = parent.removeEdge(newEdge);
+        if(removable) {
+            if(indexIncoming) {
+                child.removeIncoming(new Edge<N,E>(label, parent));
+            }
+            touch(parent);
+            edgeCount--;
+            commit();
+            if(!listeners.isEmpty()) {
+                publish(List.of(GraphEvent.<N,E>edgeRemoved(parentData, childData, label)));
+            }
+        }
+        if(metrics != null) {
+            metrics.finish(GraphMetrics.Operation.REMOVE_EDGE, started, parentData, degree, probes(degree));
+        }
         this.checkRep();
         return removable;
     }
 
+    /**
+     * @spec.requires childData is not null
+     * @param parentData is the data of the Node from which the Edges will be removed
+     * @param childData is the data of the Node the removed Edges lead to
+     * @spec.modifies every Edge leading from the Node with parentData to the Node
+     * with childData is removed, whatever its label, if both Nodes are in the graph.
+     * The Edges are found by binary search, as a Node's Edges are sorted by child,
+     * and removed together, taking time proportional to the log of the parent's
+     * out-degree plus the shifting of the Edges after them
+     * @return the number of Edges removed
+     */
+    public int removeEdgesBetween(N parentData, N childData) {
+        GraphMetrics metrics = this.metrics;
+        long started = metrics == null ? 0 : metrics.start();
+        Node<N,E> parent = nodeWithData(parentData);
+        Node<N,E> child = nodeWithData(childData);
+        if(parent == null || child == null) {
+            if(metrics != null) {
+                metrics.finish(GraphMetrics.Operation.REMOVE_EDGES_BETWEEN, started, null, 0, 0);
+            }
+            return 0;
+        }
+        int degree = parent.numberOfEdges();
+        List<Edge<N,E>> gone = parent.removeEdgesLeadingTo(child);
+        if(!gone.isEmpty()) {
+            if(indexIncoming) {
+                child.removeIncomingFrom(parent);
+            }
+            touch(parent);
+            edgeCount -= gone.size();
+            commit();
+            if(!listeners.isEmpty()) {
+                List<GraphEvent<N,E>> events = new ArrayList<GraphEvent<N,E>>();
+                record(events, parent, gone, false);
+                publish(events);
+            }
+        }
+        if(metrics != null) {
+            metrics.finish(GraphMetrics.Operation.REMOVE_EDGES_BETWEEN, started, parentData, degree,
+                    probes(degree) + gone.size());
+        }
+        this.checkRep();
+        return gone.size();
+    }
+
+    /**
+     * @spec.modifies a new Node is added to the Graph for every distinct datum of
+     * 'data' no Node in the Graph already contains
+     * @param data is the data of the Nodes being added to the graph
+     * @return the number of Nodes added
+     * @spec.requires data and its elements are not null, and their hashCode is
+     * consistent with equals
+     */
+    public int addNodes(Collection<? extends N> data) {
+        GraphMetrics metrics = this.metrics;
+        long started = metrics == null ? 0 : metrics.start();
+        int added = 0;
+        List<GraphEvent<N,E>> events = listeners.isEmpty() ? null : new ArrayList<GraphEvent<N,E>>();
+        for(N current : data) {
+            if(!entries.containsKey(current)) {
+                Node<N,E> fresh = new Node<N,E>(current, indexIncoming);
+                touch(fresh);
+                entries.put(current, fresh);
+                added++;
+                if(events != null) {
+                    events.add(GraphEvent.<N,E>nodeAdded(current));
+                }
+            }
+        }
+        if(added > 0) {
+            sortedEntries = null;
+        }
+        commit();
+        if(events != null && !events.isEmpty()) {
+            publish(events);
+        }
+        if(metrics != null) {
+            metrics.finish(GraphMetrics.Operation.ADD_NODES, started, null, 0, data.size());
+        }
+        this.checkRep();
+        return added;
+    }
+
+    /**
+     * @spec.requires newEdges and its elements are not null
+     * @param newEdges describes the Edges to add
+     * @spec.modifies every Edge of newEdges whose parent and child are both in the
+     * graph, and which the graph does not already hold, is added, leaving the same
+     * final state as calling addEdge for each in turn. Edges are grouped by parent and
+     * merged into each parent's Edges in a single pass, rather than inserted one by
+     * one, so events are grouped by parent, in the order parents first appear
+     * @return the number of Edges added
+     */
+    public int addEdges(Collection<LabeledEdge<N,E>> newEdges) {
+        GraphMetrics metrics = this.metrics;
+        long started = metrics == null ? 0 : metrics.start();
+        int added = 0;
+        List<GraphEvent<N,E>> events = listeners.isEmpty() ? null : new ArrayList<GraphEvent<N,E>>();
+        Map<Node<N,E>, List<Edge<N,E>>> byChild = new HashMap<Node<N,E>, List<Edge<N,E>>>();
+        for(Map.Entry<Node<N,E>, List<Edge<N,E>>> group : groupedByParent(newEdges).entrySet()) {
+            Node<N,E> parent = group.getKey();
+            List<Edge<N,E>> fresh = parent.addEdges(group.getValue());
+            added += fresh.size();
+            if(!fresh.isEmpty()) {
+                touch(parent);
+                record(events, parent, fresh, true);
+            }
+            if(indexIncoming) {
+                for(Edge<N,E> current : fresh) {
+                    byChild.computeIfAbsent(current.getChild(), child -> new ArrayList<Edge<N,E>>())
+                            .add(new Edge<N,E>(current.getLabel(), parent));
+                }
+            }
+        }
+        for(Map.Entry<Node<N,E>, List<Edge<N,E>>> group : byChild.entrySet()) {
+            group.getKey().addIncoming(group.getValue());
+        }
+        edgeCount += added;
+        commit();
+        if(events != null && !events.isEmpty()) {
+            publish(events);
+        }
+        if(metrics != null) {
+            metrics.finish(GraphMetrics.Operation.ADD_EDGES, started, null, 0, newEdges.size());
+        }
+        this.checkRep();
+        return added;
+    }
+
+    /**
+     * @spec.requires unwantedEdges and its elements are not null
+     * @param unwantedEdges describes the Edges to remove
+     * @spec.modifies every Edge of unwantedEdges the graph holds is removed, leaving
+     * the same final state as calling removeEdge for each in turn. Edges are grouped
+     * by parent and filtered out of each parent's Edges in a single pass, so events
+     * are grouped by parent, in the order parents first appear
+     * @return the number of Edges removed
+     */
+    public int removeEdges(Collection<LabeledEdge<N,E>> unwantedEdges) {
+        GraphMetrics metrics = this.metrics;
+        long started = metrics == null ? 0 : metrics.start();
+        int removed = 0;
+        List<GraphEvent<N,E>> events = listeners.isEmpty() ? null : new ArrayList<GraphEvent<N,E>>();
+        Map<Node<N,E>, List<Edge<N,E>>> byChild = new HashMap<Node<N,E>, List<Edge<N,E>>>();
+        for(Map.Entry<Node<N,E>, List<Edge<N,E>>> group : groupedByParent(unwantedEdges).entrySet()) {
+            Node<N,E> parent = group.getKey();
+            List<Edge<N,E>> gone = parent.removeEdges(group.getValue());
+            removed += gone.size();
+            if(!gone.isEmpty()) {
+                touch(parent);
+                record(events, parent, gone, false);
+            }
+            if(indexIncoming) {
+                for(Edge<N,E> current : gone) {
+                    byChild.computeIfAbsent(current.getChild(), child -> new ArrayList<Edge<N,E>>())
+                            .add(new Edge<N,E>(current.getLabel(), parent));
+                }
+            }
+        }
+        for(Map.Entry<Node<N,E>, List<Edge<N,E>>> group : byChild.entrySet()) {
+            group.getKey().removeIncoming(group.getValue());
+        }
+        edgeCount -= removed;
+        commit();
+        if(events != null && !events.isEmpty()) {
+            publish(events);
+        }
+        if(metrics != null) {
+            metrics.finish(GraphMetrics.Operation.REMOVE_EDGES, started, null, 0, unwantedEdges.size());
+        }
+        this.checkRep();
+        return removed;
+    }
+
+    /**
+     * @param described are LabeledEdges to find in this graph
+     * @return a Map from each parent Node to Edges, holding the child Node and
+     * label, for every element of described whose parent and child are both
+     * in the graph, possibly with repeats. Parents iterate in the order they
+     * first appear in described
+     */
+    private Map<Node<N,E>, List<Edge<N,E>>> groupedByParent(Collection<LabeledEdge<N,E>> described) {
+        Map<Node<N,E>, List<Edge<N,E>>> byParent = new LinkedHashMap<Node<N,E>, List<Edge<N,E>>>();
+        for(LabeledEdge<N,E> current : described) {
+            Node<N,E> parent = nodeWithData(current.getParent());
+            Node<N,E> child = nodeWithData(current.getChild());
+            if(parent != null && child != null) {
+                byParent.computeIfAbsent(parent, node -> new ArrayList<Edge<N,E>>())
+                        .add(new Edge<N,E>(current.getLabel(), child));
+            }
+        }
+        return byParent;
+    }
+
     /**
      * @spec.requires Node with corresponding data is present in graph
      * @param nodeData is the data stored in the Node for which
@@ -153,8 +498,89 @@ public class Graph <N extends Comparable<N>, E extends Comparable<E>> {
      * inside the Nodes that this data's Node has Edges to.
      */
     public Map<E, List<N>> edgesOf(N nodeData) {
+        GraphMetrics metrics = this.metrics;
+        long started = metrics == null ? 0 : metrics.start();
         Node<N,E> current = nodeWithData(nodeData);
-        return current.nodeEdges();
+        Map<E, List<N>> edges = current.nodeEdges();
+        if(metrics != null) {
+            int degree = current.numberOfEdges();
+            metrics.finish(GraphMetrics.Operation.EDGES_OF, started, nodeData, degree, degree);
+        }
+        return edges;
+    }
+
+    /**
+     * @spec.requires Node with corresponding data is present in graph
+     * @param nodeData is the data stored in the Node for which
+     * the user wants to see the Edge labels leading into it and their parent Nodes
+     * @return a Map where the keys are the data which label the Edges leading
+     * into the Node with the given data and the internal data is a List
+     * containing the data inside the Nodes that these Edges originate from.
+     */
+    public Map<E, List<N>> edgesInto(N nodeData) {
+        Map<E, List<N>> edgeToNodes = new TreeMap<E, List<N>>();
+        //inv: after i iterations of this loop, i pairs of Edge label for keys
+        //and parent Node data for entries have been made into the Map edgeToNodes
+        for(Edge<N,E> current : incomingEdges(nodeWithData(nodeData))) {
+            if(!edgeToNodes.containsKey(current.getLabel())) {
+                edgeToNodes.put(current.getLabel(), new ArrayList<N>());
+            }
+            edgeToNodes.get(current.getLabel()).add(current.getChild().getData());
+        }
+        return edgeToNodes;
+    }
+
+    /**
+     * @spec.requires Node with childData exists in Graph
+     * @param childData is the data in the Node this method
+     * finds the parents of
+     * @return a List containing the data of the parent of every Edge
+     * leading into the Node with given data, sorted lexicographically. A
+     * parent with several such Edges appears once per Edge
+     */
+    public List<N> parentNodes(N childData) {
+        GraphMetrics metrics = this.metrics;
+        long started = metrics == null ? 0 : metrics.start();
+        List<Edge<N,E>> incoming = incomingEdges(nodeWithData(childData));
+        List<N> parents = new ArrayList<N>(incoming.size());
+        for(int i = 0; i < incoming.size(); i++) {
+            parents.add(incoming.get(i).getChild().getData());
+        }
+        if(metrics != null) {
+            metrics.finish(GraphMetrics.Operation.PARENT_NODES, started, null, 0,
+                    indexIncoming ? incoming.size() : entries.size());
+        }
+        return parents;
+    }
+
+    /**
+     * @spec.requires Node with childData exists in Graph
+     * @param childData is the data in the Node whose incoming Edges are counted
+     * @return the number of Edges leading into the Node with given data
+     */
+    public int inDegree(N childData) {
+        return incomingEdges(nodeWithData(childData)).size();
+    }
+
+    /**
+     * @spec.requires child is not null and is in the graph
+     * @param child is the Node whose incoming Edges are sought
+     * @return a List of Edges, one per Edge leading into child, each holding the
+     * parent of that Edge and its label, sorted by parent data and then label.
+     * If the incoming index is kept the returned List is shared and must not be
+     * modified, otherwise it is found by scanning every Node in the graph
+     */
+    private List<Edge<N,E>> incomingEdges(Node<N,E> child) {
+        if(indexIncoming) {
+            return child.getIncoming();
+        }
+        List<Edge<N,E>> incoming = new ArrayList<Edge<N,E>>();
+        for(Node<N,E> parent : sortedNodes()) {
+            for(E label : parent.edgesTo(child.getData())) {
+                incoming.add(new Edge<N,E>(label, parent));
+            }
+        }
+        return incoming;
     }
 
     /**
@@ -168,11 +594,7 @@ public class Graph <N extends Comparable<N>, E extends Comparable<E>> {
      * @return the number of Edges found in this graph
      */
     public int numberOfEdges() {
-        int sum = 0;
-        for(int i = 0; i < entries.size(); i++) {
-            sum+= entries.get(i).numberOfEdges();
-        }
-        return sum;
+        return edgeCount;
     }
 
     /**
@@ -180,11 +602,29 @@ public class Graph <N extends Comparable<N>, E extends Comparable<E>> {
      * @param startingData is the parent Node from which the sought edges originate
      * @param endingData is the child Node into which the sought edges are leading
      * @return a List of data containing the Labels of edges originating at
-     * the Node with startingData and ending at endingData
+     * the Node with startingData and ending at endingData, sorted lexicographically.
+     * They are found by binary search over the parent's Edges, which are sorted by
+     * child, in time proportional to the log of its out-degree plus their number
      */
     public List<E> edgesBetween(N startingData, N endingData) {
+        GraphMetrics metrics = this.metrics;
+        long started = metrics == null ? 0 : metrics.start();
         Node<N,E> current = nodeWithData(startingData);
-        return current.edgesTo(endingData);
+        List<E> between = current.edgesTo(endingData);
+        if(metrics != null) {
+            int degree = current.numberOfEdges();
+            metrics.finish(GraphMetrics.Operation.EDGES_BETWEEN, started, startingData, degree,
+                    probes(degree) + between.size());
+        }
+        return between;
+    }
+
+    /**
+     * @return the most Edges a binary search over 'degree' sorted Edges examines,
+     * reported to metrics as scanned by the operations that search a Node's Edges
+     */
+    private static int probes(int degree) {
+        return Integer.SIZE - Integer.numberOfLeadingZeros(degree);
     }
 
     /**
@@ -196,8 +636,15 @@ public class Graph <N extends Comparable<N>, E extends Comparable<E>> {
      *  leading into them from the Node with startingNode as its data.
      */
     public List<N> nextNodesForLabel(N startingData, E label) {
+        GraphMetrics metrics = this.metrics;
+        long started = metrics == null ? 0 : metrics.start();
         Node<N,E> current = nodeWithData(startingData);
-        return current.getChildrenOfLabel(label);
+        List<N> reachable = current.getChildrenOfLabel(label);
+        if(metrics != null) {
+            metrics.finish(GraphMetrics.Operation.NEXT_NODES_FOR_LABEL, started, startingData,
+                    current.numberOfEdges(), reachable.size());
+        }
+        return reachable;
     }
 
     /**
@@ -208,36 +655,738 @@ public class Graph <N extends Comparable<N>, E extends Comparable<E>> {
      * which are the direct child of the Node with given data
      */
     public List<N> childNodes(N startingData){
+        GraphMetrics metrics = this.metrics;
+        long started = metrics == null ? 0 : metrics.start();
         Node<N,E> current = nodeWithData(startingData);
-        return current.childNodes();
+        List<N> children = current.childNodes();
+        if(metrics != null) {
+            int degree = current.numberOfEdges();
+            metrics.finish(GraphMetrics.Operation.CHILD_NODES, started, startingData, degree, degree);
+        }
+        return children;
+    }
+
+    /**
+     * @spec.requires Node with nodeData exists in Graph
+     * @param nodeData is the data in the Node whose outgoing Edge labels are sought
+     * @return a List of every distinct label on the Edges leading away from
+     * the Node with given data, sorted lexicographically
+     */
+    public List<E> labelsOf(N nodeData) {
+        Node<N,E> current = nodeWithData(nodeData);
+        return current.labels();
+    }
+
+    /**
+     * @spec.requires Node with startingData exists in Graph
+     * @param startingData is the data in the Node this method finds the children of
+     * @return an unmodifiable List, backed by the Node's Edges, of the data of all
+     * Nodes which are the direct child of the Node with given data, in the same
+     * order as childNodes. Later modification of the Graph shows through it
+     */
+    public List<N> childView(N startingData) {
+        return nodeWithData(startingData).childView();
+    }
+
+    /**
+     * @spec.requires Node with startingData exists in Graph, and the Graph is
+     * not modified while the returned Stream is in use
+     * @param startingData is the data in the Node this method finds the children of
+     * @return a Stream of the data of all Nodes which are the direct child of the
+     * Node with given data, in the same order as childNodes, read directly from
+     * the Node's Edges
+     */
+    public Stream<N> childStream(N startingData) {
+        return nodeWithData(startingData).childView().stream();
     }
 
+    /**
+     * @spec.requires The graph contains a Node with data 'startingData'
+     * @param startingData is the data of the Node from which this method starts
+     * @param label is the Edge label this method follows to find children Nodes along
+     * @return an unmodifiable List, backed by the Node's label index, of the data of
+     * every Node with an Edge labeled by 'label' leading into it from the Node with
+     * startingData, in the same order as nextNodesForLabel. Later modification of
+     * the Graph shows through it for as long as the Node keeps some Edge with that label
+     */
+    public List<N> nextNodesView(N startingData, E label) {
+        return nodeWithData(startingData).childrenOfLabelView(label);
+    }
+
+    /**
+     * @spec.requires Node with startingData exists in Graph, action is not null, and
+     * action does not modify the Graph
+     * @param startingData is the data in the Node whose Edges are visited
+     * @param action is given the label and child data of every Edge leading away
+     * from the Node with given data, in the same order as childNodes
+     */
+    public void forEachEdge(N startingData, BiConsumer<? super E, ? super N> action) {
+        List<Edge<N,E>> edges = nodeWithData(startingData).getEdges();
+        for(int i = 0; i < edges.size(); i++) {
+            action.accept(edges.get(i).getLabel(), edges.get(i).getChild().getData());
+        }
+    }
+
+    /**
+     * @return an unmodifiable Set, backed by the Graph, of the data of every Node,
+     * in no particular order. Later modification of the Graph shows through it
+     */
+    public Set<N> allNodesView() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+
+    /**
+     * @spec.requires listener is not null, and neither modifies the Graph nor adds
+     * or removes listeners when told of a change
+     * @spec.modifies listener is told, after every later modification of the Graph,
+     * of the GraphEvents that make it up, until it is removed. Every public method
+     * that changes the Graph delivers its events together in one call, in the
+     * order they took effect, once every query of the Graph already reflects
+     * them. removeNode reports each Edge into or out of the removed Node as
+     * removed before the Node itself
+     */
+    public void addListener(GraphListener<N,E> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @spec.modifies listener, if registered, is told of no further changes
+     * @return true if listener was registered, false otherwise
+     */
+    public boolean removeListener(GraphListener<N,E> listener) {
+        return listeners.remove(listener);
+    }
+
+    /**
+     * @spec.modifies operations of the Graph are measured by metrics from now on,
+     * or by nothing if metrics is null. One GraphMetrics may measure several Graphs
+     * @param metrics is where measurements are recorded, or null to stop measuring
+     */
+    public void setMetrics(GraphMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return the GraphMetrics measuring operations of the Graph, or null if none is
+     */
+    public GraphMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @spec.modifies if events is not null, an event for every Edge of 'edges',
+     * each leading away from parent, is added to it
+     * @param added is whether the Edges were added rather than removed
+     */
+    private void record(List<GraphEvent<N,E>> events, Node<N,E> parent, List<Edge<N,E>> edges, boolean added) {
+        if(events == null) {
+            return;
+        }
+        for(int i = 0; i < edges.size(); i++) {
+            N child = edges.get(i).getChild().getData();
+            E label = edges.get(i).getLabel();
+            events.add(added ? GraphEvent.<N,E>edgeAdded(parent.getData(), child, label)
+                    : GraphEvent.<N,E>edgeRemoved(parent.getData(), child, label));
+        }
+    }
+
+    /**
+     * @spec.modifies every listener is told of events
+     */
+    private void publish(List<GraphEvent<N,E>> events) {
+        List<GraphEvent<N,E>> told = Collections.unmodifiableList(events);
+        for(int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).graphChanged(told);
+        }
+    }
+
+    /**
+     * @return a number that grows with every modification of the Graph, so that
+     * two equal results bracket a stretch in which the Graph did not change
+     */
+    public long version() {
+        return clock;
+    }
+
+    /**
+     * @param nodeData is the data of the Node whose version is sought
+     * @return -1 if no Node holds nodeData, otherwise a number that changes
+     * whenever the Edges leading away from that Node change, including when
+     * Edges into a removed Node are dropped. Versions are never reused, even
+     * by a Node removed and added again, so an unchanged version means the
+     * Node and its outgoing Edges are exactly as they were
+     */
+    public long versionOf(N nodeData) {
+        Node<N,E> node = nodeWithData(nodeData);
+        return node == null ? -1 : node.getVersion();
+    }
+
+    /**
+     * @spec.modifies node is given a version no Node has had before, and is
+     * marked for commit to publish if snapshots have been taken
+     */
+    private void touch(Node<N,E> node) {
+        node.setVersion(++clock);
+        if(dirty != null) {
+            dirty.add(node);
+        }
+    }
+
+    /**
+     * @spec.requires the first call is not made while the Graph is being modified;
+     * later calls may be made from any thread at any time
+     * @return a read-only GraphSnapshot of the Graph as it is now, that later
+     * modification of the Graph does not affect, and that any thread may read
+     * while the Graph is modified. The first call sets the Graph up to keep its
+     * Nodes in a persistent tree as well, taking time linear in its size; from then
+     * on every call takes constant time, and every modification also copies the
+     * path to and the Edges of each Node it changes, which is no more than the
+     * modification itself costs. A snapshot that is closed, or no longer
+     * referenced, no longer keeps its version of the Graph from being reclaimed
+     */
+    public GraphSnapshot<N,E> snapshot() {
+        GraphSnapshot<N,E> current = committed;
+        if(current == null) {
+            List<Node<N,E>> sorted = sortedNodes();
+            List<N> data = new ArrayList<N>(sorted.size());
+            List<N[]> children = new ArrayList<N[]>(sorted.size());
+            List<E[]> labels = new ArrayList<E[]>(sorted.size());
+            for(int i = 0; i < sorted.size(); i++) {
+                data.add(sorted.get(i).getData());
+                children.add(childArray(sorted.get(i)));
+                labels.add(labelArray(sorted.get(i)));
+            }
+            dirty = new HashSet<Node<N,E>>();
+            current = new GraphSnapshot<N,E>(GraphSnapshot.balanced(data, children, labels, 0, sorted.size()),
+                    edgeCount, clock);
+            committed = current;
+        }
+        return current.copy();
+    }
+
+    /**
+     * @spec.modifies if snapshots have been taken, committed is brought up to date
+     * with every Node marked since the last commit, which is published to readers
+     * all at once, and the marks are cleared
+     */
+    private void commit() {
+        if(dirty == null || dirty.isEmpty()) {
+            return;
+        }
+        GraphSnapshot.Tree<N,E> root = committed.root();
+        for(Node<N,E> node : dirty) {
+            if(entries.get(node.getData()) == node) {
+                root = GraphSnapshot.with(root, node.getData(), childArray(node), labelArray(node));
+            } else {
+                root = GraphSnapshot.without(root, node.getData());
+            }
+        }
+        dirty.clear();
+        committed = new GraphSnapshot<N,E>(root, edgeCount, clock);
+    }
+
+    /**
+     * @return a new array of the data of the child of every Edge of node, in order
+     */
+    @SuppressWarnings("unchecked")
+    private N[] childArray(Node<N,E> node) {
+        List<Edge<N,E>> edges = node.getEdges();
+        N[] children = (N[]) new Comparable<?>[edges.size()];
+        for(int i = 0; i < children.length; i++) {
+            children[i] = edges.get(i).getChild().getData();
+        }
+        return children;
+    }
+
+    /**
+     * @return a new array of the label of every Edge of node, in order
+     */
+    @SuppressWarnings("unchecked")
+    private E[] labelArray(Node<N,E> node) {
+        List<Edge<N,E>> edges = node.getEdges();
+        E[] labels = (E[]) new Comparable<?>[edges.size()];
+        for(int i = 0; i < labels.length; i++) {
+            labels[i] = edges.get(i).getLabel();
+        }
+        return labels;
+    }
 
     /**
-     * @spec.requires entries is sorted alphabetically
      * @param data is the data held within the Node being sought
      * @return returns the Node holding data equal to given data,
      * if no such Node is present, returns null
      */
     private Node<N,E> nodeWithData(N data) {
-        int index = Collections.binarySearch(entries, new Node<N,E>(data));
-        if(index < 0) {
+        if(metrics != null) {
+            metrics.lookedUp();
+        }
+        return entries.get(data);
+    }
+
+    /**
+     * @spec.modifies sortedEntries is rebuilt from entries if it is stale
+     * @return returns a List of every Node in the graph sorted
+     * lexicographically by data. The List is shared and must not be modified
+     */
+    private List<Node<N,E>> sortedNodes() {
+        if(sortedEntries == null) {
+            List<Node<N,E>> sorted = new ArrayList<Node<N,E>>(entries.values());
+            Collections.sort(sorted);
+            sortedEntries = sorted;
+        }
+        return sortedEntries;
+    }
+
+    /**
+     * @return returns a List of all data stored in every
+     * Node of the graph sorted lexicographically
+     */
+    public List<N> allNodes() {
+        List<Node<N,E>> sorted = sortedNodes();
+        List<N> allNodes = new ArrayList<N>(sorted.size());
+        for(int i = 0; i < sorted.size(); i++) {
+            allNodes.add(sorted.get(i).getData());
+        }
+        return allNodes;
+    }
+
+    /**
+     * @spec.requires Node with startingData exists in Graph, and the Graph is
+     * not modified while the returned Iterator is in use
+     * @param startingData is the data of the Node the traversal starts from
+     * @return an Iterator over the data of every Node reachable from the Node
+     * with startingData, starting with it, in breadth-first order. Children
+     * of a Node are visited in lexicographic order
+     */
+    public Iterator<N> breadthFirst(N startingData) {
+        return breadthFirst(startingData, label -> true);
+    }
+
+    /**
+     * @spec.requires Node with startingData exists in Graph, labelFilter is not
+     * null, and the Graph is not modified while the returned Iterator is in use
+     * @param startingData is the data of the Node the traversal starts from
+     * @param labelFilter accepts the labels of the Edges the traversal may follow
+     * @return an Iterator over the data of every Node reachable from the Node
+     * with startingData along Edges whose labels labelFilter accepts, starting
+     * with it, in breadth-first order
+     */
+    public Iterator<N> breadthFirst(N startingData, Predicate<? super E> labelFilter) {
+        return new Traversal(nodeWithData(startingData), labelFilter, false);
+    }
+
+    /**
+     * @spec.requires Node with startingData exists in Graph, and the Graph is
+     * not modified while the returned Iterator is in use
+     * @param startingData is the data of the Node the traversal starts from
+     * @return an Iterator over the data of every Node reachable from the Node
+     * with startingData, starting with it, in depth-first preorder. Children
+     * of a Node are explored in lexicographic order
+     */
+    public Iterator<N> depthFirst(N startingData) {
+        return depthFirst(startingData, label -> true);
+    }
+
+    /**
+     * @spec.requires Node with startingData exists in Graph, labelFilter is not
+     * null, and the Graph is not modified while the returned Iterator is in use
+     * @param startingData is the data of the Node the traversal starts from
+     * @param labelFilter accepts the labels of the Edges the traversal may follow
+     * @return an Iterator over the data of every Node reachable from the Node
+     * with startingData along Edges whose labels labelFilter accepts, starting
+     * with it, in depth-first preorder
+     */
+    public Iterator<N> depthFirst(N startingData, Predicate<? super E> labelFilter) {
+        return new Traversal(nodeWithData(startingData), labelFilter, true);
+    }
+
+    /**
+     * @spec.requires Node with startingData exists in Graph, query is not null,
+     * and the Graph is not modified while the returned Iterator is in use
+     * @param startingData is the data of the Node paths start from
+     * @param query is the compiled pattern the labels along a path must spell
+     * @return an Iterator over the data of every Node at the end of some path
+     * from the Node with startingData whose labels query matches, each once, in
+     * order of the length of the shortest such path. Results are found lazily, so
+     * taking only the first few explores only as much of the Graph as they need
+     */
+    public Iterator<N> pathQuery(N startingData, PathQuery<E> query) {
+        return new PatternSearch(nodeWithData(startingData), query);
+    }
+
+    /**
+     * @spec.requires Node with startingData exists in Graph, query is not null,
+     * and the Graph is not modified while the returned Stream is in use
+     * @param startingData is the data of the Node paths start from
+     * @param query is the compiled pattern the labels along a path must spell
+     * @return a sequential Stream of what pathQuery(startingData, query) iterates over
+     */
+    public Stream<N> pathQueryStream(N startingData, PathQuery<E> query) {
+        Iterator<N> results = pathQuery(startingData, query);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(results,
+                Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * @spec.requires Nodes with startingData and endingData exist in Graph
+     * @param startingData is the data of the Node paths start from
+     * @param endingData is the data of the Node paths must reach
+     * @return true if a path of zero or more Edges leads from the Node with
+     * startingData to the Node with endingData, false otherwise
+     */
+    public boolean isReachable(N startingData, N endingData) {
+        return isReachable(startingData, endingData, label -> true);
+    }
+
+    /**
+     * @spec.requires Nodes with startingData and endingData exist in Graph and
+     * labelFilter is not null
+     * @param startingData is the data of the Node paths start from
+     * @param endingData is the data of the Node paths must reach
+     * @param labelFilter accepts the labels of the Edges paths may follow
+     * @return true if a path of zero or more Edges, each with a label accepted by
+     * labelFilter, leads from the Node with startingData to the Node with
+     * endingData, false otherwise
+     */
+    public boolean isReachable(N startingData, N endingData, Predicate<? super E> labelFilter) {
+        Node<N,E> start = nodeWithData(startingData);
+        Node<N,E> goal = nodeWithData(endingData);
+        if(start == goal) {
+            return true;
+        }
+        //only whether the goal is discovered matters, so no path is kept
+        Set<Node<N,E>> discovered = new HashSet<Node<N,E>>();
+        ArrayDeque<Node<N,E>> frontier = new ArrayDeque<Node<N,E>>();
+        discovered.add(start);
+        frontier.add(start);
+        //inv: every Node in frontier is in discovered, and goal is not
+        while(!frontier.isEmpty()) {
+            List<Edge<N,E>> edges = frontier.poll().getEdges();
+            for(int i = 0; i < edges.size(); i++) {
+                Edge<N,E> edge = edges.get(i);
+                if(labelFilter.test(edge.getLabel()) && discovered.add(edge.getChild())) {
+                    if(edge.getChild() == goal) {
+                        return true;
+                    }
+                    frontier.add(edge.getChild());
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @spec.requires Nodes with startingData and endingData exist in Graph
+     * @param startingData is the data of the Node the path starts from
+     * @param endingData is the data of the Node the path ends at
+     * @return a List of the data of the Nodes along a path with the fewest Edges
+     * from the Node with startingData to the Node with endingData, including
+     * both ends, or an empty List if no such path exists
+     */
+    public List<N> shortestPath(N startingData, N endingData) {
+        return shortestPath(startingData, endingData, label -> true);
+    }
+
+    /**
+     * @spec.requires Nodes with startingData and endingData exist in Graph and
+     * labelFilter is not null
+     * @param startingData is the data of the Node the path starts from
+     * @param endingData is the data of the Node the path ends at
+     * @param labelFilter accepts the labels of the Edges the path may follow
+     * @return a List of the data of the Nodes along a path with the fewest Edges,
+     * each with a label accepted by labelFilter, from the Node with startingData
+     * to the Node with endingData, including both ends, or an empty List if no
+     * such path exists
+     */
+    public List<N> shortestPath(N startingData, N endingData, Predicate<? super E> labelFilter) {
+        Node<N,E> start = nodeWithData(startingData);
+        Node<N,E> goal = nodeWithData(endingData);
+        //maps every discovered Node to the Node it was discovered from
+        Map<Node<N,E>, Node<N,E>> previous = new HashMap<Node<N,E>, Node<N,E>>();
+        ArrayDeque<Node<N,E>> frontier = new ArrayDeque<Node<N,E>>();
+        previous.put(start, start);
+        frontier.add(start);
+        //inv: every Node in frontier has been discovered by a path no longer
+        //than that of any undiscovered Node
+        while(!frontier.isEmpty() && !previous.containsKey(goal)) {
+            Node<N,E> current = frontier.poll();
+            List<Edge<N,E>> edges = current.getEdges();
+            for(int i = 0; i < edges.size(); i++) {
+                Edge<N,E> edge = edges.get(i);
+                if(!previous.containsKey(edge.getChild()) && labelFilter.test(edge.getLabel())) {
+                    previous.put(edge.getChild(), current);
+                    frontier.add(edge.getChild());
+                }
+            }
+        }
+        return pathTo(start, goal, previous);
+    }
+
+    /**
+     * @spec.requires Nodes with startingData and endingData exist in Graph, weight
+     * is not null and gives every label a non-negative, non-NaN weight
+     * @param startingData is the data of the Node the path starts from
+     * @param endingData is the data of the Node the path ends at
+     * @param weight gives the cost of following an Edge with a given label
+     * @return a List of the data of the Nodes along a path of least total weight
+     * from the Node with startingData to the Node with endingData, including
+     * both ends, or an empty List if no such path exists
+     */
+    public List<N> cheapestPath(N startingData, N endingData, ToDoubleFunction<? super E> weight) {
+        return cheapestPath(startingData, endingData, weight, label -> true);
+    }
+
+    /**
+     * @spec.requires Nodes with startingData and endingData exist in Graph, weight
+     * and labelFilter are not null, and weight gives every label labelFilter
+     * accepts a non-negative, non-NaN weight
+     * @param startingData is the data of the Node the path starts from
+     * @param endingData is the data of the Node the path ends at
+     * @param weight gives the cost of following an Edge with a given label
+     * @param labelFilter accepts the labels of the Edges the path may follow
+     * @return a List of the data of the Nodes along a path of least total weight,
+     * following only Edges with labels accepted by labelFilter, from the Node with
+     * startingData to the Node with endingData, including both ends, or an empty
+     * List if no such path exists
+     */
+    public List<N> cheapestPath(N startingData, N endingData, ToDoubleFunction<? super E> weight,
+                                Predicate<? super E> labelFilter) {
+        Node<N,E> start = nodeWithData(startingData);
+        Node<N,E> goal = nodeWithData(endingData);
+        Map<Node<N,E>, Node<N,E>> previous = new HashMap<Node<N,E>, Node<N,E>>();
+        Map<Node<N,E>, Double> cost = new HashMap<Node<N,E>, Double>();
+        Set<Node<N,E>> settled = new HashSet<Node<N,E>>();
+        PriorityQueue<PathStep> frontier = new PriorityQueue<PathStep>();
+        previous.put(start, start);
+        cost.put(start, 0.0);
+        frontier.add(new PathStep(start, 0.0));
+        //inv: every settled Node has been reached by a path of least total weight
+        while(!frontier.isEmpty() && !settled.contains(goal)) {
+            PathStep step = frontier.poll();
+            if(!settled.add(step.node)) {
+                continue;
+            }
+            List<Edge<N,E>> edges = step.node.getEdges();
+            for(int i = 0; i < edges.size(); i++) {
+                Edge<N,E> edge = edges.get(i);
+                if(settled.contains(edge.getChild()) || !labelFilter.test(edge.getLabel())) {
+                    continue;
+                }
+                double through = step.cost + weight.applyAsDouble(edge.getLabel());
+                Double known = cost.get(edge.getChild());
+                if(known == null || through < known) {
+                    cost.put(edge.getChild(), through);
+                    previous.put(edge.getChild(), step.node);
+                    frontier.add(new PathStep(edge.getChild(), through));
+                }
+            }
+        }
+        if(!settled.contains(goal)) {
+            return new ArrayList<N>();
+        }
+        return pathTo(start, goal, previous);
+    }
+
+    /**
+     * @spec.requires previous maps start to itself and every other Node it
+     * contains to the Node preceding it on a path from start
+     * @param start is the Node the path starts from
+     * @param goal is the Node the path ends at
+     * @param previous maps discovered Nodes to their predecessors
+     * @return a List of the data of the Nodes on the path from start to goal,
+     * or an empty List if goal was never discovered
+     */
+    private List<N> pathTo(Node<N,E> start, Node<N,E> goal, Map<Node<N,E>, Node<N,E>> previous) {
+        List<N> path = new ArrayList<N>();
+        if(!previous.containsKey(goal)) {
+            return path;
+        }
+        Node<N,E> current = goal;
+        while(current != start) {
+            path.add(current.getData());
+            current = previous.get(current);
+        }
+        path.add(start.getData());
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * @spec.requires nodeData and its elements are not null
+     * @param nodeData is the data of the Nodes to keep
+     * @return a SubgraphView, backed by this Graph, of the subgraph induced by the
+     * given Nodes: those of them in the Graph, and every Edge between two of them.
+     * Only the data given is copied; Edges are filtered as they are read
+     */
+    public SubgraphView<N,E> inducedSubgraph(Collection<? extends N> nodeData) {
+        Set<N> members = new HashSet<N>(nodeData);
+        return new SubgraphView<N,E>(this, members, members::contains, label -> true);
+    }
+
+    /**
+     * @spec.requires nodeFilter and labelFilter are not null
+     * @param nodeFilter accepts the data of the Nodes to keep
+     * @param labelFilter accepts the labels of the Edges to keep
+     * @return a SubgraphView, backed by this Graph, holding every Node nodeFilter
+     * accepts and every Edge between two such Nodes whose label labelFilter accepts
+     */
+    public SubgraphView<N,E> subgraph(Predicate<? super N> nodeFilter, Predicate<? super E> labelFilter) {
+        return new SubgraphView<N,E>(this, null, nodeFilter, labelFilter);
+    }
+
+    /**
+     * @spec.requires Node with startingData exists in Graph and hops >= 0
+     * @param startingData is the data of the Node the neighborhood is centred on
+     * @param hops is the most Edges followed from it
+     * @return the same as neighborhood(startingData, hops, label -> true)
+     */
+    public SubgraphView<N,E> neighborhood(N startingData, int hops) {
+        return neighborhood(startingData, hops, label -> true);
+    }
+
+    /**
+     * @spec.requires Node with startingData exists in Graph, hops >= 0 and labelFilter
+     * is not null
+     * @param startingData is the data of the Node the neighborhood is centred on
+     * @param hops is the most Edges followed from it
+     * @param labelFilter accepts the labels of the Edges that may be followed
+     * @return a SubgraphView, backed by this Graph, of the subgraph induced by every
+     * Node reached from the Node with startingData by a path of at most 'hops'
+     * Edges with labels labelFilter accepts, keeping only Edges with such labels.
+     * The Nodes are found now by a breadth-first search that stops at depth
+     * 'hops'; call freeze on the view to materialize it as a compact snapshot
+     */
+    public SubgraphView<N,E> neighborhood(N startingData, int hops, Predicate<? super E> labelFilter) {
+        Set<N> members = new HashSet<N>();
+        List<Node<N,E>> frontier = new ArrayList<Node<N,E>>();
+        Node<N,E> start = nodeWithData(startingData);
+        members.add(start.getData());
+        frontier.add(start);
+        //inv: members holds exactly the Nodes within 'depth' hops, and frontier
+        //those first reached at depth 'depth'
+        for(int depth = 0; depth < hops && !frontier.isEmpty(); depth++) {
+            List<Node<N,E>> next = new ArrayList<Node<N,E>>();
+            for(Node<N,E> current : frontier) {
+                List<Edge<N,E>> edges = current.getEdges();
+                for(int i = 0; i < edges.size(); i++) {
+                    Edge<N,E> edge = edges.get(i);
+                    if(labelFilter.test(edge.getLabel()) && members.add(edge.getChild().getData())) {
+                        next.add(edge.getChild());
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return new SubgraphView<N,E>(this, members, members::contains, labelFilter);
+    }
+
+    /**
+     * @return a List of the data of every Node, ordered so that every Edge leads from
+     * an earlier Node to a later one, or null if the Graph has a cycle, so that a
+     * cycle is told apart from an empty Graph. Found by Kahn's algorithm without
+     * recursion, in time linear in the size of the Graph; Nodes that could go in
+     * either order keep their lexicographic order where Kahn's queue allows
+     */
+    public List<N> topologicalOrder() {
+        Map<Node<N,E>, Integer> inDegree = new HashMap<Node<N,E>, Integer>(entries.size() * 2);
+        for(Node<N,E> current : entries.values()) {
+            List<Edge<N,E>> edges = current.getEdges();
+            for(int i = 0; i < edges.size(); i++) {
+                inDegree.merge(edges.get(i).getChild(), 1, Integer::sum);
+            }
+        }
+        ArrayDeque<Node<N,E>> ready = new ArrayDeque<Node<N,E>>();
+        for(Node<N,E> current : sortedNodes()) {
+            if(!inDegree.containsKey(current)) {
+                ready.add(current);
+            }
+        }
+        List<N> order = new ArrayList<N>(entries.size());
+        //inv: order holds Nodes none of whose parents is outside order, and every
+        //Edge out of order has been subtracted from inDegree
+        while(!ready.isEmpty()) {
+            Node<N,E> current = ready.poll();
+            order.add(current.getData());
+            List<Edge<N,E>> edges = current.getEdges();
+            for(int i = 0; i < edges.size(); i++) {
+                Node<N,E> child = edges.get(i).getChild();
+                if(inDegree.merge(child, -1, Integer::sum) == 0) {
+                    ready.add(child);
+                }
+            }
+        }
+        if(order.size() < entries.size()) {
             return null;
         }
-        return entries.get(index);
+        return order;
+    }
+
+    /**
+     * @return a List of the strongly connected components of the Graph, each a List
+     * of the data of its Nodes sorted lexicographically, where two Nodes share a
+     * component exactly when paths lead from each to the other. Components are
+     * listed so that every Edge between two of them leads from an earlier one to a
+     * later one, and the Graph has a cycle exactly when some component has more
+     * than one Node or some Node has an Edge to itself. Found over a frozen copy of
+     * the Graph by the same iterative Tarjan's algorithm GraphAnalytics uses, so
+     * paths of any length are handled without recursion
+     */
+    public List<List<N>> stronglyConnectedComponents() {
+        FrozenGraph<N,E> frozen = freeze();
+        int[] component = GraphAnalytics.tarjan(frozen);
+        int count = 0;
+        for(int v = 0; v < component.length; v++) {
+            count = Math.max(count, component[v] + 1);
+        }
+        List<List<N>> components = new ArrayList<List<N>>(count);
+        for(int c = 0; c < count; c++) {
+            components.add(new ArrayList<N>());
+        }
+        //Tarjan's algorithm completes every component after all those it leads to,
+        //and ids follow the order of the data, so each component comes out sorted
+        for(int v = 0; v < component.length; v++) {
+            components.get(count - 1 - component[v]).add(frozen.nodeAt(v));
+        }
+        return components;
     }
 
     /**
-     * @spec.requires entries is sorted alphabetically
-     * @return returns a List of all data stored in every
-     * Node of the graph sorted lexicographically
+     * @return an immutable FrozenGraph holding the same Nodes and Edges as this
+     * Graph does now, stored as int-indexed arrays. Later modification of this
+     * Graph does not affect it
      */
-    public List<N> allNodes() {
-        List<N> allNodes = new ArrayList<N>();
-        for(int i = 0; i < entries.size(); i++) {
-            allNodes.add(entries.get(i).getData());
+    public FrozenGraph<N,E> freeze() {
+        List<Node<N,E>> sorted = sortedNodes();
+        @SuppressWarnings("unchecked")
+        N[] nodes = (N[]) new Comparable<?>[sorted.size()];
+        Set<E> distinctLabels = new TreeSet<E>();
+        int edgeCount = 0;
+        for(int i = 0; i < sorted.size(); i++) {
+            Node<N,E> current = sorted.get(i);
+            nodes[i] = current.getData();
+            distinctLabels.addAll(current.labels());
+            edgeCount += current.numberOfEdges();
         }
-        return allNodes;
+        @SuppressWarnings("unchecked")
+        E[] labels = (E[]) distinctLabels.toArray(new Comparable<?>[distinctLabels.size()]);
+        int[] offsets = new int[sorted.size() + 1];
+        int[] targets = new int[edgeCount];
+        int[] edgeLabels = new int[edgeCount];
+        int k = 0;
+        //inv: after i iterations the Edges of the first i Nodes, which are
+        //already sorted by child and label, fill targets and edgeLabels up to k;
+        //nodes and labels are sorted, so ids are found by binary search
+        for(int i = 0; i < sorted.size(); i++) {
+            offsets[i] = k;
+            for(Edge<N,E> current : sorted.get(i).getEdges()) {
+                targets[k] = Arrays.binarySearch(nodes, current.getChild().getData());
+                edgeLabels[k] = Arrays.binarySearch(labels, current.getLabel());
+                k++;
+            }
+        }
+        offsets[sorted.size()] = k;
+        return new FrozenGraph<N,E>(nodes, labels, offsets, targets, edgeLabels);
     }
 
     /**
@@ -248,14 +1397,16 @@ public class Graph <N extends Comparable<N>, E extends Comparable<E>> {
      */
     @Override
     public String toString() {
-        String allGraph = "";
-        for(int i = 0; i < entries.size(); i++) {
-            allGraph = allGraph + "\n" + entries.get(i).getData() + "'s connections:  " + edgesOf(entries.get(i).getData());
-        }
-        if(allGraph.length() > 0) {
-            allGraph = allGraph.substring(1);
+        StringBuilder allGraph = new StringBuilder();
+        List<Node<N,E>> sorted = sortedNodes();
+        for(int i = 0; i < sorted.size(); i++) {
+            if(i > 0) {
+                allGraph.append('\n');
+            }
+            allGraph.append(sorted.get(i).getData()).append("'s connections:  ");
+            sorted.get(i).appendEdges(allGraph);
         }
-        return allGraph;
+        return allGraph.toString();
     }
 
     /**
@@ -268,24 +1419,33 @@ public class Graph <N extends Comparable<N>, E extends Comparable<E>> {
         //inv1: after i iterations, i many nodes have been found
         //not to be null and to have non-null edges with children
         //in the graph
-        for(Node currentNode : entries) {
+        for(Node currentNode : entries.values()) {
             assert(currentNode != null);
         //inv2: inv1 and after j iterations of this loop
         //j many edges have been found not to be null
         //and to have a childNode in the graph
             for(Edge currentEdge : currentNode.getEdges()) {
                 assert(currentEdge != null);
-                assert(entries.contains(currentEdge.getChild()));
+                assert(entries.containsKey(currentEdge.getChild().getData()));
             }
         }
 
-        for(int i = 0; i < entries.size() - 1; i++) {
-            assert(!entries.get(i).getData().equals(entries.get(i + 1).getData()));
+        for(Map.Entry<N, Node<N,E>> entry : entries.entrySet()) {
+            assert(entry.getKey().equals(entry.getValue().getData()));
+        }
+        for(Node currentNode : entries.values()) {
+            assert(indexIncoming || currentNode.getIncoming().isEmpty());
+        }
+        if(sortedEntries != null) {
+            assert(sortedEntries.size() == entries.size());
+            for(int i = 0; i < sortedEntries.size() - 1; i++) {
+                assert(sortedEntries.get(i).compareTo(sortedEntries.get(i + 1)) < 0);
+            }
         }
 
         //inv1: after i iterations, i many Nodes have been found to
         //have edges with no duplicate entries
-        for(Node currentNode : entries) {
+        for(Node currentNode : entries.values()) {
             int entriesSize = currentNode.getEdges().size();
             Set<Edge> edgeSet = new TreeSet<Edge>();
         //inv2: inv1 and after j iterations, j many edges
@@ -299,6 +1459,220 @@ public class Graph <N extends Comparable<N>, E extends Comparable<E>> {
     }
 
 
+    /**
+     * Abstract state:
+     * Traversal represents the remaining sequence of Nodes a breadth-first
+     * or depth-first walk from a starting Node has yet to visit
+     */
+    private class Traversal implements Iterator<N> {
+
+        private final ArrayDeque<Node<N,E>> pending;
+        private final Set<Node<N,E>> discovered;
+        private final Predicate<? super E> labelFilter;
+        private final boolean depthFirst;
+
+        // Representation Invariant for every Traversal:
+        // no field is null
+        // If !depthFirst, every Node in pending is in discovered and pending
+        // holds no Node twice
+        // If depthFirst, pending may hold Nodes already in discovered, which
+        // are skipped when reached
+        //
+        // Abstraction Function:
+        // If !depthFirst, pending is the queue of Nodes yet to be visited.
+        // If depthFirst, pending is the stack of Nodes yet to be explored,
+        // and those already in discovered have been visited.
+
+        /**
+         * @spec.requires start and labelFilter are not null
+         * @spec.effects Constructs a new Traversal starting at given Node
+         * @param start is the first Node visited
+         * @param labelFilter accepts the labels of Edges that may be followed
+         * @param depthFirst is whether Nodes are visited depth-first rather than breadth-first
+         */
+        public Traversal(Node<N,E> start, Predicate<? super E> labelFilter, boolean depthFirst) {
+            this.pending = new ArrayDeque<Node<N,E>>();
+            this.discovered = new HashSet<Node<N,E>>();
+            this.labelFilter = labelFilter;
+            this.depthFirst = depthFirst;
+            pending.add(start);
+            if(!depthFirst) {
+                discovered.add(start);
+            }
+        }
+
+        /**
+         * @return true if there are Nodes left to visit, false otherwise
+         */
+        public boolean hasNext() {
+            if(depthFirst) {
+                while(!pending.isEmpty() && discovered.contains(pending.peek())) {
+                    pending.pop();
+                }
+            }
+            return !pending.isEmpty();
+        }
+
+        /**
+         * @spec.modifies the visited Node's unvisited children are made pending
+         * @return the data of the next Node visited
+         * @throws NoSuchElementException if no Nodes are left to visit
+         */
+        public N next() {
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            List<Edge<N,E>> edges;
+            Node<N,E> current;
+            if(depthFirst) {
+                current = pending.pop();
+                discovered.add(current);
+                edges = current.getEdges();
+                //pushed in reverse so the least child is explored first
+                for(int i = edges.size() - 1; i >= 0; i--) {
+                    Edge<N,E> edge = edges.get(i);
+                    if(!discovered.contains(edge.getChild()) && labelFilter.test(edge.getLabel())) {
+                        pending.push(edge.getChild());
+                    }
+                }
+            } else {
+                current = pending.poll();
+                edges = current.getEdges();
+                for(int i = 0; i < edges.size(); i++) {
+                    Edge<N,E> edge = edges.get(i);
+                    if(labelFilter.test(edge.getLabel()) && discovered.add(edge.getChild())) {
+                        pending.add(edge.getChild());
+                    }
+                }
+            }
+            return current.getData();
+        }
+    }
+
+    /**
+     * Abstract state:
+     * PatternSearch represents the remaining answers of a regular path query: a
+     * breadth-first search over pairs of a Node and a state of the query's
+     * automaton, each pair explored at most once, that yields every Node reached
+     * in an accepting state the first time it is reached so
+     */
+    private class PatternSearch implements Iterator<N> {
+
+        private final PathQuery<E> query;
+        private final ArrayDeque<Node<N,E>> pendingNodes;
+        private final ArrayDeque<Integer> pendingStates;
+        private final List<Set<Node<N,E>>> visited;
+        private final Set<Node<N,E>> emitted;
+        private final ArrayDeque<Node<N,E>> ready;
+
+        // Representation Invariant for every PatternSearch:
+        // no field is null, pendingNodes and pendingStates have the same size,
+        // and visited holds one Set per state of query
+        // the i-th pair of pendingNodes and pendingStates, (n, s), has n in
+        // visited.get(s) and appears only once
+        // ready holds only Nodes in emitted, each once
+        //
+        // Abstraction Function:
+        // The answers yet to come are ready, in order, followed by every Node
+        // not in emitted that is reached in an accepting state by continuing a
+        // pending pair along Edges, in breadth-first order
+
+        /**
+         * @spec.requires start and query are not null
+         * @spec.effects Constructs a new PatternSearch from start in query's start state
+         */
+        public PatternSearch(Node<N,E> start, PathQuery<E> query) {
+            this.query = query;
+            this.pendingNodes = new ArrayDeque<Node<N,E>>();
+            this.pendingStates = new ArrayDeque<Integer>();
+            this.visited = new ArrayList<Set<Node<N,E>>>(query.numberOfStates());
+            for(int i = 0; i < query.numberOfStates(); i++) {
+                visited.add(new HashSet<Node<N,E>>());
+            }
+            this.emitted = new HashSet<Node<N,E>>();
+            this.ready = new ArrayDeque<Node<N,E>>();
+            reach(start, query.startState());
+        }
+
+        /**
+         * @return true if there are answers left, false otherwise
+         */
+        public boolean hasNext() {
+            //inv: every pair expanded so far has had its answers put in ready
+            while(ready.isEmpty() && !pendingNodes.isEmpty()) {
+                expand(pendingNodes.poll(), pendingStates.poll());
+            }
+            return !ready.isEmpty();
+        }
+
+        /**
+         * @return the data of the next answer
+         * @throws NoSuchElementException if no answers are left
+         */
+        public N next() {
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return ready.poll().getData();
+        }
+
+        /**
+         * @spec.modifies every pair reached from (node, state) by one Edge is reached
+         */
+        private void expand(Node<N,E> node, int state) {
+            //each Edge holds its child Node, so no child is looked up by data;
+            //labels the query cannot follow from state give no target
+            List<Edge<N,E>> edges = node.getEdges();
+            for(int i = 0; i < edges.size(); i++) {
+                Edge<N,E> edge = edges.get(i);
+                int target = query.next(state, edge.getLabel());
+                if(target >= 0) {
+                    reach(edge.getChild(), target);
+                }
+            }
+        }
+
+        /**
+         * @spec.modifies if (node, state) is new it is made pending, and node is
+         * made ready if state is accepting and it has not been before
+         */
+        private void reach(Node<N,E> node, int state) {
+            if(!visited.get(state).add(node)) {
+                return;
+            }
+            pendingNodes.add(node);
+            pendingStates.add(state);
+            if(query.isAccepting(state) && emitted.add(node)) {
+                ready.add(node);
+            }
+        }
+    }
+
+    /**
+     * Abstract state:
+     * PathStep represents a tentative, immutable claim that a Node can be
+     * reached at a given total cost
+     */
+    private class PathStep implements Comparable<PathStep> {
+
+        private final Node<N,E> node;
+        private final double cost;
+
+        /**
+         * @spec.effects Constructs a new PathStep
+         * @param node is the Node reached
+         * @param cost is the total weight of the path reaching it
+         */
+        public PathStep(Node<N,E> node, double cost) {
+            this.node = node;
+            this.cost = cost;
+        }
+
+        public int compareTo(PathStep other) {
+            return Double.compare(cost, other.cost);
+        }
+    }
+
     /**
      * Abstract state:
      * Edge represents an immutable directed graph edge containing reference to exactly
@@ -382,6 +1756,9 @@ public class Graph <N extends Comparable<N>, E extends Comparable<E>> {
 
         private final N data;
         private final List<Edge<N,E>> edges;
+        private final List<Edge<N,E>> incoming;
+        private final Map<E, List<N>> childrenByLabel;
+        private long version;
 
         // Representation Invariant for every Node:
         // data != null && edges != null && no element in edges is null
@@ -389,12 +1766,18 @@ public class Graph <N extends Comparable<N>, E extends Comparable<E>> {
         // No two of this nodes edges can have the same label and go
         // to the same Node.
         // Also the Edges of a Node must be stored in alphabetical order
+        // incoming != null, and its Edges, each holding a parent Node rather
+        // than a child, are stored in alphabetical order with no duplicates
+        // childrenByLabel != null, maps exactly the labels found on edges to a
+        // non-empty List of the data of the children of edges with that label,
+        // and each such List is in alphabetical order
         //
         // Abstraction Function:
         // Node represents a node in a multigraph. This Node
         // is the parent node of every edge represented by the Edges
         // in the edges field. The Nodes that edges then lead
-        // to are the child nodes of this node.
+        // to are the child nodes of this node. The Nodes held by the
+        // Edges in incoming are the parent nodes of this node.
 
 
         /**
@@ -402,8 +1785,23 @@ public class Graph <N extends Comparable<N>, E extends Comparable<E>> {
          * @param dataGiven is the Node's data
          */
         public Node(N dataGiven) {
+            this(dataGiven, false);
+        }
+
+        /**
+         * @spec.effects Constructs a new Node containing given data
+         * @param dataGiven is the Node's data
+         * @param indexIncoming is whether this Node will hold its incoming Edges
+         */
+        public Node(N dataGiven, boolean indexIncoming) {
             data = dataGiven;
             edges = new ArrayList<Edge<N,E>>();
+            childrenByLabel = new TreeMap<E, List<N>>();
+            if(indexIncoming) {
+                incoming = new ArrayList<Edge<N,E>>();
+            } else {
+                incoming = Collections.emptyList();
+            }
         }
 
         /**
@@ -413,6 +1811,20 @@ public class Graph <N extends Comparable<N>, E extends Comparable<E>> {
             return data;
         }
 
+        /**
+         * @return the version this Node was last given by its Graph
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * @spec.modifies this Node's version is set to 'version'
+         */
+        public void setVersion(long version) {
+            this.version = version;
+        }
+
         /**
          * @param endingData is the data found within the Node that this method
          * finds Edges to that originate in this Node
@@ -421,14 +1833,35 @@ public class Graph <N extends Comparable<N>, E extends Comparable<E>> {
          */
         public List<E> edgesTo(N endingData) {
             List<E> labels = new ArrayList<E>();
-            for(int i = 0; i < edges.size(); i++) {
-                if(edges.get(i).getChild().getData().equals(endingData)) {
-                    labels.add(edges.get(i).getLabel());
-                }
+            //edges is sorted by child, so those to endingData form one run
+            for(int i = firstEdgeTo(endingData); i < edges.size()
+                    && edges.get(i).getChild().getData().compareTo(endingData) == 0; i++) {
+                labels.add(edges.get(i).getLabel());
             }
             return labels;
         }
 
+        /**
+         * @param childData is the data of the child whose Edges are sought
+         * @return the index in edges of the first Edge whose child data is not less
+         * than childData, found by binary search
+         */
+        private int firstEdgeTo(N childData) {
+            int start = 0;
+            int end = edges.size();
+            //inv: every Edge before start has child data less than childData
+            //and none from end on does
+            while(start < end) {
+                int middle = (start + end) >>> 1;
+                if(edges.get(middle).getChild().getData().compareTo(childData) < 0) {
+                    start = middle + 1;
+                } else {
+                    end = middle;
+                }
+            }
+            return start;
+        }
+
         /**
          * @return the number of edges found in this graph
          */
@@ -448,6 +1881,32 @@ public class Graph <N extends Comparable<N>, E extends Comparable<E>> {
             return children;
 
         }
+        /**
+         * @spec.modifies the labels of this Node's Edges and their children are
+         * appended to builder, in the same form as nodeEdges().toString(), without
+         * copying them
+         */
+        public void appendEdges(StringBuilder builder) {
+            builder.append('{');
+            boolean first = true;
+            for(Map.Entry<E, List<N>> current : childrenByLabel.entrySet()) {
+                if(!first) {
+                    builder.append(", ");
+                }
+                first = false;
+                builder.append(current.getKey()).append("=[");
+                List<N> children = current.getValue();
+                for(int i = 0; i < children.size(); i++) {
+                    if(i > 0) {
+                        builder.append(", ");
+                    }
+                    builder.append(children.get(i));
+                }
+                builder.append(']');
+            }
+            builder.append('}');
+        }
+
         /**
          * @return a Map where the keys are the data
          * which label the Edges leading away from this Node
@@ -456,20 +1915,54 @@ public class Graph <N extends Comparable<N>, E extends Comparable<E>> {
          */
         public Map<E, List<N>> nodeEdges() {
             Map<E, List<N>> edgeToNodes = new TreeMap<E, List<N>>();
-            //inv: after i iterations of this loop, i pairs of Edge label for keys
-            //and Node data for entries have been made into the Map edgeToNodes
-            for(Edge<N,E> current : edges) {
-                if(!edgeToNodes.containsKey(current.getLabel())) {
-                    List<N> nodeList = new ArrayList<N>();
-                    nodeList.add(current.getChild().getData());
-                    edgeToNodes.put(current.getLabel(), nodeList);
-                } else {
-                    edgeToNodes.get(current.getLabel()).add(current.getChild().getData());
-                }
+            //inv: after i iterations of this loop, i labels and copies of
+            //their children Lists have been made into the Map edgeToNodes
+            for(Map.Entry<E, List<N>> current : childrenByLabel.entrySet()) {
+                edgeToNodes.put(current.getKey(), new ArrayList<N>(current.getValue()));
             }
             return edgeToNodes;
         }
 
+        /**
+         * @return an unmodifiable List, backed by edges, of the data
+         * found in Nodes which are direct children of this Node
+         */
+        public List<N> childView() {
+            return new AbstractList<N>() {
+                @Override
+                public N get(int index) {
+                    return edges.get(index).getChild().getData();
+                }
+
+                @Override
+                public int size() {
+                    return edges.size();
+                }
+            };
+        }
+
+        /**
+         * @spec.requires 'label' is not null
+         * @param label is the label of the Edges along which to find children
+         * @return an unmodifiable List, backed by childrenByLabel, of the data of
+         * every child of this Node along Edges labeled by 'label'
+         */
+        public List<N> childrenOfLabelView(E label) {
+            List<N> children = childrenByLabel.get(label);
+            if(children == null) {
+                return Collections.emptyList();
+            }
+            return Collections.unmodifiableList(children);
+        }
+
+        /**
+         * @return a List of every distinct label on this Node's Edges,
+         * sorted lexicographically
+         */
+        public List<E> labels() {
+            return new ArrayList<E>(childrenByLabel.keySet());
+        }
+
         /**
          * @spec.requires given object is a Node
          * @param second is the Node to compare against this for equal data
@@ -492,6 +1985,7 @@ public class Graph <N extends Comparable<N>, E extends Comparable<E>> {
             //if index >= 0 this Node already has an identical Edge
             if(index < 0) {
                 edges.add(-1 * index - 1, newEdge );
+                indexChild(newEdge);
                 this.checkRep();
             }
             return index < 0;
@@ -507,17 +2001,14 @@ public class Graph <N extends Comparable<N>, E extends Comparable<E>> {
          * otherwise returns false
          */
         public boolean removeEdge(Edge<N,E> unwantedEdge) {
-            //inv: for all n such that 0 <= n < i
-            //!unwantedEdge.equals(edges.get(n))
-            boolean found = false;
-            for(int i = 0; i < edges.size(); i++) {
-                if(edges.get(i).sameEdgeAs(unwantedEdge)) {
-                    edges.remove(i);
-                    this.checkRep();
-                    found = true;
-                }
+            //edges is sorted by child and then label, and holds no Edge twice
+            int index = Collections.binarySearch(edges, unwantedEdge);
+            if(index < 0) {
+                return false;
             }
-            return found;
+            unindexChild(edges.remove(index));
+            this.checkRep();
+            return true;
         }
 
         /**
@@ -526,14 +2017,26 @@ public class Graph <N extends Comparable<N>, E extends Comparable<E>> {
          * @spec.requires 'childNode' is not null
          * @param childNode is the Node for which all Edges leading to it
          * from this Node will be removed
+         * @return the Edges removed, in sorted order
          */
-        public void removeEdgesLeadingTo(Node<N,E> childNode) {
-            for(int i = edges.size() - 1; i >= 0 ; i--) {
-                if(edges.get(i).getChild().dataEquals(childNode)) {
-                    edges.remove(i);
-                }
+        public List<Edge<N,E>> removeEdgesLeadingTo(Node<N,E> childNode) {
+            //edges is sorted by child, so those to childNode form one run
+            int start = firstEdgeTo(childNode.getData());
+            int end = start;
+            while(end < edges.size() && edges.get(end).getChild().dataEquals(childNode)) {
+                end++;
+            }
+            if(start == end) {
+                return Collections.emptyList();
+            }
+            List<Edge<N,E>> run = edges.subList(start, end);
+            List<Edge<N,E>> removed = new ArrayList<Edge<N,E>>(run);
+            run.clear();
+            for(int i = 0; i < removed.size(); i++) {
+                unindexChild(removed.get(i));
             }
             this.checkRep();
+            return removed;
         }
 
         /**
@@ -545,13 +2048,49 @@ public class Graph <N extends Comparable<N>, E extends Comparable<E>> {
          * given
          */
         public List<N> getChildrenOfLabel(E label) {
-            List<N> reachableNodes = new ArrayList<N>();
-            for(int i = 0; i < edges.size(); i++) {
-                if(edges.get(i).getLabel().equals(label)){
-                    reachableNodes.add(edges.get(i).getChild().getData());
-                }
+            List<N> reachableNodes = childrenByLabel.get(label);
+            if(reachableNodes == null) {
+                return new ArrayList<N>();
+            }
+            return new ArrayList<N>(reachableNodes);
+        }
+
+        /**
+         * @spec.requires 'added' was just added to edges
+         * @param added is the Edge whose child is to be recorded under its label
+         * @spec.modifies childrenByLabel gains the child of 'added' under its label
+         */
+        private void indexChild(Edge<N,E> added) {
+            List<N> children = childrenByLabel.get(added.getLabel());
+            if(children == null) {
+                children = new ArrayList<N>();
+                childrenByLabel.put(added.getLabel(), children);
+            }
+            N childData = added.getChild().getData();
+            int index = Collections.binarySearch(children, childData);
+            if(index < 0) {
+                children.add(-1 * index - 1, childData);
+            }
+        }
+
+        /**
+         * @spec.requires 'removed' was just removed from edges
+         * @param removed is the Edge whose child is to be dropped from its label
+         * @spec.modifies childrenByLabel loses the child of 'removed' under its
+         * label, and the label itself if no children remain under it
+         */
+        private void unindexChild(Edge<N,E> removed) {
+            List<N> children = childrenByLabel.get(removed.getLabel());
+            if(children == null) {
+                return;
+            }
+            int index = Collections.binarySearch(children, removed.getChild().getData());
+            if(index >= 0) {
+                children.remove(index);
+            }
+            if(children.isEmpty()) {
+                childrenByLabel.remove(removed.getLabel());
             }
-            return reachableNodes;
         }
 
         /**
@@ -567,6 +2106,270 @@ public class Graph <N extends Comparable<N>, E extends Comparable<E>> {
             return(this.getData().compareTo(secondNode.getData()));
         }
 
+        /**
+         * @spec.requires this Node was constructed to hold its incoming Edges
+         * @param parentEdge is an Edge holding the parent and label of an
+         * Edge that now leads into this Node
+         * @spec.modifies parentEdge is added to this Node's incoming Edges
+         * if it is not already present
+         */
+        public void addIncoming(Edge<N,E> parentEdge) {
+            int index = Collections.binarySearch(incoming, parentEdge);
+            if(index < 0) {
+                incoming.add(-1 * index - 1, parentEdge);
+            }
+            this.checkRep();
+        }
+
+        /**
+         * @spec.requires this Node was constructed to hold its incoming Edges
+         * @param parentEdges are Edges, in any order, holding the parents and
+         * labels of Edges that now lead into this Node
+         * @spec.modifies those of parentEdges not already present are merged
+         * into this Node's incoming Edges in one pass
+         */
+        public void addIncoming(List<Edge<N,E>> parentEdges) {
+            mergeSorted(incoming, parentEdges);
+            this.checkRep();
+        }
+
+        /**
+         * @param parentEdges are Edges, in any order, holding the parents and
+         * labels of Edges that no longer lead into this Node
+         * @spec.modifies parentEdges are filtered out of this Node's incoming
+         * Edges in one pass
+         */
+        public void removeIncoming(List<Edge<N,E>> parentEdges) {
+            removeSorted(incoming, parentEdges);
+            this.checkRep();
+        }
+
+        /**
+         * @spec.requires newEdges and its elements are not null
+         * @param newEdges are additional Edges, in any order, to add to this Node
+         * @spec.modifies those of newEdges not already held are merged into this
+         * Node's Edges in one pass
+         * @return the Edges actually added, sorted
+         */
+        public List<Edge<N,E>> addEdges(List<Edge<N,E>> newEdges) {
+            List<Edge<N,E>> fresh = mergeSorted(edges, newEdges);
+            for(Map.Entry<E, List<N>> group : childrenGroupedByLabel(fresh).entrySet()) {
+                List<N> children = childrenByLabel.get(group.getKey());
+                if(children == null) {
+                    childrenByLabel.put(group.getKey(), group.getValue());
+                } else {
+                    mergeChildren(children, group.getValue());
+                }
+            }
+            this.checkRep();
+            return fresh;
+        }
+
+        /**
+         * @spec.requires unwantedEdges and its elements are not null
+         * @param unwantedEdges are Edges, in any order, to remove from this Node
+         * @spec.modifies unwantedEdges are filtered out of this Node's Edges in one pass
+         * @return the Edges actually removed, sorted
+         */
+        public List<Edge<N,E>> removeEdges(List<Edge<N,E>> unwantedEdges) {
+            List<Edge<N,E>> gone = removeSorted(edges, unwantedEdges);
+            for(Map.Entry<E, List<N>> group : childrenGroupedByLabel(gone).entrySet()) {
+                List<N> children = childrenByLabel.get(group.getKey());
+                if(children != null) {
+                    removeChildren(children, group.getValue());
+                    if(children.isEmpty()) {
+                        childrenByLabel.remove(group.getKey());
+                    }
+                }
+            }
+            this.checkRep();
+            return gone;
+        }
+
+        /**
+         * @spec.requires sorted is sorted without duplicates
+         * @param sorted are Edges just added to or removed from edges
+         * @return a Map from each label in sorted to the data of the children of
+         * sorted's Edges with that label, each List sorted without duplicates
+         */
+        private Map<E, List<N>> childrenGroupedByLabel(List<Edge<N,E>> sorted) {
+            Map<E, List<N>> byLabel = new TreeMap<E, List<N>>();
+            //sorted is ordered by child first, so each label's children arrive in order
+            for(Edge<N,E> current : sorted) {
+                byLabel.computeIfAbsent(current.getLabel(), label -> new ArrayList<N>())
+                        .add(current.getChild().getData());
+            }
+            return byLabel;
+        }
+
+        /**
+         * @spec.requires target and additions are sorted without duplicates, and
+         * share no element
+         * @param target is a List of childrenByLabel
+         * @param additions are the data of children to merge into target
+         * @spec.modifies additions are merged into target in one pass, keeping
+         * target sorted
+         */
+        private void mergeChildren(List<N> target, List<N> additions) {
+            //merge from the back so each element of target moves at most once
+            int read = target.size() - 1;
+            for(int k = 0; k < additions.size(); k++) {
+                target.add(null);
+            }
+            int write = target.size() - 1;
+            for(int j = additions.size() - 1; j >= 0; write--) {
+                if(read >= 0 && target.get(read).compareTo(additions.get(j)) > 0) {
+                    target.set(write, target.get(read--));
+                } else {
+                    target.set(write, additions.get(j--));
+                }
+            }
+        }
+
+        /**
+         * @spec.requires target and removals are sorted without duplicates
+         * @param target is a List of childrenByLabel
+         * @param removals are the data of children to remove from target
+         * @spec.modifies every element of target equal to one of removals is
+         * removed in one pass, keeping target sorted
+         */
+        private void removeChildren(List<N> target, List<N> removals) {
+            int j = 0;
+            int write = 0;
+            //inv: target before write holds, in order, every element of target
+            //before read that is not in removals
+            for(int read = 0; read < target.size(); read++) {
+                N current = target.get(read);
+                while(j < removals.size() && removals.get(j).compareTo(current) < 0) {
+                    j++;
+                }
+                if(j >= removals.size() || removals.get(j).compareTo(current) != 0) {
+                    target.set(write++, current);
+                }
+            }
+            target.subList(write, target.size()).clear();
+        }
+
+        /**
+         * @spec.requires target is sorted without duplicates
+         * @param target is edges or incoming
+         * @param additions are Edges to merge into target
+         * @spec.modifies additions is sorted, and every element of it not already
+         * in target is merged into target, keeping target sorted
+         * @return the Edges added to target, sorted without duplicates
+         */
+        private List<Edge<N,E>> mergeSorted(List<Edge<N,E>> target, List<Edge<N,E>> additions) {
+            Collections.sort(additions);
+            List<Edge<N,E>> fresh = new ArrayList<Edge<N,E>>();
+            int i = 0;
+            //inv: fresh holds, in order, every element of additions before j
+            //that is neither in target nor a repeat of an earlier element
+            for(int j = 0; j < additions.size(); j++) {
+                Edge<N,E> current = additions.get(j);
+                while(i < target.size() && target.get(i).compareTo(current) < 0) {
+                    i++;
+                }
+                boolean held = i < target.size() && target.get(i).compareTo(current) == 0;
+                boolean repeated = !fresh.isEmpty() && fresh.get(fresh.size() - 1).compareTo(current) == 0;
+                if(!held && !repeated) {
+                    fresh.add(current);
+                }
+            }
+            //merge from the back so each element of target moves at most once
+            int read = target.size() - 1;
+            for(int k = 0; k < fresh.size(); k++) {
+                target.add(null);
+            }
+            int write = target.size() - 1;
+            for(int j = fresh.size() - 1; j >= 0; write--) {
+                if(read >= 0 && target.get(read).compareTo(fresh.get(j)) > 0) {
+                    target.set(write, target.get(read--));
+                } else {
+                    target.set(write, fresh.get(j--));
+                }
+            }
+            return fresh;
+        }
+
+        /**
+         * @spec.requires target is sorted without duplicates
+         * @param target is edges or incoming
+         * @param removals are Edges to remove from target
+         * @spec.modifies removals is sorted, and every element of target equal to
+         * one of removals is removed, keeping target sorted
+         * @return the Edges removed from target, sorted
+         */
+        private List<Edge<N,E>> removeSorted(List<Edge<N,E>> target, List<Edge<N,E>> removals) {
+            Collections.sort(removals);
+            List<Edge<N,E>> gone = new ArrayList<Edge<N,E>>();
+            int j = 0;
+            int write = 0;
+            //inv: target before write holds, in order, every Edge of target before
+            //read that is not in removals
+            for(int read = 0; read < target.size(); read++) {
+                Edge<N,E> current = target.get(read);
+                while(j < removals.size() && removals.get(j).compareTo(current) < 0) {
+                    j++;
+                }
+                if(j < removals.size() && removals.get(j).compareTo(current) == 0) {
+                    gone.add(current);
+                } else {
+                    target.set(write++, current);
+                }
+            }
+            target.subList(write, target.size()).clear();
+            return gone;
+        }
+
+        /**
+         * @param parentEdge is an Edge holding the parent and label of an
+         * Edge that no longer leads into this Node
+         * @spec.modifies parentEdge is removed from this Node's incoming
+         * Edges if it is present
+         */
+        public void removeIncoming(Edge<N,E> parentEdge) {
+            int index = Collections.binarySearch(incoming, parentEdge);
+            if(index >= 0) {
+                incoming.remove(index);
+            }
+            this.checkRep();
+        }
+
+        /**
+         * @spec.requires 'parentNode' is not null
+         * @param parentNode is the Node whose Edges into this Node are
+         * being removed
+         * @spec.modifies every incoming Edge held for parentNode is removed
+         */
+        public void removeIncomingFrom(Node<N,E> parentNode) {
+            //incoming is sorted by parent, so parentNode's Edges form one run
+            int start = 0;
+            int end = incoming.size();
+            //inv: every incoming Edge before start has parent data
+            //less than parentNode's and none from end on does
+            while(start < end) {
+                int middle = (start + end) >>> 1;
+                if(incoming.get(middle).getChild().compareTo(parentNode) < 0) {
+                    start = middle + 1;
+                } else {
+                    end = middle;
+                }
+            }
+            end = start;
+            while(end < incoming.size() && incoming.get(end).getChild().dataEquals(parentNode)) {
+                end++;
+            }
+            incoming.subList(start, end).clear();
+            this.checkRep();
+        }
+
+        /**
+         * @return the incoming Edges of this Node, each holding a parent Node
+         */
+        private List<Edge<N,E>> getIncoming(){
+            return incoming;
+        }
+
         /**
          * This is only to be used to assist checkRep()
          * @return the Edges of this Node
@@ -580,7 +2383,7 @@ public class Graph <N extends Comparable<N>, E extends Comparable<E>> {
          */
         //Currently commented out to improve performance
         private void checkRep() {
-            assert(data != null && edges != null);
+            assert(data != null && edges != null && incoming != null && childrenByLabel != null);
             //for(Edge current : edges) {
             //assert(current != null);
             //current.checkRep();
@@ -0,0 +1,671 @@
+/**
+ * Abstract state:
+ * GraphAnalytics represents a set of whole-graph computations over one immutable
+ * FrozenGraph: PageRank, weakly and strongly connected components, in- and
+ * out-degree distributions and triangle counts. Per-node state is kept in
+ * primitive arrays indexed by node id, and work is split over ranges of node ids
+ * run on a ForkJoinPool
+ */
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+
+public final class GraphAnalytics <N extends Comparable<N>, E extends Comparable<E>> {
+
+    private final FrozenGraph<N,E> graph;
+    private final ForkJoinPool pool;
+    private final int grain;
+    private final int[] inOffsets;
+    private final int[] sources;
+
+    // Abstraction Function:
+    // GraphAnalytics, a, computes over the multigraph represented by graph
+    // using the threads of pool. The edges leading into the node with id v
+    // come from the nodes with ids sources[inOffsets[v]] up to but not
+    // including sources[inOffsets[v + 1]].
+    //
+    // Representation Invariant for every GraphAnalytics a:
+    // no field is null and grain > 0
+    // inOffsets.length == graph.numberOfNodes() + 1, inOffsets[0] == 0,
+    // inOffsets is non-decreasing and ends at sources.length == graph.numberOfEdges()
+    // For every v, the ids in sources between inOffsets[v] and inOffsets[v + 1]
+    // are in non-decreasing order and each occurrence of u there matches one edge
+    // from u to v in graph
+
+    /**
+     * @spec.requires graph is not null
+     * @spec.effects Constructs a new GraphAnalytics over graph using the common pool
+     * @param graph is the graph to analyse
+     */
+    public GraphAnalytics(FrozenGraph<N,E> graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @spec.requires graph and pool are not null
+     * @spec.effects Constructs a new GraphAnalytics over graph, indexing the edges
+     * leading into every node
+     * @param graph is the graph to analyse
+     * @param pool runs every parallel computation of this GraphAnalytics
+     */
+    public GraphAnalytics(FrozenGraph<N,E> graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+        int nodes = graph.numberOfNodes();
+        this.grain = Math.max(1024, nodes / (pool.getParallelism() * 8 + 1));
+        inOffsets = new int[nodes + 1];
+        sources = new int[graph.numberOfEdges()];
+        for(int k = 0; k < graph.numberOfEdges(); k++) {
+            inOffsets[graph.targetOf(k) + 1]++;
+        }
+        for(int v = 0; v < nodes; v++) {
+            inOffsets[v + 1] += inOffsets[v];
+        }
+        int[] next = Arrays.copyOf(inOffsets, nodes);
+        //visiting parents in id order leaves every node's sources sorted
+        for(int u = 0; u < nodes; u++) {
+            for(int k = graph.edgeStart(u); k < graph.edgeEnd(u); k++) {
+                sources[next[graph.targetOf(k)]++] = u;
+            }
+        }
+        this.checkRep();
+    }
+
+    /**
+     * @return the graph this GraphAnalytics computes over
+     */
+    public FrozenGraph<N,E> graph() {
+        return graph;
+    }
+
+    /**
+     * @spec.requires 0 <= id < graph().numberOfNodes()
+     * @param id is the id of the node whose incoming edges are counted
+     * @return the number of edges leading into the node with given id
+     */
+    public int inDegree(int id) {
+        return inOffsets[id + 1] - inOffsets[id];
+    }
+
+    /**
+     * @spec.requires 0 < damping < 1, tolerance >= 0, maxIterations > 0
+     * @param damping is the probability of following an edge rather than jumping
+     * to a node chosen uniformly at random
+     * @param tolerance is the total change in rank, summed over every node, below
+     * which the ranks are considered converged
+     * @param maxIterations is the most iterations run whether or not the ranks converge
+     * @return the PageRank of every node, where each parallel edge counts separately
+     * and the rank of nodes without outgoing edges is spread over every node,
+     * together with the timing and change in rank of each iteration
+     */
+    public PageRank pageRank(double damping, double tolerance, int maxIterations) {
+        int nodes = graph.numberOfNodes();
+        double[] rank = new double[nodes];
+        double[] contribution = new double[nodes];
+        double[] nextRank = new double[nodes];
+        double[] residuals = new double[maxIterations];
+        long[] iterationNanos = new long[maxIterations];
+        if(nodes == 0) {
+            return new PageRank(rank, residuals, iterationNanos, 0, true);
+        }
+        Arrays.fill(rank, 1.0 / nodes);
+        int iterations = 0;
+        boolean converged = false;
+        //inv: rank holds the ranks after 'iterations' iterations and sums to one
+        while(iterations < maxIterations && !converged) {
+            long started = System.nanoTime();
+            final double[] current = rank;
+            final double[] next = nextRank;
+            double dangling = sumOverNodes(u -> {
+                int degree = graph.outDegree(u);
+                contribution[u] = degree == 0 ? 0.0 : current[u] / degree;
+                return degree == 0 ? current[u] : 0.0;
+            });
+            final double base = (1.0 - damping) / nodes + damping * dangling / nodes;
+            double residual = sumOverNodes(v -> {
+                double sum = 0.0;
+                for(int k = inOffsets[v]; k < inOffsets[v + 1]; k++) {
+                    sum += contribution[sources[k]];
+                }
+                next[v] = base + damping * sum;
+                return Math.abs(next[v] - current[v]);
+            });
+            nextRank = rank;
+            rank = next;
+            residuals[iterations] = residual;
+            iterationNanos[iterations] = System.nanoTime() - started;
+            iterations++;
+            converged = residual < tolerance;
+        }
+        return new PageRank(rank, residuals, iterationNanos, iterations, converged);
+    }
+
+    /**
+     * @return an array holding, for every node id, the id of the least node in
+     * its weakly connected component, so two nodes share a component exactly
+     * when they hold the same value
+     */
+    public int[] weaklyConnectedComponents() {
+        int nodes = graph.numberOfNodes();
+        AtomicIntegerArray parent = new AtomicIntegerArray(nodes);
+        forEachNode(v -> parent.set(v, v));
+        forEachNode(u -> {
+            for(int k = graph.edgeStart(u); k < graph.edgeEnd(u); k++) {
+                union(parent, u, graph.targetOf(k));
+            }
+        });
+        int[] component = new int[nodes];
+        forEachNode(v -> component[v] = find(parent, v));
+        return component;
+    }
+
+    /**
+     * @return an array holding, for every node id, the id of the least node in its
+     * strongly connected component, so two nodes share a component exactly when they
+     * hold the same value. Components are found by an iterative Tarjan's algorithm on
+     * one thread, so graphs of any depth are handled without recursion
+     */
+    public int[] stronglyConnectedComponents() {
+        int nodes = graph.numberOfNodes();
+        int[] component = tarjan(graph);
+        int[] least = new int[nodes];
+        Arrays.fill(least, -1);
+        //visiting ids in increasing order meets the least of each component first
+        for(int v = 0; v < nodes; v++) {
+            if(least[component[v]] == -1) {
+                least[component[v]] = v;
+            }
+            component[v] = least[component[v]];
+        }
+        return component;
+    }
+
+    /**
+     * @spec.requires graph is not null
+     * @param graph is the graph whose strongly connected components are found
+     * @return an array holding, for every node id, the number of its strongly
+     * connected component. Components are numbered from 0 in the order Tarjan's
+     * algorithm completes them, so every edge between two components leads from a
+     * higher number to a lower one. The search keeps its own stack, so graphs of
+     * any depth are handled without recursion
+     */
+    static int[] tarjan(FrozenGraph<?,?> graph) {
+        int nodes = graph.numberOfNodes();
+        int[] index = new int[nodes];
+        int[] lowLink = new int[nodes];
+        int[] nextEdge = new int[nodes];
+        int[] component = new int[nodes];
+        boolean[] onStack = new boolean[nodes];
+        int[] callStack = new int[nodes];
+        int[] sccStack = new int[nodes];
+        Arrays.fill(index, -1);
+        int counter = 0;
+        int completed = 0;
+        for(int root = 0; root < nodes; root++) {
+            if(index[root] != -1) {
+                continue;
+            }
+            int callDepth = 0;
+            int sccDepth = 0;
+            callStack[callDepth++] = root;
+            index[root] = lowLink[root] = counter++;
+            nextEdge[root] = graph.edgeStart(root);
+            sccStack[sccDepth++] = root;
+            onStack[root] = true;
+            //inv: callStack holds the path of the depth-first search from root
+            //to the node being explored
+            while(callDepth > 0) {
+                int v = callStack[callDepth - 1];
+                if(nextEdge[v] < graph.edgeEnd(v)) {
+                    int w = graph.targetOf(nextEdge[v]++);
+                    if(index[w] == -1) {
+                        index[w] = lowLink[w] = counter++;
+                        nextEdge[w] = graph.edgeStart(w);
+                        sccStack[sccDepth++] = w;
+                        onStack[w] = true;
+                        callStack[callDepth++] = w;
+                    } else if(onStack[w]) {
+                        lowLink[v] = Math.min(lowLink[v], index[w]);
+                    }
+                } else {
+                    callDepth--;
+                    if(callDepth > 0) {
+                        int caller = callStack[callDepth - 1];
+                        lowLink[caller] = Math.min(lowLink[caller], lowLink[v]);
+                    }
+                    if(lowLink[v] == index[v]) {
+                        int w;
+                        do {
+                            w = sccStack[--sccDepth];
+                            onStack[w] = false;
+                            component[w] = completed;
+                        } while(w != v);
+                        completed++;
+                    }
+                }
+            }
+        }
+        return component;
+    }
+
+    /**
+     * @return an array whose element d is the number of nodes with exactly d
+     * edges leading away from them
+     */
+    public long[] outDegreeDistribution() {
+        return histogram(graph::outDegree);
+    }
+
+    /**
+     * @return an array whose element d is the number of nodes with exactly d
+     * edges leading into them
+     */
+    public long[] inDegreeDistribution() {
+        return histogram(this::inDegree);
+    }
+
+    /**
+     * @return the number of triangles in the simple undirected graph underlying
+     * graph, in which two distinct nodes are adjacent when an edge with any label
+     * leads from either to the other
+     */
+    public long triangleCount() {
+        int nodes = graph.numberOfNodes();
+        int[][] higher = new int[nodes][];
+        forEachNode(v -> higher[v] = higherNeighbors(v));
+        return sumOverNodesLong(v -> {
+            long triangles = 0;
+            int[] first = higher[v];
+            for(int i = 0; i < first.length; i++) {
+                int[] second = higher[first[i]];
+                int a = i + 1;
+                int b = 0;
+                //inv: every common neighbor before first[a] and second[b] has been counted
+                while(a < first.length && b < second.length) {
+                    if(first[a] < second[b]) {
+                        a++;
+                    } else if(first[a] > second[b]) {
+                        b++;
+                    } else {
+                        triangles++;
+                        a++;
+                        b++;
+                    }
+                }
+            }
+            return triangles;
+        });
+    }
+
+    /**
+     * @spec.requires 0 <= v < graph().numberOfNodes()
+     * @param v is the id of the node whose neighbors are sought
+     * @return the ids, in increasing order and without repeats, of every node
+     * greater than v joined to v by an edge in either direction
+     */
+    private int[] higherNeighbors(int v) {
+        int outStart = graph.firstEdgeTo(v, v + 1);
+        int outEnd = graph.edgeEnd(v);
+        int inStart = inOffsets[v];
+        int inEnd = inOffsets[v + 1];
+        int[] merged = new int[(outEnd - outStart) + (inEnd - inStart)];
+        int size = 0;
+        int last = v;
+        //targets and sources are each sorted, so merging them keeps the result sorted
+        while(outStart < outEnd || inStart < inEnd) {
+            int next;
+            if(inStart >= inEnd || (outStart < outEnd && graph.targetOf(outStart) <= sources[inStart])) {
+                next = graph.targetOf(outStart++);
+            } else {
+                next = sources[inStart++];
+            }
+            if(next > last) {
+                merged[size++] = next;
+                last = next;
+            }
+        }
+        return Arrays.copyOf(merged, size);
+    }
+
+    /**
+     * @param degree gives the degree of the node with a given id
+     * @return an array whose element d is the number of nodes of degree d
+     */
+    private long[] histogram(IntUnaryOperator degree) {
+        int nodes = graph.numberOfNodes();
+        long[] counts = pool.invoke(new HistogramTask(degree, 0, nodes));
+        int last = counts.length;
+        while(last > 0 && counts[last - 1] == 0) {
+            last--;
+        }
+        return Arrays.copyOf(counts, last);
+    }
+
+    /**
+     * @param parent is the union-find forest, in which every root is the least
+     * node id in its tree
+     * @param x is the node whose root is sought
+     * @return the root of the tree holding x
+     * @spec.modifies may shorten paths in parent
+     */
+    private static int find(AtomicIntegerArray parent, int x) {
+        while(true) {
+            int up = parent.get(x);
+            if(up == x) {
+                return x;
+            }
+            int upper = parent.get(up);
+            if(upper != up) {
+                parent.compareAndSet(x, up, upper);
+            }
+            x = up;
+        }
+    }
+
+    /**
+     * @param parent is the union-find forest, in which every root is the least
+     * node id in its tree
+     * @param x is a node to join
+     * @param y is the other node to join
+     * @spec.modifies the trees holding x and y in parent are joined under the
+     * lesser of their roots. Safe to call from several threads at once, since
+     * roots only ever gain parents with smaller ids
+     */
+    private static void union(AtomicIntegerArray parent, int x, int y) {
+        while(true) {
+            x = find(parent, x);
+            y = find(parent, y);
+            if(x == y) {
+                return;
+            }
+            if(x < y) {
+                int swap = x;
+                x = y;
+                y = swap;
+            }
+            if(parent.compareAndSet(x, x, y)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param body is run once for every node id
+     * @spec.effects runs body over every node id in parallel on pool
+     */
+    private void forEachNode(IntConsumer body) {
+        pool.invoke(new NodeAction(body, 0, graph.numberOfNodes()));
+    }
+
+    /**
+     * @param term gives a value for every node id
+     * @return the sum of term over every node id, computed in parallel on pool
+     */
+    private double sumOverNodes(IntToDoubleFunction term) {
+        return pool.invoke(new DoubleSumTask(term, 0, graph.numberOfNodes()));
+    }
+
+    /**
+     * @param term gives a value for every node id
+     * @return the sum of term over every node id, computed in parallel on pool
+     */
+    private long sumOverNodesLong(IntToLongFunction term) {
+        return pool.invoke(new LongSumTask(term, 0, graph.numberOfNodes()));
+    }
+
+    /**
+     * Ensures representation invariant holds
+     */
+    private void checkRep() {
+        assert(graph != null && pool != null && inOffsets != null && sources != null);
+        assert(grain > 0 && inOffsets.length == graph.numberOfNodes() + 1);
+        assert(inOffsets[graph.numberOfNodes()] == sources.length);
+    }
+
+    /**
+     * Abstract state:
+     * PageRank represents the immutable outcome of one PageRank computation:
+     * the rank of every node and how the computation reached it
+     */
+    public final class PageRank {
+
+        private final double[] scores;
+        private final double[] residuals;
+        private final long[] iterationNanos;
+        private final int iterations;
+        private final boolean converged;
+
+        /**
+         * @spec.effects Constructs a new PageRank
+         * @param scores is the rank of every node id
+         * @param residuals is the total change in rank of every iteration run
+         * @param iterationNanos is the time taken by every iteration run
+         * @param iterations is the number of iterations run
+         * @param converged is whether the last iteration fell below the tolerance
+         */
+        private PageRank(double[] scores, double[] residuals, long[] iterationNanos,
+                         int iterations, boolean converged) {
+            this.scores = scores;
+            this.residuals = residuals;
+            this.iterationNanos = iterationNanos;
+            this.iterations = iterations;
+            this.converged = converged;
+        }
+
+        /**
+         * @spec.requires node with nodeData exists in the analysed graph
+         * @param nodeData is the data of the node whose rank is sought
+         * @return the rank of the node with given data
+         */
+        public double scoreOf(N nodeData) {
+            return scores[graph.idOf(nodeData)];
+        }
+
+        /**
+         * @spec.requires 0 <= id < the number of nodes in the analysed graph
+         * @param id is the id of the node whose rank is sought
+         * @return the rank of the node with given id
+         */
+        public double scoreOf(int id) {
+            return scores[id];
+        }
+
+        /**
+         * @return the number of iterations run
+         */
+        public int iterations() {
+            return iterations;
+        }
+
+        /**
+         * @return true if the ranks converged within the allowed iterations
+         */
+        public boolean converged() {
+            return converged;
+        }
+
+        /**
+         * @return the total change in rank in each iteration run, in order
+         */
+        public double[] residuals() {
+            return Arrays.copyOf(residuals, iterations);
+        }
+
+        /**
+         * @return the time in nanoseconds taken by each iteration run, in order
+         */
+        public long[] iterationNanos() {
+            return Arrays.copyOf(iterationNanos, iterations);
+        }
+    }
+
+    /**
+     * Abstract state:
+     * NodeAction represents running a body over a range of node ids, split
+     * in halves until ranges are no longer than grain
+     */
+    private class NodeAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final IntConsumer body;
+        private final int start;
+        private final int end;
+
+        /**
+         * @spec.effects Constructs a new NodeAction over ids start up to but not including end
+         */
+        public NodeAction(IntConsumer body, int start, int end) {
+            this.body = body;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if(end - start <= grain) {
+                for(int v = start; v < end; v++) {
+                    body.accept(v);
+                }
+            } else {
+                int middle = (start + end) >>> 1;
+                invokeAll(new NodeAction(body, start, middle), new NodeAction(body, middle, end));
+            }
+        }
+    }
+
+    /**
+     * Abstract state:
+     * DoubleSumTask represents summing a term over a range of node ids
+     */
+    private class DoubleSumTask extends RecursiveTask<Double> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final IntToDoubleFunction term;
+        private final int start;
+        private final int end;
+
+        /**
+         * @spec.effects Constructs a new DoubleSumTask over ids start up to but not including end
+         */
+        public DoubleSumTask(IntToDoubleFunction term, int start, int end) {
+            this.term = term;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Double compute() {
+            if(end - start <= grain) {
+                double sum = 0.0;
+                for(int v = start; v < end; v++) {
+                    sum += term.applyAsDouble(v);
+                }
+                return sum;
+            }
+            int middle = (start + end) >>> 1;
+            DoubleSumTask left = new DoubleSumTask(term, start, middle);
+            left.fork();
+            double right = new DoubleSumTask(term, middle, end).compute();
+            return left.join() + right;
+        }
+    }
+
+    /**
+     * Abstract state:
+     * LongSumTask represents summing a term over a range of node ids
+     */
+    private class LongSumTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final IntToLongFunction term;
+        private final int start;
+        private final int end;
+
+        /**
+         * @spec.effects Constructs a new LongSumTask over ids start up to but not including end
+         */
+        public LongSumTask(IntToLongFunction term, int start, int end) {
+            this.term = term;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Long compute() {
+            if(end - start <= grain) {
+                long sum = 0;
+                for(int v = start; v < end; v++) {
+                    sum += term.applyAsLong(v);
+                }
+                return sum;
+            }
+            int middle = (start + end) >>> 1;
+            LongSumTask left = new LongSumTask(term, start, middle);
+            left.fork();
+            long right = new LongSumTask(term, middle, end).compute();
+            return left.join() + right;
+        }
+    }
+
+    /**
+     * Abstract state:
+     * HistogramTask represents counting how many node ids in a range
+     * have each degree
+     */
+    private class HistogramTask extends RecursiveTask<long[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final IntUnaryOperator degree;
+        private final int start;
+        private final int end;
+
+        /**
+         * @spec.effects Constructs a new HistogramTask over ids start up to but not including end
+         */
+        public HistogramTask(IntUnaryOperator degree, int start, int end) {
+            this.degree = degree;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected long[] compute() {
+            if(end - start <= grain) {
+                long[] counts = new long[1];
+                for(int v = start; v < end; v++) {
+                    int d = degree.applyAsInt(v);
+                    if(d >= counts.length) {
+                        counts = Arrays.copyOf(counts, Math.max(d + 1, counts.length * 2));
+                    }
+                    counts[d]++;
+                }
+                return counts;
+            }
+            int middle = (start + end) >>> 1;
+            HistogramTask left = new HistogramTask(degree, start, middle);
+            left.fork();
+            long[] right = new HistogramTask(degree, middle, end).compute();
+            long[] counts = left.join();
+            if(right.length > counts.length) {
+                long[] swap = counts;
+                counts = right;
+                right = swap;
+            }
+            for(int d = 0; d < right.length; d++) {
+                counts[d] += right[d];
+            }
+            return counts;
+        }
+    }
+}
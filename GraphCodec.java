@@ -0,0 +1,77 @@
+/**
+ * Abstract state:
+ * GraphCodec represents a reversible conversion between values of one type and
+ * bytes, used to store node data and edge labels in binary graph files
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public interface GraphCodec <T> {
+
+    /**
+     * @spec.requires value is not null
+     * @param value is the value to convert
+     * @return the bytes standing for value
+     */
+    byte[] encode(T value);
+
+    /**
+     * @spec.requires the remaining bytes of 'bytes' are exactly the result of
+     * encode for some value
+     * @param bytes holds the encoded value between its position and limit
+     * @return the value the bytes stand for. The position of 'bytes' may be moved
+     */
+    T decode(ByteBuffer bytes);
+
+    /**
+     * @return a GraphCodec storing Strings as UTF-8
+     */
+    static GraphCodec<String> strings() {
+        return new GraphCodec<String>() {
+            public byte[] encode(String value) {
+                return value.getBytes(StandardCharsets.UTF_8);
+            }
+
+            public String decode(ByteBuffer bytes) {
+                if(bytes.hasArray()) {
+                    return new String(bytes.array(), bytes.arrayOffset() + bytes.position(),
+                            bytes.remaining(), StandardCharsets.UTF_8);
+                }
+                byte[] copy = new byte[bytes.remaining()];
+                bytes.get(copy);
+                return new String(copy, StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    /**
+     * @return a GraphCodec storing Integers as four big-endian bytes
+     */
+    static GraphCodec<Integer> integers() {
+        return new GraphCodec<Integer>() {
+            public byte[] encode(Integer value) {
+                return ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+            }
+
+            public Integer decode(ByteBuffer bytes) {
+                return bytes.getInt(bytes.position());
+            }
+        };
+    }
+
+    /**
+     * @return a GraphCodec storing Longs as eight big-endian bytes
+     */
+    static GraphCodec<Long> longs() {
+        return new GraphCodec<Long>() {
+            public byte[] encode(Long value) {
+                return ByteBuffer.allocate(Long.BYTES).putLong(value).array();
+            }
+
+            public Long decode(ByteBuffer bytes) {
+                return bytes.getLong(bytes.position());
+            }
+        };
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Abstract state:
+ * GraphEvent represents an immutable record of one change to a graph: a node
+ * added or removed, given by its data, or an edge added or removed, given by
+ * the data of its parent and child and its label
+ */
+
+import java.util.Objects;
+
+public final class GraphEvent <N extends Comparable<N>, E extends Comparable<E>> {
+
+    /**
+     * Abstract state:
+     * Kind represents which of the four changes a GraphEvent records
+     */
+    public enum Kind {
+        NODE_ADDED, NODE_REMOVED, EDGE_ADDED, EDGE_REMOVED
+    }
+
+    private final Kind kind;
+    private final N node;
+    private final N child;
+    private final E label;
+
+    // Representation Invariant for every GraphEvent:
+    // kind != null && node != null
+    // child and label are null for node events and not null for edge events
+    //
+    // Abstraction Function:
+    // GraphEvent represents the change 'kind' to the node with data 'node',
+    // or, for edge events, to the edge leading from the node with data 'node'
+    // to the node with data 'child', labeled by 'label'
+
+    /**
+     * @spec.effects Constructs a new GraphEvent
+     */
+    private GraphEvent(Kind kind, N node, N child, E label) {
+        this.kind = kind;
+        this.node = node;
+        this.child = child;
+        this.label = label;
+        this.checkRep();
+    }
+
+    /**
+     * @spec.requires data is not null
+     * @return a GraphEvent recording that a node with the given data was added
+     */
+    public static <N extends Comparable<N>, E extends Comparable<E>> GraphEvent<N,E> nodeAdded(N data) {
+        return new GraphEvent<N,E>(Kind.NODE_ADDED, data, null, null);
+    }
+
+    /**
+     * @spec.requires data is not null
+     * @return a GraphEvent recording that the node with the given data was removed
+     */
+    public static <N extends Comparable<N>, E extends Comparable<E>> GraphEvent<N,E> nodeRemoved(N data) {
+        return new GraphEvent<N,E>(Kind.NODE_REMOVED, data, null, null);
+    }
+
+    /**
+     * @spec.requires no argument is null
+     * @return a GraphEvent recording that an edge from parent to child labeled by
+     * label was added
+     */
+    public static <N extends Comparable<N>, E extends Comparable<E>> GraphEvent<N,E> edgeAdded(N parent,
+            N child, E label) {
+        return new GraphEvent<N,E>(Kind.EDGE_ADDED, parent, child, label);
+    }
+
+    /**
+     * @spec.requires no argument is null
+     * @return a GraphEvent recording that the edge from parent to child labeled by
+     * label was removed
+     */
+    public static <N extends Comparable<N>, E extends Comparable<E>> GraphEvent<N,E> edgeRemoved(N parent,
+            N child, E label) {
+        return new GraphEvent<N,E>(Kind.EDGE_REMOVED, parent, child, label);
+    }
+
+    /**
+     * @return which change this GraphEvent records
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return true if this GraphEvent records an edge, rather than a node, being
+     * added or removed
+     */
+    public boolean isEdgeEvent() {
+        return kind == Kind.EDGE_ADDED || kind == Kind.EDGE_REMOVED;
+    }
+
+    /**
+     * @return the data of the node added or removed, or for edge events the data
+     * of the node the edge leads from
+     */
+    public N getNode() {
+        return node;
+    }
+
+    /**
+     * @return the data of the node the edge leads from, or for node events the
+     * data of the node added or removed
+     */
+    public N getParent() {
+        return node;
+    }
+
+    /**
+     * @return the data of the node the edge leads to, or null for node events
+     */
+    public N getChild() {
+        return child;
+    }
+
+    /**
+     * @return the label of the edge, or null for node events
+     */
+    public E getLabel() {
+        return label;
+    }
+
+    /**
+     * @spec.requires this GraphEvent is an edge event
+     * @return the edge this GraphEvent records
+     */
+    public LabeledEdge<N,E> getEdge() {
+        return new LabeledEdge<N,E>(node, child, label);
+    }
+
+    /**
+     * @param other is the object compared against this one
+     * @return true if other is a GraphEvent recording the same change
+     */
+    @Override
+    public boolean equals(Object other) {
+        if(!(other instanceof GraphEvent<?,?>)) {
+            return false;
+        }
+        GraphEvent<?,?> event = (GraphEvent<?,?>) other;
+        return kind == event.kind && node.equals(event.node) && Objects.equals(child, event.child)
+                && Objects.equals(label, event.label);
+    }
+
+    /**
+     * @return a hash code consistent with equals
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, node, child, label);
+    }
+
+    /**
+     * @return this event as "+node n", "-node n", "+edge p -l-> c" or "-edge p -l-> c"
+     */
+    @Override
+    public String toString() {
+        String sign = (kind == Kind.NODE_ADDED || kind == Kind.EDGE_ADDED) ? "+" : "-";
+        if(isEdgeEvent()) {
+            return sign + "edge " + node + " -" + label + "-> " + child;
+        }
+        return sign + "node " + node;
+    }
+
+    /**
+     * Ensures representation invariant holds
+     */
+    private void checkRep() {
+        assert(kind != null && node != null);
+        assert(isEdgeEvent() == (child != null) && isEdgeEvent() == (label != null));
+    }
+}
@@ -0,0 +1,265 @@
+/**
+ * Abstract state:
+ * GraphExporter represents a reusable way of writing a Graph out as text in one
+ * of several formats, optionally leaving out nodes a node filter rejects and
+ * edges a label filter rejects. The Graph is streamed straight to the output in
+ * time linear in its size, holding nothing beyond the node and edge being written
+ */
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Predicate;
+
+public final class GraphExporter <N extends Comparable<N>, E extends Comparable<E>> {
+
+    /**
+     * Abstract state:
+     * Format represents a text format a GraphExporter can write
+     */
+    public enum Format {
+        /** Graphviz DOT, a digraph with one statement per node and per edge */
+        DOT,
+        /** GraphML, with edge labels as string data keyed "label" */
+        GRAPHML,
+        /**
+         * One "parent, child, label" line per edge, separated by tabs, as read by
+         * an EdgeListLoader with a '\t' delimiter and FieldParser.escapedStrings().
+         * Tabs, line breaks and backslashes within values are escaped as \t, \n, \r
+         * and \\, and a '#' starting a value as \#, so that no line is taken for a
+         * comment. Nodes without edges do not appear
+         */
+        TSV
+    }
+
+    private final Format format;
+    private final Predicate<? super N> nodeFilter;
+    private final Predicate<? super E> labelFilter;
+
+    // Representation Invariant for every GraphExporter:
+    // format != null && nodeFilter != null && labelFilter != null
+
+    /**
+     * @spec.requires format is not null
+     * @spec.effects Constructs a new GraphExporter writing every node and edge in format
+     */
+    public GraphExporter(Format format) {
+        this(format, node -> true, label -> true);
+    }
+
+    /**
+     * @spec.requires no argument is null
+     * @param format is the format written
+     * @param nodeFilter accepts the data of the nodes written. Edges into or out of
+     * a rejected node are left out with it
+     * @param labelFilter accepts the labels of the edges written
+     * @spec.effects Constructs a new GraphExporter
+     */
+    public GraphExporter(Format format, Predicate<? super N> nodeFilter, Predicate<? super E> labelFilter) {
+        this.format = format;
+        this.nodeFilter = nodeFilter;
+        this.labelFilter = labelFilter;
+        this.checkRep();
+    }
+
+    /**
+     * @spec.requires graph and out are not null, and graph is not modified during the export
+     * @param graph is the Graph written
+     * @param out is where it is written. It is neither buffered nor closed here
+     * @spec.effects every node and edge the filters accept is written to out in the
+     * format of this GraphExporter. Nodes appear in no particular order, and the
+     * edges leading away from a node in the order of Graph.childNodes. Node data
+     * and labels are written by their toString
+     * @throws IOException if out cannot be written
+     */
+    public void export(Graph<N,E> graph, Writer out) throws IOException {
+        begin(out);
+        if(format != Format.TSV) {
+            for(N node : graph.allNodesView()) {
+                if(nodeFilter.test(node)) {
+                    writeNode(out, node);
+                }
+            }
+        }
+        try {
+            for(N node : graph.allNodesView()) {
+                if(!nodeFilter.test(node)) {
+                    continue;
+                }
+                graph.forEachEdge(node, (label, child) -> {
+                    if(labelFilter.test(label) && nodeFilter.test(child)) {
+                        try {
+                            writeEdge(out, node, child, label);
+                        } catch(IOException failed) {
+                            throw new UncheckedIOException(failed);
+                        }
+                    }
+                });
+            }
+        } catch(UncheckedIOException failed) {
+            throw failed.getCause();
+        }
+        end(out);
+    }
+
+    /**
+     * @spec.requires graph and out are not null, and graph is not modified during the export
+     * @param graph is the Graph written
+     * @param out is where it is written, as UTF-8 through a buffer that is flushed
+     * before returning. out is not closed
+     * @spec.effects as for export(Graph, Writer)
+     * @throws IOException if out cannot be written
+     */
+    public void export(Graph<N,E> graph, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+        export(graph, writer);
+        writer.flush();
+    }
+
+    /**
+     * @spec.effects writes what comes before the nodes and edges
+     */
+    private void begin(Writer out) throws IOException {
+        switch(format) {
+            case DOT:
+                out.write("digraph G {\n");
+                break;
+            case GRAPHML:
+                out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+                out.write("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n");
+                out.write("  <key id=\"label\" for=\"edge\" attr.name=\"label\" attr.type=\"string\"/>\n");
+                out.write("  <graph id=\"G\" edgedefault=\"directed\">\n");
+                break;
+            default:
+                out.write("# parent\tchild\tlabel\n");
+                break;
+        }
+    }
+
+    /**
+     * @spec.effects writes the node with data 'node'
+     */
+    private void writeNode(Writer out, N node) throws IOException {
+        if(format == Format.DOT) {
+            out.write("  ");
+            writeDotId(out, node.toString());
+            out.write(";\n");
+        } else {
+            out.write("    <node id=\"");
+            writeXml(out, node.toString());
+            out.write("\"/>\n");
+        }
+    }
+
+    /**
+     * @spec.effects writes the edge from parent to child labeled by label
+     */
+    private void writeEdge(Writer out, N parent, N child, E label) throws IOException {
+        switch(format) {
+            case DOT:
+                out.write("  ");
+                writeDotId(out, parent.toString());
+                out.write(" -> ");
+                writeDotId(out, child.toString());
+                out.write(" [label=");
+                writeDotId(out, label.toString());
+                out.write("];\n");
+                break;
+            case GRAPHML:
+                out.write("    <edge source=\"");
+                writeXml(out, parent.toString());
+                out.write("\" target=\"");
+                writeXml(out, child.toString());
+                out.write("\"><data key=\"label\">");
+                writeXml(out, label.toString());
+                out.write("</data></edge>\n");
+                break;
+            default:
+                writeTsv(out, parent.toString());
+                out.write('\t');
+                writeTsv(out, child.toString());
+                out.write('\t');
+                writeTsv(out, label.toString());
+                out.write('\n');
+                break;
+        }
+    }
+
+    /**
+     * @spec.effects writes what comes after the nodes and edges
+     */
+    private void end(Writer out) throws IOException {
+        if(format == Format.DOT) {
+            out.write("}\n");
+        } else if(format == Format.GRAPHML) {
+            out.write("  </graph>\n</graphml>\n");
+        }
+    }
+
+    /**
+     * @spec.effects writes text as a quoted DOT identifier
+     */
+    private static void writeDotId(Writer out, String text) throws IOException {
+        out.write('"');
+        for(int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if(c == '"' || c == '\\') {
+                out.write('\\');
+                out.write(c);
+            } else if(c == '\n') {
+                out.write("\\n");
+            } else if(c != '\r') {
+                out.write(c);
+            }
+        }
+        out.write('"');
+    }
+
+    /**
+     * @spec.effects writes text with the XML special characters escaped
+     */
+    private static void writeXml(Writer out, String text) throws IOException {
+        for(int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch(c) {
+                case '&': out.write("&amp;"); break;
+                case '<': out.write("&lt;"); break;
+                case '>': out.write("&gt;"); break;
+                case '"': out.write("&quot;"); break;
+                case '\'': out.write("&apos;"); break;
+                default: out.write(c); break;
+            }
+        }
+    }
+
+    /**
+     * @spec.effects writes text with tabs, line breaks, backslashes and a leading
+     * '#' escaped
+     */
+    private static void writeTsv(Writer out, String text) throws IOException {
+        if(text.startsWith("#")) {
+            out.write('\\');
+        }
+        for(int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch(c) {
+                case '\t': out.write("\\t"); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\\': out.write("\\\\"); break;
+                default: out.write(c); break;
+            }
+        }
+    }
+
+    /**
+     * Ensures representation invariant holds
+     */
+    private void checkRep() {
+        assert(format != null && nodeFilter != null && labelFilter != null);
+    }
+}
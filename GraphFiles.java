@@ -0,0 +1,182 @@
+/**
+ * Abstract state:
+ * GraphFiles is a stateless collection of operations that store graphs in, and
+ * open graphs from, files in the binary graph format described below
+ *
+ * Format, version 1. Every number is big-endian and every section begins at a
+ * multiple of eight bytes:
+ *   header        magic "DMGR", version, node count, label count, edge count
+ *                 (five ints), four bytes of padding, then the starting byte of
+ *                 each of the seven sections below (seven longs)
+ *   node blobs    the encoded data of every node, in sorted order, back to back
+ *   node index    node count + 1 longs; node i's bytes run from entry i up to
+ *                 but not including entry i + 1, counted from the node blobs
+ *   label blobs   the encoded labels, in sorted order, back to back
+ *   label index   label count + 1 longs, as for the node index
+ *   offsets       node count + 1 ints; node i's edges are numbered from entry i
+ *                 up to but not including entry i + 1
+ *   targets       edge count ints, the child node id of every edge
+ *   edge labels   edge count ints, the label id of every edge
+ * Node and label ids are positions in sorted order, exactly as in FrozenGraph
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public final class GraphFiles {
+
+    static final int MAGIC = 0x444D4752;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 6 * Integer.BYTES + 7 * Long.BYTES;
+
+    private GraphFiles() {
+    }
+
+    /**
+     * @spec.requires no argument is null
+     * @param graph is the graph to store
+     * @param path is the file to store it in
+     * @param nodeCodec converts node data to bytes
+     * @param labelCodec converts labels to bytes
+     * @spec.effects creates or replaces the file at path with graph in the binary
+     * graph format, streaming it out without holding the encoded graph in memory
+     * @throws IOException if the file cannot be written
+     */
+    public static <N extends Comparable<N>, E extends Comparable<E>> void write(FrozenGraph<N,E> graph, Path path,
+            GraphCodec<N> nodeCodec, GraphCodec<E> labelCodec) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            CountingOutput out = new CountingOutput(Channels.newOutputStream(channel));
+            long[] sections = new long[7];
+            out.pad(HEADER_BYTES);
+
+            sections[0] = out.alignTo(Long.BYTES);
+            long[] nodeIndex = new long[graph.numberOfNodes() + 1];
+            for(int i = 0; i < graph.numberOfNodes(); i++) {
+                out.data.write(nodeCodec.encode(graph.nodeAt(i)));
+                nodeIndex[i + 1] = out.written - sections[0];
+            }
+            sections[1] = out.alignTo(Long.BYTES);
+            for(long entry : nodeIndex) {
+                out.data.writeLong(entry);
+            }
+
+            sections[2] = out.alignTo(Long.BYTES);
+            long[] labelIndex = new long[graph.numberOfLabels() + 1];
+            for(int i = 0; i < graph.numberOfLabels(); i++) {
+                out.data.write(labelCodec.encode(graph.labelAt(i)));
+                labelIndex[i + 1] = out.written - sections[2];
+            }
+            sections[3] = out.alignTo(Long.BYTES);
+            for(long entry : labelIndex) {
+                out.data.writeLong(entry);
+            }
+
+            sections[4] = out.alignTo(Long.BYTES);
+            for(int i = 0; i < graph.numberOfNodes(); i++) {
+                out.data.writeInt(graph.edgeStart(i));
+            }
+            out.data.writeInt(graph.numberOfEdges());
+            sections[5] = out.alignTo(Long.BYTES);
+            for(int k = 0; k < graph.numberOfEdges(); k++) {
+                out.data.writeInt(graph.targetOf(k));
+            }
+            sections[6] = out.alignTo(Long.BYTES);
+            for(int k = 0; k < graph.numberOfEdges(); k++) {
+                out.data.writeInt(graph.labelIdOfEdge(k));
+            }
+            out.data.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(graph.numberOfNodes())
+                    .putInt(graph.numberOfLabels()).putInt(graph.numberOfEdges()).putInt(0);
+            for(long section : sections) {
+                header.putLong(section);
+            }
+            header.flip();
+            long position = 0;
+            while(header.hasRemaining()) {
+                position += channel.write(header, position);
+            }
+        }
+    }
+
+    /**
+     * @spec.requires no argument is null, and the codecs are the ones the file
+     * was written with
+     * @param path is a file written by write
+     * @param nodeCodec converts bytes back to node data
+     * @param labelCodec converts bytes back to labels
+     * @return a read-only MappedGraph over the file, which reads nodes and edges
+     * from the mapped file as they are queried rather than loading them
+     * @throws IOException if the file cannot be read or is not in a supported
+     * version of the binary graph format
+     */
+    public static <N extends Comparable<N>, E extends Comparable<E>> MappedGraph<N,E> open(Path path,
+            GraphCodec<N> nodeCodec, GraphCodec<E> labelCodec) throws IOException {
+        return new MappedGraph<N,E>(path, nodeCodec, labelCodec);
+    }
+
+    /**
+     * Abstract state:
+     * CountingOutput represents a stream of bytes together with how many
+     * have been written to it so far
+     */
+    private static final class CountingOutput extends OutputStream {
+
+        private final OutputStream target;
+        private final DataOutputStream data;
+        private long written;
+
+        /**
+         * @spec.effects Constructs a new CountingOutput writing, buffered, to target
+         */
+        public CountingOutput(OutputStream target) {
+            this.target = new BufferedOutputStream(target, 1 << 16);
+            this.data = new DataOutputStream(this);
+            this.written = 0;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target.write(b);
+            written++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            target.write(bytes, offset, length);
+            written += length;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+
+        /**
+         * @spec.effects writes 'count' zero bytes
+         */
+        public void pad(int count) throws IOException {
+            for(int i = 0; i < count; i++) {
+                write(0);
+            }
+        }
+
+        /**
+         * @spec.effects writes zero bytes until the count written is a multiple of alignment
+         * @return the count written afterwards
+         */
+        public long alignTo(int alignment) throws IOException {
+            pad((int) ((alignment - written % alignment) % alignment));
+            return written;
+        }
+    }
+}
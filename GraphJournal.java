@@ -0,0 +1,185 @@
+/**
+ * Abstract state:
+ * GraphJournal represents an ordered log of the changes made to a Graph, kept
+ * in the batches they were made in. A journal can be replayed onto another
+ * Graph to bring it to the same state, or replayed to a GraphListener to
+ * rebuild derived state, and can be drained to ship its changes elsewhere
+ */
+
+import java.util.*;
+
+public final class GraphJournal <N extends Comparable<N>, E extends Comparable<E>> implements GraphListener<N,E> {
+
+    private final List<GraphEvent<N,E>> events;
+    private final List<Integer> batchStarts;
+
+    // Representation Invariant for every GraphJournal:
+    // events != null && batchStarts != null, and no element of either is null
+    // batchStarts is strictly increasing, starts at 0 unless events is empty,
+    // and every element is less than events.size()
+    //
+    // Abstraction Function:
+    // GraphJournal represents the log whose i-th batch is the events from
+    // batchStarts.get(i) up to but not including batchStarts.get(i + 1), or the
+    // end of events for the last batch
+
+    /**
+     * @spec.effects Constructs a new, empty GraphJournal. Register it with
+     * Graph.addListener to start recording
+     */
+    public GraphJournal() {
+        events = new ArrayList<GraphEvent<N,E>>();
+        batchStarts = new ArrayList<Integer>();
+        this.checkRep();
+    }
+
+    /**
+     * @spec.modifies events are appended to this GraphJournal as one batch
+     */
+    @Override
+    public void graphChanged(List<GraphEvent<N,E>> events) {
+        batchStarts.add(this.events.size());
+        this.events.addAll(events);
+        this.checkRep();
+    }
+
+    /**
+     * @return the number of events recorded
+     */
+    public int size() {
+        return events.size();
+    }
+
+    /**
+     * @return the number of batches recorded
+     */
+    public int numberOfBatches() {
+        return batchStarts.size();
+    }
+
+    /**
+     * @return an unmodifiable List, backed by this GraphJournal, of every event
+     * recorded, in order
+     */
+    public List<GraphEvent<N,E>> events() {
+        return Collections.unmodifiableList(events);
+    }
+
+    /**
+     * @spec.requires 0 <= index < numberOfBatches()
+     * @return an unmodifiable List of the events of the batch at index
+     */
+    public List<GraphEvent<N,E>> batch(int index) {
+        int end = index + 1 < batchStarts.size() ? batchStarts.get(index + 1) : events.size();
+        return Collections.unmodifiableList(events.subList(batchStarts.get(index), end));
+    }
+
+    /**
+     * @spec.modifies every event is removed from this GraphJournal
+     * @return the events removed, in order
+     */
+    public List<GraphEvent<N,E>> drain() {
+        List<GraphEvent<N,E>> drained = new ArrayList<GraphEvent<N,E>>(events);
+        clear();
+        return drained;
+    }
+
+    /**
+     * @spec.modifies every event is removed from this GraphJournal
+     */
+    public void clear() {
+        events.clear();
+        batchStarts.clear();
+        this.checkRep();
+    }
+
+    /**
+     * @spec.requires target is not null and is not the Graph this GraphJournal records
+     * @spec.modifies the recorded changes are applied to target, as by replay
+     * @return the number of changes that modified target
+     */
+    public int replayOnto(Graph<N,E> target) {
+        return replay(events, target);
+    }
+
+    /**
+     * @spec.requires listener is not null
+     * @spec.modifies listener is told of every recorded batch, in order, as the
+     * Graph told this GraphJournal of them
+     */
+    public void replayTo(GraphListener<N,E> listener) {
+        for(int i = 0; i < batchStarts.size(); i++) {
+            listener.graphChanged(batch(i));
+        }
+    }
+
+    /**
+     * @spec.requires events, its elements and target are not null
+     * @param events are changes to apply, in order
+     * @param target is the Graph they are applied to
+     * @spec.modifies every change of events is applied to target in order. Runs of
+     * consecutive node additions, edge additions or edge removals are applied
+     * through the batch methods of Graph, which has the same effect as applying
+     * them one at a time. A target in the state the events were recorded from is
+     * left in the state they led to; changes target already reflects are skipped
+     * @return the number of changes that modified target
+     */
+    public static <N extends Comparable<N>, E extends Comparable<E>> int replay(List<GraphEvent<N,E>> events,
+                                                                                Graph<N,E> target) {
+        int applied = 0;
+        int i = 0;
+        //inv: the changes of the first i events have been applied to target
+        while(i < events.size()) {
+            GraphEvent.Kind kind = events.get(i).getKind();
+            int end = i;
+            while(end < events.size() && events.get(end).getKind() == kind) {
+                end++;
+            }
+            List<GraphEvent<N,E>> run = events.subList(i, end);
+            switch(kind) {
+                case NODE_ADDED:
+                    List<N> nodes = new ArrayList<N>(run.size());
+                    for(GraphEvent<N,E> event : run) {
+                        nodes.add(event.getNode());
+                    }
+                    applied += target.addNodes(nodes);
+                    break;
+                case NODE_REMOVED:
+                    for(GraphEvent<N,E> event : run) {
+                        applied += target.removeNode(event.getNode()) ? 1 : 0;
+                    }
+                    break;
+                case EDGE_ADDED:
+                    applied += target.addEdges(edgesOf(run));
+                    break;
+                default:
+                    applied += target.removeEdges(edgesOf(run));
+                    break;
+            }
+            i = end;
+        }
+        return applied;
+    }
+
+    /**
+     * @spec.requires every element of run is an edge event
+     * @return the edges of run, in order
+     */
+    private static <N extends Comparable<N>, E extends Comparable<E>> List<LabeledEdge<N,E>> edgesOf(
+            List<GraphEvent<N,E>> run) {
+        List<LabeledEdge<N,E>> edges = new ArrayList<LabeledEdge<N,E>>(run.size());
+        for(GraphEvent<N,E> event : run) {
+            edges.add(event.getEdge());
+        }
+        return edges;
+    }
+
+    /**
+     * Ensures representation invariant holds
+     */
+    private void checkRep() {
+        assert(events != null && batchStarts != null);
+        assert(batchStarts.isEmpty() || (batchStarts.get(0) == 0
+                && batchStarts.get(batchStarts.size() - 1) < events.size()));
+    }
+}
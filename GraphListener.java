@@ -0,0 +1,19 @@
+/**
+ * Abstract state:
+ * GraphListener represents something told of every change to a Graph it is
+ * registered with, so that state derived from the Graph can be kept up to date
+ * without recomputing it
+ */
+
+import java.util.List;
+
+public interface GraphListener <N extends Comparable<N>, E extends Comparable<E>> {
+
+    /**
+     * @spec.requires the Graph is not modified, and no listener is added or removed,
+     * during this call
+     * @param events are the changes made by one call to a modifying method of the
+     * Graph, in the order they took effect. The List is unmodifiable and never empty
+     */
+    void graphChanged(List<GraphEvent<N,E>> events);
+}
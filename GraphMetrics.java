@@ -0,0 +1,293 @@
+/**
+ * Abstract state:
+ * GraphMetrics represents running measurements of the operations of the Graphs it is
+ * given to with Graph.setMetrics: for every kind of operation, how often it ran, how
+ * long each run took, how many Nodes or Edges it examined and, optionally, how many
+ * bytes it allocated; how many times a Node was looked up by its data; and the
+ * out-degree of every Node an operation centred on, with the largest seen and the
+ * Node that had it. A Graph without a GraphMetrics pays a single null check per
+ * operation. Measurements may be recorded from several threads at once, and read
+ * at any time as a MetricsSnapshot or reported to MetricsSinks
+ */
+
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class GraphMetrics {
+
+    /**
+     * Abstract state:
+     * Operation represents a kind of Graph operation GraphMetrics measures
+     */
+    public enum Operation {
+        ADD_NODE, REMOVE_NODE, ADD_EDGE, REMOVE_EDGE, ADD_NODES, ADD_EDGES, REMOVE_EDGES,
+        REMOVE_EDGES_BETWEEN, EDGES_OF, EDGES_BETWEEN, CHILD_NODES, NEXT_NODES_FOR_LABEL, PARENT_NODES
+    }
+
+    /** The number of power-of-two buckets of every histogram */
+    static final int BUCKETS = 64;
+
+    private static final int OPERATIONS = Operation.values().length;
+
+    private final LongAdder[] counts;
+    private final LongAdder[] nanos;
+    private final LongAdder[] scanned;
+    private final LongAdder[] allocated;
+    private final AtomicLongArray latencies;
+    private final AtomicLongArray degrees;
+    private final LongAdder lookups;
+    private final ThreadMXBean threads;
+    private final ThreadLocal<long[]> allocationMarks;
+    private final List<MetricsSink> sinks;
+    private volatile int maxOutDegree;
+    private volatile Object hub;
+
+    // Abstraction Function:
+    // For every Operation o, counts[o], nanos[o], scanned[o] and allocated[o]
+    // are the number of runs of o and their total time in nanoseconds, Nodes or
+    // Edges examined, and bytes allocated. latencies[o * BUCKETS + b] is the
+    // number of runs of o that took nanoseconds in bucket b, and degrees[b] the
+    // number of operations whose Node had an out-degree in bucket b, where
+    // bucket b holds the values v with 64 - numberOfLeadingZeros(v) == b.
+    // lookups is the number of Nodes looked up. maxOutDegree is the largest
+    // out-degree seen, and hub the data of a Node that had it, or null if none
+    // has been seen. Allocation is measured only if threads is not null.
+    //
+    // Representation Invariant for every GraphMetrics:
+    // no field is null but threads, allocationMarks and hub; allocationMarks is
+    // null exactly when threads is; the arrays of adders each have OPERATIONS elements
+    // latencies.length() == OPERATIONS * BUCKETS and degrees.length() == BUCKETS
+    // maxOutDegree >= 0, and hub is null only if maxOutDegree == 0
+
+    /**
+     * @spec.effects Constructs a new GraphMetrics that has measured nothing, and
+     * does not measure allocation
+     */
+    public GraphMetrics() {
+        this(false);
+    }
+
+    /**
+     * @param trackAllocation is whether the bytes each operation allocates are
+     * measured, which adds a call to the JVM's per-thread allocation counter at
+     * either end of every operation. It is ignored if the JVM has no such counter
+     * @spec.effects Constructs a new GraphMetrics that has measured nothing
+     */
+    public GraphMetrics(boolean trackAllocation) {
+        counts = adders();
+        nanos = adders();
+        scanned = adders();
+        allocated = adders();
+        latencies = new AtomicLongArray(OPERATIONS * BUCKETS);
+        degrees = new AtomicLongArray(BUCKETS);
+        lookups = new LongAdder();
+        threads = trackAllocation ? allocationCounter() : null;
+        allocationMarks = threads == null ? null : ThreadLocal.withInitial(() -> new long[8]);
+        sinks = new CopyOnWriteArrayList<MetricsSink>();
+        maxOutDegree = 0;
+        hub = null;
+        this.checkRep();
+    }
+
+    /**
+     * @return true if the bytes each operation allocates are measured, false otherwise
+     */
+    public boolean tracksAllocation() {
+        return threads != null;
+    }
+
+    /**
+     * @spec.requires sink is not null
+     * @spec.modifies sink is given every MetricsSnapshot published from now on,
+     * until it is removed
+     */
+    public void addSink(MetricsSink sink) {
+        sinks.add(sink);
+    }
+
+    /**
+     * @spec.modifies sink, if added, is given no further MetricsSnapshots
+     * @return true if sink had been added, false otherwise
+     */
+    public boolean removeSink(MetricsSink sink) {
+        return sinks.remove(sink);
+    }
+
+    /**
+     * @spec.effects every added sink is given the same MetricsSnapshot of the
+     * measurements so far. Call it as often as the sinks should be brought up to date
+     * @return the MetricsSnapshot published
+     */
+    public MetricsSnapshot publish() {
+        MetricsSnapshot current = snapshot();
+        for(MetricsSink sink : sinks) {
+            sink.report(current);
+        }
+        return current;
+    }
+
+    /**
+     * @return an immutable MetricsSnapshot of the measurements so far. Measurements
+     * recorded while it is taken may be partly included
+     */
+    public MetricsSnapshot snapshot() {
+        long[][] totals = new long[4][OPERATIONS];
+        long[][] latencyBuckets = new long[OPERATIONS][BUCKETS];
+        for(int op = 0; op < OPERATIONS; op++) {
+            totals[0][op] = counts[op].sum();
+            totals[1][op] = nanos[op].sum();
+            totals[2][op] = scanned[op].sum();
+            totals[3][op] = allocated[op].sum();
+            for(int b = 0; b < BUCKETS; b++) {
+                latencyBuckets[op][b] = latencies.get(op * BUCKETS + b);
+            }
+        }
+        long[] degreeBuckets = new long[BUCKETS];
+        for(int b = 0; b < BUCKETS; b++) {
+            degreeBuckets[b] = degrees.get(b);
+        }
+        Object hubNode;
+        int maxDegree;
+        synchronized(this) {
+            hubNode = hub;
+            maxDegree = maxOutDegree;
+        }
+        return new MetricsSnapshot(totals[0], totals[1], totals[2], totals[3], latencyBuckets, degreeBuckets,
+                lookups.sum(), maxDegree, hubNode, tracksAllocation());
+    }
+
+    /**
+     * @spec.modifies every measurement is set back to nothing
+     */
+    public synchronized void reset() {
+        for(int op = 0; op < OPERATIONS; op++) {
+            counts[op].reset();
+            nanos[op].reset();
+            scanned[op].reset();
+            allocated[op].reset();
+        }
+        for(int i = 0; i < latencies.length(); i++) {
+            latencies.set(i, 0);
+        }
+        for(int b = 0; b < BUCKETS; b++) {
+            degrees.set(b, 0);
+        }
+        lookups.reset();
+        maxOutDegree = 0;
+        hub = null;
+    }
+
+    /**
+     * @spec.requires every call is matched, on the same thread, by a later call to
+     * finish, and calls nest
+     * @spec.modifies if allocation is measured, the thread's allocation so far is noted
+     * @return the time the operation started, to be given to finish
+     */
+    long start() {
+        if(threads != null) {
+            long[] marks = allocationMarks.get();
+            int depth = (int) marks[0] + 1;
+            if(depth >= marks.length) {
+                marks = Arrays.copyOf(marks, marks.length * 2);
+                allocationMarks.set(marks);
+            }
+            marks[0] = depth;
+            marks[depth] = threads.getCurrentThreadAllocatedBytes();
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * @spec.requires started was returned by the matching call to start
+     * @spec.modifies a run of op that began at started is recorded, as having
+     * examined 'scanned' Nodes or Edges, and as centred on the Node with data
+     * 'node', whose out-degree is 'degree', unless node is null
+     */
+    void finish(Operation op, long started, Object node, int degree, long examined) {
+        long elapsed = Math.max(0, System.nanoTime() - started);
+        int index = op.ordinal();
+        counts[index].increment();
+        nanos[index].add(elapsed);
+        scanned[index].add(examined);
+        latencies.incrementAndGet(index * BUCKETS + bucket(elapsed));
+        if(threads != null) {
+            long[] marks = allocationMarks.get();
+            long now = threads.getCurrentThreadAllocatedBytes();
+            allocated[index].add(Math.max(0, now - marks[(int) marks[0]]));
+            marks[0]--;
+        }
+        if(node != null) {
+            degrees.incrementAndGet(bucket(degree));
+            if(degree > maxOutDegree) {
+                raiseMaxOutDegree(node, degree);
+            }
+        }
+    }
+
+    /**
+     * @spec.modifies the count of Nodes looked up is increased by one
+     */
+    void lookedUp() {
+        lookups.increment();
+    }
+
+    /**
+     * @return the histogram bucket of value
+     */
+    static int bucket(long value) {
+        return 64 - Long.numberOfLeadingZeros(value);
+    }
+
+    /**
+     * @spec.modifies if degree is larger than any seen before, it is noted as the
+     * largest, with node as the Node that had it
+     */
+    private synchronized void raiseMaxOutDegree(Object node, int degree) {
+        if(degree > maxOutDegree) {
+            hub = node;
+            maxOutDegree = degree;
+        }
+    }
+
+    /**
+     * @return a new array of OPERATIONS LongAdders
+     */
+    private static LongAdder[] adders() {
+        LongAdder[] adders = new LongAdder[OPERATIONS];
+        for(int i = 0; i < OPERATIONS; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * @return the JVM's per-thread allocation counter, enabled, or null if it has none
+     */
+    private static ThreadMXBean allocationCounter() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if(!(bean instanceof ThreadMXBean)) {
+            return null;
+        }
+        ThreadMXBean counter = (ThreadMXBean) bean;
+        if(!counter.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        counter.setThreadAllocatedMemoryEnabled(true);
+        return counter;
+    }
+
+    /**
+     * Ensures representation invariant holds
+     */
+    private void checkRep() {
+        assert(counts != null && nanos != null && scanned != null && allocated != null);
+        assert(latencies.length() == OPERATIONS * BUCKETS && degrees.length() == BUCKETS);
+        assert((threads == null) == (allocationMarks == null));
+        assert(maxOutDegree >= 0 && sinks != null);
+    }
+}
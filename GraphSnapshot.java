@@ -0,0 +1,399 @@
+/**
+ * Abstract state:
+ * GraphSnapshot represents a read-only view of a Graph exactly as it was after
+ * some complete modification. Later modification of the Graph never shows through,
+ * and a snapshot may be read from any thread while the Graph goes on being modified
+ * by another, without either waiting for the other.
+ *
+ * Snapshots share structure: the Graph keeps its nodes in a persistent tree whose
+ * nodes, and the edge arrays they hold, are never modified once built. Modifying
+ * the Graph copies only the path to each node it changes, so taking a snapshot is
+ * just keeping the current root, and a version no snapshot keeps any longer is
+ * reclaimed by the garbage collector. Closing a snapshot drops its root at once
+ */
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+public final class GraphSnapshot <N extends Comparable<N>, E extends Comparable<E>> implements AutoCloseable {
+
+    private Tree<N,E> root;
+    private final int edgeCount;
+    private final long version;
+    private boolean closed;
+
+    // Abstraction Function:
+    // GraphSnapshot, s, represents the directed multigraph holding a node for
+    // every Tree reachable from root, whose data is that Tree's data, and an
+    // edge labeled by labels[i] from it to the node with data children[i] for
+    // every i, as the Graph was when its version was 'version'
+    //
+    // Representation Invariant for every GraphSnapshot s:
+    // if closed, root is null
+    // root is an AVL tree ordered lexicographically by data, holding no data twice
+    // every Tree's children and labels have the same length and are sorted
+    // by child and then label, with no pair repeated
+    // edgeCount is the total length of the children arrays of every Tree
+
+    /**
+     * @spec.requires root satisfies the representation invariant and is never modified
+     * @spec.effects Constructs a new GraphSnapshot over root
+     */
+    GraphSnapshot(Tree<N,E> root, int edgeCount, long version) {
+        this.root = root;
+        this.edgeCount = edgeCount;
+        this.version = version;
+        this.closed = false;
+        this.checkRep();
+    }
+
+    /**
+     * @return the Graph's version when this snapshot was taken, as given by Graph.version
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * @param nodeData is the data of the node being sought
+     * @return true if the Graph held a node with nodeData, false otherwise
+     * @throws IllegalStateException if this snapshot has been closed
+     */
+    public boolean containsNode(N nodeData) {
+        return find(nodeData) != null;
+    }
+
+    /**
+     * @return the number of nodes the Graph held
+     * @throws IllegalStateException if this snapshot has been closed
+     */
+    public int numberOfNodes() {
+        return size(open());
+    }
+
+    /**
+     * @return the number of edges the Graph held
+     * @throws IllegalStateException if this snapshot has been closed
+     */
+    public int numberOfEdges() {
+        open();
+        return edgeCount;
+    }
+
+    /**
+     * @return a List of the data of every node the Graph held, sorted lexicographically
+     * @throws IllegalStateException if this snapshot has been closed
+     */
+    public List<N> allNodes() {
+        List<N> allNodes = new ArrayList<N>(numberOfNodes());
+        ArrayDeque<Tree<N,E>> path = new ArrayDeque<Tree<N,E>>();
+        Tree<N,E> current = root;
+        //inv: allNodes holds, in order, the data of every Tree less than those in
+        //path and current; path holds the ancestors still to be listed
+        while(current != null || !path.isEmpty()) {
+            while(current != null) {
+                path.push(current);
+                current = current.left;
+            }
+            current = path.pop();
+            allNodes.add(current.data);
+            current = current.right;
+        }
+        return allNodes;
+    }
+
+    /**
+     * @spec.requires node with startingData is in this snapshot
+     * @param startingData is the data of the node whose children are sought
+     * @return a List containing the data of the child of every edge leading away
+     * from the node with given data, in the same order as Graph.childNodes
+     * @throws IllegalStateException if this snapshot has been closed
+     */
+    public List<N> childNodes(N startingData) {
+        return Collections.unmodifiableList(Arrays.asList(find(startingData).children));
+    }
+
+    /**
+     * @spec.requires node with nodeData is in this snapshot
+     * @param nodeData is the data of the node whose edges are sought
+     * @return a Map where the keys are the labels of the edges leading away from
+     * the node with the given data and the internal data is a List containing the
+     * data of the nodes those edges lead to, sorted lexicographically
+     * @throws IllegalStateException if this snapshot has been closed
+     */
+    public Map<E, List<N>> edgesOf(N nodeData) {
+        Map<E, List<N>> edgeToNodes = new TreeMap<E, List<N>>();
+        forEachEdge(nodeData, (label, child) ->
+                edgeToNodes.computeIfAbsent(label, key -> new ArrayList<N>()).add(child));
+        return edgeToNodes;
+    }
+
+    /**
+     * @spec.requires node with startingData is in this snapshot
+     * @param startingData is the data of the parent node of the sought edges
+     * @param endingData is the data of the child node of the sought edges
+     * @return a List of the labels of edges leading from the node with startingData
+     * to the node with endingData, sorted lexicographically. The edges are found
+     * by binary search, as the edges of a node are sorted by child
+     * @throws IllegalStateException if this snapshot has been closed
+     */
+    public List<E> edgesBetween(N startingData, N endingData) {
+        Tree<N,E> parent = find(startingData);
+        List<E> between = new ArrayList<E>();
+        for(int i = firstEdgeTo(parent.children, endingData); i < parent.children.length
+                && parent.children[i].compareTo(endingData) == 0; i++) {
+            between.add(parent.labels[i]);
+        }
+        return between;
+    }
+
+    /**
+     * @spec.requires node with startingData is in this snapshot
+     * @param startingData is the data of the node this method starts from
+     * @param label is the edge label this method follows
+     * @return a List of the data of every node reached by an edge labeled by 'label'
+     * leading away from the node with startingData, sorted lexicographically
+     * @throws IllegalStateException if this snapshot has been closed
+     */
+    public List<N> nextNodesForLabel(N startingData, E label) {
+        List<N> reachable = new ArrayList<N>();
+        forEachEdge(startingData, (current, child) -> {
+            if(current.equals(label)) {
+                reachable.add(child);
+            }
+        });
+        return reachable;
+    }
+
+    /**
+     * @spec.requires node with startingData is in this snapshot and action is not null
+     * @param startingData is the data of the node whose edges are visited
+     * @param action is given the label and child data of every edge leading away
+     * from the node with given data, in the same order as childNodes
+     * @throws IllegalStateException if this snapshot has been closed
+     */
+    public void forEachEdge(N startingData, BiConsumer<? super E, ? super N> action) {
+        Tree<N,E> node = find(startingData);
+        for(int i = 0; i < node.children.length; i++) {
+            action.accept(node.labels[i], node.children[i]);
+        }
+    }
+
+    /**
+     * @spec.modifies this snapshot is closed, and no longer keeps its version of
+     * the Graph from being reclaimed. Closing a closed snapshot does nothing
+     */
+    @Override
+    public void close() {
+        closed = true;
+        root = null;
+        this.checkRep();
+    }
+
+    /**
+     * @return root
+     * @throws IllegalStateException if this snapshot has been closed
+     */
+    private Tree<N,E> open() {
+        if(closed) {
+            throw new IllegalStateException("snapshot has been closed");
+        }
+        return root;
+    }
+
+    /**
+     * @return the Tree holding nodeData, or null if there is none
+     * @throws IllegalStateException if this snapshot has been closed
+     */
+    private Tree<N,E> find(N nodeData) {
+        Tree<N,E> current = open();
+        while(current != null) {
+            int order = nodeData.compareTo(current.data);
+            if(order == 0) {
+                return current;
+            }
+            current = order < 0 ? current.left : current.right;
+        }
+        return null;
+    }
+
+    /**
+     * @spec.requires this snapshot is open
+     * @return a new open GraphSnapshot of the same version as this one, for Graph
+     * to hand out
+     */
+    GraphSnapshot<N,E> copy() {
+        return new GraphSnapshot<N,E>(root, edgeCount, version);
+    }
+
+    /**
+     * @return the root of this snapshot's tree, for Graph to build the next version on
+     */
+    Tree<N,E> root() {
+        return root;
+    }
+
+    /**
+     * @return the index of the first element of children not less than child
+     */
+    private static <N extends Comparable<N>> int firstEdgeTo(N[] children, N child) {
+        int low = 0;
+        int high = children.length;
+        //inv: children before low are less than child, those from high on are not
+        while(low < high) {
+            int middle = (low + high) >>> 1;
+            if(children[middle].compareTo(child) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Ensures representation invariant holds
+     */
+    private void checkRep() {
+        assert(!closed || root == null);
+        assert(edgeCount >= 0);
+    }
+
+    /**
+     * @param sorted holds the data of every node in lexicographic order, and
+     * children and labels the sorted edges of each, index for index
+     * @return a balanced Tree holding the nodes from index 'from' up to but not
+     * including 'to', built in time linear in their number
+     */
+    static <N extends Comparable<N>, E extends Comparable<E>> Tree<N,E> balanced(List<N> sorted, List<N[]> children,
+                                                                                 List<E[]> labels, int from, int to) {
+        if(from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        return new Tree<N,E>(sorted.get(middle), children.get(middle), labels.get(middle),
+                balanced(sorted, children, labels, from, middle), balanced(sorted, children, labels, middle + 1, to));
+    }
+
+    /**
+     * @spec.requires children and labels are sorted by child and then label, and
+     * are never modified afterwards
+     * @return a Tree holding what tree holds but with the node with data, if any,
+     * replaced by one with the given edges. tree itself is not modified
+     */
+    static <N extends Comparable<N>, E extends Comparable<E>> Tree<N,E> with(Tree<N,E> tree, N data, N[] children,
+                                                                             E[] labels) {
+        if(tree == null) {
+            return new Tree<N,E>(data, children, labels, null, null);
+        }
+        int order = data.compareTo(tree.data);
+        if(order == 0) {
+            return new Tree<N,E>(data, children, labels, tree.left, tree.right);
+        }
+        if(order < 0) {
+            return rebalance(tree.data, tree.children, tree.labels, with(tree.left, data, children, labels), tree.right);
+        }
+        return rebalance(tree.data, tree.children, tree.labels, tree.left, with(tree.right, data, children, labels));
+    }
+
+    /**
+     * @return a Tree holding what tree holds but the node with data. tree itself
+     * is not modified
+     */
+    static <N extends Comparable<N>, E extends Comparable<E>> Tree<N,E> without(Tree<N,E> tree, N data) {
+        if(tree == null) {
+            return null;
+        }
+        int order = data.compareTo(tree.data);
+        if(order < 0) {
+            return rebalance(tree.data, tree.children, tree.labels, without(tree.left, data), tree.right);
+        }
+        if(order > 0) {
+            return rebalance(tree.data, tree.children, tree.labels, tree.left, without(tree.right, data));
+        }
+        if(tree.left == null) {
+            return tree.right;
+        }
+        if(tree.right == null) {
+            return tree.left;
+        }
+        Tree<N,E> successor = tree.right;
+        while(successor.left != null) {
+            successor = successor.left;
+        }
+        return rebalance(successor.data, successor.children, successor.labels, tree.left,
+                without(tree.right, successor.data));
+    }
+
+    /**
+     * @spec.requires left and right are AVL trees whose heights differ by at most 2
+     * @return an AVL tree holding left, the given node and right in order
+     */
+    private static <N extends Comparable<N>, E extends Comparable<E>> Tree<N,E> rebalance(
+            N data, N[] children, E[] labels, Tree<N,E> left, Tree<N,E> right) {
+        if(height(left) > height(right) + 1) {
+            if(height(left.left) >= height(left.right)) {
+                return new Tree<N,E>(left.data, left.children, left.labels, left.left,
+                        new Tree<N,E>(data, children, labels, left.right, right));
+            }
+            Tree<N,E> pivot = left.right;
+            return new Tree<N,E>(pivot.data, pivot.children, pivot.labels,
+                    new Tree<N,E>(left.data, left.children, left.labels, left.left, pivot.left),
+                    new Tree<N,E>(data, children, labels, pivot.right, right));
+        }
+        if(height(right) > height(left) + 1) {
+            if(height(right.right) >= height(right.left)) {
+                return new Tree<N,E>(right.data, right.children, right.labels,
+                        new Tree<N,E>(data, children, labels, left, right.left), right.right);
+            }
+            Tree<N,E> pivot = right.left;
+            return new Tree<N,E>(pivot.data, pivot.children, pivot.labels,
+                    new Tree<N,E>(data, children, labels, left, pivot.left),
+                    new Tree<N,E>(right.data, right.children, right.labels, pivot.right, right.right));
+        }
+        return new Tree<N,E>(data, children, labels, left, right);
+    }
+
+    /**
+     * @return the height of tree, 0 if it is null
+     */
+    private static int height(Tree<?,?> tree) {
+        return tree == null ? 0 : tree.height;
+    }
+
+    /**
+     * @return the number of nodes in tree, 0 if it is null
+     */
+    private static int size(Tree<?,?> tree) {
+        return tree == null ? 0 : tree.size;
+    }
+
+    /**
+     * Abstract state:
+     * Tree represents an immutable node of a persistent AVL tree of graph nodes,
+     * each holding its data and the edges leading away from it
+     */
+    static final class Tree <N extends Comparable<N>, E extends Comparable<E>> {
+
+        private final N data;
+        private final N[] children;
+        private final E[] labels;
+        private final Tree<N,E> left;
+        private final Tree<N,E> right;
+        private final int height;
+        private final int size;
+
+        /**
+         * @spec.effects Constructs a new Tree over the given node and subtrees
+         */
+        private Tree(N data, N[] children, E[] labels, Tree<N,E> left, Tree<N,E> right) {
+            this.data = data;
+            this.children = children;
+            this.labels = labels;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+}
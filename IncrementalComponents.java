@@ -0,0 +1,265 @@
+/**
+ * Abstract state:
+ * IncrementalComponents represents the weakly connected components of one Graph,
+ * the classes of nodes joined by paths that may follow edges either way, kept up
+ * to date as the Graph changes by listening to it. Adding an edge merges two
+ * components by relabeling the smaller; removing one searches outward from both
+ * of its ends at once, and relabels the side found to be cut off as soon as
+ * either search runs out, so the work done is bounded by the smaller side
+ */
+
+import java.util.*;
+
+public final class IncrementalComponents <N extends Comparable<N>, E extends Comparable<E>>
+        implements GraphListener<N,E> {
+
+    private final Map<N, Map<N, Integer>> neighbours;
+    private final Map<N, Integer> componentOf;
+    private final Map<Integer, Integer> sizes;
+    private int nextId;
+
+    // Representation Invariant for every IncrementalComponents:
+    // no field is null, and neighbours and componentOf have the same keys
+    // neighbours.get(a).get(b) == neighbours.get(b).get(a) is the number of
+    // edges between distinct nodes a and b, in either direction, and is absent
+    // rather than 0 if there are none
+    // Two nodes have the same value in componentOf exactly when a path of such
+    // neighbours joins them; sizes maps every such value to the number of
+    // nodes having it, and holds nothing else; every id is less than nextId
+    //
+    // Abstraction Function:
+    // IncrementalComponents represents the partition of the keys of componentOf
+    // into classes sharing a value, which are the weakly connected components
+    // of the undirected graph given by neighbours
+
+    /**
+     * @spec.requires graph is not null
+     * @param graph is the Graph whose components are kept
+     * @spec.effects Constructs a new IncrementalComponents holding the components of
+     * graph as it is now, and registers it with graph to follow its later changes.
+     * Remove it with Graph.removeListener to stop following them
+     */
+    public IncrementalComponents(Graph<N,E> graph) {
+        neighbours = new HashMap<N, Map<N, Integer>>();
+        componentOf = new HashMap<N, Integer>();
+        sizes = new HashMap<Integer, Integer>();
+        nextId = 0;
+        for(N node : graph.allNodesView()) {
+            apply(GraphEvent.<N,E>nodeAdded(node));
+        }
+        for(N node : graph.allNodesView()) {
+            graph.forEachEdge(node, (label, child) -> apply(GraphEvent.<N,E>edgeAdded(node, child, label)));
+        }
+        graph.addListener(this);
+        this.checkRep();
+    }
+
+    /**
+     * @spec.modifies the components are brought up to date with events
+     */
+    @Override
+    public void graphChanged(List<GraphEvent<N,E>> events) {
+        for(GraphEvent<N,E> event : events) {
+            apply(event);
+        }
+        this.checkRep();
+    }
+
+    /**
+     * @spec.requires a node with nodeData is in the Graph
+     * @return the id of the component holding the node with nodeData. Ids are only
+     * meaningful until the Graph next changes
+     */
+    public int componentOf(N nodeData) {
+        return componentOf.get(nodeData);
+    }
+
+    /**
+     * @spec.requires nodes with first and second are in the Graph
+     * @return true if a path following edges either way joins the two nodes, false otherwise
+     */
+    public boolean sameComponent(N first, N second) {
+        return componentOf.get(first).equals(componentOf.get(second));
+    }
+
+    /**
+     * @spec.requires a node with nodeData is in the Graph
+     * @return the number of nodes in the component holding the node with nodeData
+     */
+    public int componentSize(N nodeData) {
+        return sizes.get(componentOf.get(nodeData));
+    }
+
+    /**
+     * @return the number of weakly connected components of the Graph
+     */
+    public int numberOfComponents() {
+        return sizes.size();
+    }
+
+    /**
+     * @spec.modifies the components are changed as event describes
+     */
+    private void apply(GraphEvent<N,E> event) {
+        N node = event.getNode();
+        switch(event.getKind()) {
+            case NODE_ADDED:
+                neighbours.put(node, new HashMap<N, Integer>());
+                componentOf.put(node, nextId);
+                sizes.put(nextId, 1);
+                nextId++;
+                break;
+            case NODE_REMOVED:
+                //every edge of the node was removed by earlier events
+                neighbours.remove(node);
+                int id = componentOf.remove(node);
+                sizes.remove(id);
+                break;
+            case EDGE_ADDED:
+                if(link(node, event.getChild(), 1)) {
+                    merge(node, event.getChild());
+                }
+                break;
+            default:
+                if(link(node, event.getChild(), -1)) {
+                    split(node, event.getChild());
+                }
+                break;
+        }
+    }
+
+    /**
+     * @spec.modifies the count of edges between parent and child is changed by
+     * 'change', unless they are the same node or either is unknown
+     * @return true if parent and child are distinct known nodes that have just
+     * become neighbours, or just stopped being neighbours, false otherwise
+     */
+    private boolean link(N parent, N child, int change) {
+        if(parent.equals(child) || !neighbours.containsKey(parent) || !neighbours.containsKey(child)) {
+            return false;
+        }
+        Integer count = neighbours.get(parent).merge(child, change, (a, b) -> a + b == 0 ? null : a + b);
+        neighbours.get(child).merge(parent, change, (a, b) -> a + b == 0 ? null : a + b);
+        return change > 0 ? count == 1 : count == null;
+    }
+
+    /**
+     * @spec.requires first and second are neighbours
+     * @spec.modifies if first and second were in different components, the
+     * smaller is relabeled as part of the larger
+     */
+    private void merge(N first, N second) {
+        int firstId = componentOf.get(first);
+        int secondId = componentOf.get(second);
+        if(firstId == secondId) {
+            return;
+        }
+        if(sizes.get(firstId) < sizes.get(secondId)) {
+            N swap = first;
+            first = second;
+            second = swap;
+            int swapId = firstId;
+            firstId = secondId;
+            secondId = swapId;
+        }
+        ArrayDeque<N> frontier = new ArrayDeque<N>();
+        componentOf.put(second, firstId);
+        frontier.add(second);
+        //inv: every node relabeled so far is joined to second and was labeled secondId
+        while(!frontier.isEmpty()) {
+            for(N next : neighbours.get(frontier.poll()).keySet()) {
+                if(componentOf.get(next) == secondId) {
+                    componentOf.put(next, firstId);
+                    frontier.add(next);
+                }
+            }
+        }
+        sizes.merge(firstId, sizes.remove(secondId), Integer::sum);
+    }
+
+    /**
+     * @spec.requires first and second are distinct and have just stopped being neighbours
+     * @spec.modifies if no path joins first and second any longer, the side
+     * with fewer nodes is given a component of its own
+     */
+    private void split(N first, N second) {
+        Search left = new Search(first);
+        Search right = new Search(second);
+        //inv: no node visited by left has been visited by right, and the nodes
+        //visited by each search are joined to where it started
+        while(true) {
+            if(left.frontier.isEmpty()) {
+                separate(left.visited);
+                return;
+            }
+            if(right.frontier.isEmpty()) {
+                separate(right.visited);
+                return;
+            }
+            if(left.step(right.visited) || right.step(left.visited)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @spec.requires cutOff is a whole component of the neighbours graph, within
+     * a single labeled component
+     * @spec.modifies the nodes of cutOff are given a new component of their own
+     */
+    private void separate(Set<N> cutOff) {
+        int oldId = componentOf.get(cutOff.iterator().next());
+        int newId = nextId++;
+        for(N member : cutOff) {
+            componentOf.put(member, newId);
+        }
+        sizes.put(oldId, sizes.get(oldId) - cutOff.size());
+        sizes.put(newId, cutOff.size());
+    }
+
+    /**
+     * Ensures representation invariant holds
+     */
+    private void checkRep() {
+        assert(neighbours != null && componentOf != null && sizes != null);
+        assert(neighbours.size() == componentOf.size());
+    }
+
+    /**
+     * Abstract state:
+     * Search represents a breadth-first search over neighbours, paused between steps
+     */
+    private final class Search {
+
+        private final ArrayDeque<N> frontier;
+        private final Set<N> visited;
+
+        /**
+         * @spec.effects Constructs a new Search that has visited only start
+         */
+        public Search(N start) {
+            frontier = new ArrayDeque<N>();
+            visited = new HashSet<N>();
+            frontier.add(start);
+            visited.add(start);
+        }
+
+        /**
+         * @spec.requires frontier is not empty
+         * @spec.modifies the next node of frontier has its neighbours visited
+         * @return true if a neighbour is in 'other', in which case the step stops
+         * there, false otherwise
+         */
+        public boolean step(Set<N> other) {
+            for(N next : neighbours.get(frontier.poll()).keySet()) {
+                if(other.contains(next)) {
+                    return true;
+                }
+                if(visited.add(next)) {
+                    frontier.add(next);
+                }
+            }
+            return false;
+        }
+    }
+}
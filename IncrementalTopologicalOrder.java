@@ -0,0 +1,359 @@
+/**
+ * Abstract state:
+ * IncrementalTopologicalOrder represents a topological order of the nodes of one
+ * Graph, an order in which every edge leads from an earlier node to a later one, kept
+ * up to date as the Graph changes by listening to it. Removing an edge or a node never
+ * disturbs the order; adding an edge that leads backwards in it reorders only the nodes
+ * between its ends that it affects, found by searching forward from the child and
+ * backward from the parent within that stretch, after Pearce and Kelly. An edge that
+ * already leads forward costs nothing, so addEdgeIfAcyclic can usually accept an edge
+ * without any search, and otherwise searches only that stretch.
+ *
+ * If the Graph has a cycle there is no such order. It is then recomputed from scratch,
+ * once a later change may have broken every cycle, the next time it is asked for
+ */
+
+import java.util.*;
+
+public final class IncrementalTopologicalOrder <N extends Comparable<N>, E extends Comparable<E>>
+        implements GraphListener<N,E> {
+
+    private final Graph<N,E> graph;
+    private final Map<N, Map<N, Integer>> children;
+    private final Map<N, Map<N, Integer>> parents;
+    private final Map<N, Integer> position;
+    private final TreeMap<Integer, N> atPosition;
+    private int nextPosition;
+    private boolean acyclic;
+    private boolean recheck;
+
+    // Representation Invariant for every IncrementalTopologicalOrder:
+    // no field is null; children, parents and position have the same keys, and
+    // atPosition maps exactly position.get(n) to n for every such n
+    // children.get(a).get(b) == parents.get(b).get(a) is the number of edges
+    // from a to b, and is absent rather than 0 if there are none
+    // every position is less than nextPosition
+    // if acyclic, position.get(a) < position.get(b) whenever children.get(a) has b
+    // if !acyclic, the graph given by children has had a cycle since recheck was
+    // last false
+    //
+    // Abstraction Function:
+    // IncrementalTopologicalOrder represents the nodes of the graph given by
+    // children, listed in increasing order of position, which is a topological
+    // order if acyclic
+
+    /**
+     * @spec.requires graph is not null
+     * @param graph is the Graph whose order is kept
+     * @spec.effects Constructs a new IncrementalTopologicalOrder holding a topological
+     * order of graph as it is now, if it has one, and registers it with graph to
+     * follow its later changes. Remove it with Graph.removeListener to stop following them
+     */
+    public IncrementalTopologicalOrder(Graph<N,E> graph) {
+        this.graph = graph;
+        children = new HashMap<N, Map<N, Integer>>();
+        parents = new HashMap<N, Map<N, Integer>>();
+        position = new HashMap<N, Integer>();
+        atPosition = new TreeMap<Integer, N>();
+        nextPosition = 0;
+        for(N node : graph.allNodesView()) {
+            children.put(node, new HashMap<N, Integer>());
+            parents.put(node, new HashMap<N, Integer>());
+        }
+        for(N node : graph.allNodesView()) {
+            graph.forEachEdge(node, (label, child) -> link(node, child, 1));
+        }
+        recompute();
+        graph.addListener(this);
+        this.checkRep();
+    }
+
+    /**
+     * @spec.modifies the order is brought up to date with events
+     */
+    @Override
+    public void graphChanged(List<GraphEvent<N,E>> events) {
+        for(GraphEvent<N,E> event : events) {
+            apply(event);
+        }
+        this.checkRep();
+    }
+
+    /**
+     * @return true if the Graph has no cycle, false otherwise
+     */
+    public boolean isAcyclic() {
+        refresh();
+        return acyclic;
+    }
+
+    /**
+     * @return a List of the data of every node of the Graph in topological order, or
+     * null if the Graph has a cycle, as Graph.topologicalOrder returns
+     */
+    public List<N> order() {
+        refresh();
+        return acyclic ? new ArrayList<N>(atPosition.values()) : null;
+    }
+
+    /**
+     * @spec.requires the Graph has no cycle, and holds nodes with first and second
+     * @return true if first comes before second in the order, false otherwise. If
+     * a path leads from first to second, first comes before second
+     */
+    public boolean comesBefore(N first, N second) {
+        refresh();
+        return position.get(first) < position.get(second);
+    }
+
+    /**
+     * @spec.requires label is not null and the Graph holds nodes with parentData
+     * and childData
+     * @spec.modifies the Edge from parentData to childData labeled by label is added
+     * to the Graph with Graph.addEdge, unless a path already leads from childData
+     * to parentData, so that it would close a cycle. If the order already puts
+     * parentData first this takes no search at all; otherwise only the nodes placed
+     * between the two are searched
+     * @return true if the Edge was added, false if it would have closed a cycle or
+     * the Graph already held it
+     */
+    public boolean addEdgeIfAcyclic(N parentData, N childData, E label) {
+        refresh();
+        if(parentData.equals(childData)) {
+            return false;
+        }
+        if(acyclic) {
+            int upper = position.get(parentData);
+            if(position.get(childData) < upper && search(childData, children, upper, true, parentData) == null) {
+                return false;
+            }
+        } else if(leadsTo(childData, parentData)) {
+            return false;
+        }
+        return graph.addEdge(parentData, childData, label);
+    }
+
+    /**
+     * @spec.modifies the order is changed as event describes
+     */
+    private void apply(GraphEvent<N,E> event) {
+        N node = event.getNode();
+        switch(event.getKind()) {
+            case NODE_ADDED:
+                children.put(node, new HashMap<N, Integer>());
+                parents.put(node, new HashMap<N, Integer>());
+                place(node, nextPosition++);
+                break;
+            case NODE_REMOVED:
+                //every edge of the node was removed by earlier events
+                children.remove(node);
+                parents.remove(node);
+                atPosition.remove(position.remove(node));
+                recheck |= !acyclic;
+                break;
+            case EDGE_ADDED:
+                if(link(node, event.getChild(), 1) && acyclic) {
+                    acyclic = reorder(node, event.getChild());
+                }
+                break;
+            default:
+                if(link(node, event.getChild(), -1)) {
+                    recheck |= !acyclic;
+                }
+                break;
+        }
+    }
+
+    /**
+     * @spec.modifies the count of edges from parent to child is changed by 'change',
+     * unless either is unknown
+     * @return true if parent and child are known nodes between which an edge has just
+     * appeared where there was none, or the last has just gone, false otherwise
+     */
+    private boolean link(N parent, N child, int change) {
+        if(!children.containsKey(parent) || !children.containsKey(child)) {
+            return false;
+        }
+        Integer count = children.get(parent).merge(child, change, (a, b) -> a + b == 0 ? null : a + b);
+        parents.get(child).merge(parent, change, (a, b) -> a + b == 0 ? null : a + b);
+        return change > 0 ? count == 1 : count == null;
+    }
+
+    /**
+     * @spec.requires the order was topological before an edge from parent to child
+     * appeared
+     * @spec.modifies if the edge leads backwards, the nodes between its ends that
+     * must move are given each other's positions so that the order is topological again
+     * @return false if the edge closed a cycle, in which case nothing is moved, true otherwise
+     */
+    private boolean reorder(N parent, N child) {
+        int upper = position.get(parent);
+        int lower = position.get(child);
+        if(parent.equals(child)) {
+            return false;
+        }
+        if(lower > upper) {
+            return true;
+        }
+        List<N> forward = search(child, children, upper, true, parent);
+        if(forward == null) {
+            return false;
+        }
+        List<N> backward = search(parent, parents, lower, false, null);
+        Comparator<N> byPosition = Comparator.comparingInt(position::get);
+        forward.sort(byPosition);
+        backward.sort(byPosition);
+        int[] freed = new int[forward.size() + backward.size()];
+        int k = 0;
+        for(N moved : backward) {
+            freed[k++] = position.get(moved);
+        }
+        for(N moved : forward) {
+            freed[k++] = position.get(moved);
+        }
+        Arrays.sort(freed);
+        k = 0;
+        //everything reaching parent goes, in its old order, before everything child reaches
+        for(N moved : backward) {
+            place(moved, freed[k++]);
+        }
+        for(N moved : forward) {
+            place(moved, freed[k++]);
+        }
+        return true;
+    }
+
+    /**
+     * @spec.requires the order is topological
+     * @param start is where the search starts
+     * @param adjacency is children to search forward, or parents to search backward
+     * @param bound is the position the search may not reach or pass: from below if
+     * forward, from above if not
+     * @param target is a node whose discovery ends the search, or null
+     * @return every node reached from start along adjacency without reaching bound,
+     * including start, in no particular order, or null if target was reached
+     */
+    private List<N> search(N start, Map<N, Map<N, Integer>> adjacency, int bound, boolean forward, N target) {
+        List<N> visited = new ArrayList<N>();
+        Set<N> seen = new HashSet<N>();
+        ArrayDeque<N> pending = new ArrayDeque<N>();
+        seen.add(start);
+        pending.push(start);
+        //inv: every node in seen is in visited or pending, and within bound
+        while(!pending.isEmpty()) {
+            N current = pending.pop();
+            visited.add(current);
+            for(N next : adjacency.get(current).keySet()) {
+                if(next.equals(target)) {
+                    return null;
+                }
+                int at = position.get(next);
+                if((forward ? at < bound : at > bound) && seen.add(next)) {
+                    pending.push(next);
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * @return true if a path leads from start to goal, false otherwise
+     */
+    private boolean leadsTo(N start, N goal) {
+        Set<N> seen = new HashSet<N>();
+        ArrayDeque<N> pending = new ArrayDeque<N>();
+        seen.add(start);
+        pending.push(start);
+        while(!pending.isEmpty()) {
+            N current = pending.pop();
+            if(current.equals(goal)) {
+                return true;
+            }
+            for(N next : children.get(current).keySet()) {
+                if(seen.add(next)) {
+                    pending.push(next);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @spec.modifies if the order was lost to a cycle and the Graph has changed in a
+     * way that may have broken it since, the order is recomputed
+     */
+    private void refresh() {
+        if(recheck) {
+            recompute();
+        }
+    }
+
+    /**
+     * @spec.modifies every node is given a new position by Kahn's algorithm, and
+     * acyclic is set to whether that found a topological order
+     */
+    private void recompute() {
+        Map<N, Integer> remaining = new HashMap<N, Integer>();
+        ArrayDeque<N> ready = new ArrayDeque<N>();
+        //nodes are taken in their current order, so that reordering is least disturbed
+        List<N> previous = new ArrayList<N>(atPosition.values());
+        for(N node : children.keySet()) {
+            if(!position.containsKey(node)) {
+                previous.add(node);
+            }
+        }
+        for(N node : previous) {
+            int inDegree = parents.get(node).size();
+            if(inDegree == 0) {
+                ready.add(node);
+            } else {
+                remaining.put(node, inDegree);
+            }
+        }
+        List<N> order = new ArrayList<N>(previous.size());
+        while(!ready.isEmpty()) {
+            N current = ready.poll();
+            order.add(current);
+            for(N child : children.get(current).keySet()) {
+                if(remaining.merge(child, -1, Integer::sum) == 0) {
+                    remaining.remove(child);
+                    ready.add(child);
+                }
+            }
+        }
+        recheck = false;
+        acyclic = remaining.isEmpty();
+        if(acyclic) {
+            position.clear();
+            atPosition.clear();
+            for(int i = 0; i < order.size(); i++) {
+                place(order.get(i), i);
+            }
+            nextPosition = order.size();
+        } else if(position.size() < children.size()) {
+            //nodes still need positions, if not a topological order
+            for(N node : previous) {
+                if(!position.containsKey(node)) {
+                    place(node, nextPosition++);
+                }
+            }
+        }
+    }
+
+    /**
+     * @spec.modifies node is put at 'at', which no other node holds afterwards
+     */
+    private void place(N node, int at) {
+        position.put(node, at);
+        atPosition.put(at, node);
+    }
+
+    /**
+     * Ensures representation invariant holds
+     */
+    private void checkRep() {
+        assert(graph != null && children != null && parents != null);
+        assert(children.size() == parents.size() && children.size() == position.size());
+        assert(position.size() == atPosition.size());
+    }
+}
@@ -0,0 +1,542 @@
+/**
+ * Abstract state:
+ * IntGraph represents a directed multi-graph whose nodes are marked by distinct int
+ * values and whose edges are labeled by int values. It offers the operations of
+ * Graph without boxing: every node's edges are packed into one growable long[],
+ * and nodes are found through an open-addressing hash table of ints
+ */
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+public class IntGraph {
+
+    private static final int FREE = -1;
+
+    private int[] nodeIds;
+    private long[][] edges;
+    private int[] degree;
+    private int[] freeSlots;
+    private int freeCount;
+    private int slotCount;
+    private int[] table;
+    private int nodeCount;
+    private long edgeCount;
+
+    // Abstraction Function:
+    // IntGraph, g, represents the directed multigraph holding a node marked
+    // by nodeIds[s] for every slot s < slotCount with degree[s] != FREE. The
+    // edges leading away from that node are given by edges[s][0] up to but
+    // not including edges[s][degree[s]]; each packs the child's value in its
+    // upper 32 bits and its label, with the sign bit flipped, in its lower 32
+    // bits, so that packed edges sort by child and then label.
+    //
+    // Representation Invariant for every IntGraph g:
+    // no array field is null; table.length is a power of two at least twice nodeCount
+    // nodeCount is the number of live slots, those below slotCount whose degree is
+    // not FREE, and no two live slots hold the same value in nodeIds
+    // freeSlots[0] up to but not including freeSlots[freeCount] are exactly the
+    // slots below slotCount whose degree is FREE
+    // Every entry of table is 0 or one more than a live slot, every live slot
+    // appears exactly once, and is reachable by linear probing from the home
+    // position of its value with no empty entry in between
+    // For every live slot s, edges[s][0..degree[s]) is strictly increasing, and
+    // the child of every packed edge is the value of a live slot
+    // edgeCount is the sum of degree over live slots
+
+    /**
+     * @spec.effects creates new IntGraph containing no nodes or edges
+     */
+    public IntGraph() {
+        nodeIds = new int[16];
+        edges = new long[16][];
+        degree = new int[16];
+        freeSlots = new int[16];
+        freeCount = 0;
+        slotCount = 0;
+        table = new int[32];
+        nodeCount = 0;
+        edgeCount = 0;
+        this.checkRep();
+    }
+
+    /**
+     * @param node is the value of the node sought
+     * @return true if a node with the given value is in this IntGraph, false otherwise
+     */
+    public boolean containsNode(int node) {
+        return slotOf(node) >= 0;
+    }
+
+    /**
+     * @spec.modifies if no node has the given value, a node with it is added
+     * @param node is the value of the node being added
+     * @return true if no node had the given value, so one was added, false otherwise
+     */
+    public boolean addNode(int node) {
+        if(slotOf(node) >= 0) {
+            return false;
+        }
+        if((nodeCount + 1) * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        int slot;
+        if(freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if(slotCount == nodeIds.length) {
+                int grown = nodeIds.length * 2;
+                nodeIds = Arrays.copyOf(nodeIds, grown);
+                edges = Arrays.copyOf(edges, grown);
+                degree = Arrays.copyOf(degree, grown);
+            }
+            slot = slotCount++;
+        }
+        nodeIds[slot] = node;
+        degree[slot] = 0;
+        edges[slot] = null;
+        insertIntoTable(slot);
+        nodeCount++;
+        this.checkRep();
+        return true;
+    }
+
+    /**
+     * @spec.modifies if a node has the given value, it and every edge leading
+     * into or away from it are removed, otherwise nothing is modified
+     * @param node is the value of the node being removed
+     * @return true if a node had the given value and was removed, false otherwise
+     */
+    public boolean removeNode(int node) {
+        int slot = slotOf(node);
+        if(slot < 0) {
+            return false;
+        }
+        edgeCount -= degree[slot];
+        //inv: no live slot before s has an edge leading to node
+        for(int s = 0; s < slotCount; s++) {
+            if(s != slot && degree[s] > 0) {
+                edgeCount -= removeRange(s, node);
+            }
+        }
+        removeFromTable(slot);
+        degree[slot] = FREE;
+        edges[slot] = null;
+        if(freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        nodeCount--;
+        this.checkRep();
+        return true;
+    }
+
+    /**
+     * @param parent is the value of the node the new edge leads from
+     * @param child is the value of the node the new edge leads to
+     * @param label is the label of the new edge
+     * @spec.modifies if both nodes are present and no edge from parent to child
+     * has the given label, such an edge is added, otherwise nothing is modified
+     * @return true if the edge was added, false otherwise
+     */
+    public boolean addEdge(int parent, int child, int label) {
+        int slot = slotOf(parent);
+        if(slot < 0 || slotOf(child) < 0) {
+            return false;
+        }
+        long packed = pack(child, label);
+        long[] held = edges[slot];
+        int count = degree[slot];
+        int index = held == null ? -1 : Arrays.binarySearch(held, 0, count, packed);
+        if(index >= 0) {
+            return false;
+        }
+        int insertion = -1 * index - 1;
+        if(held == null || count == held.length) {
+            long[] grown = new long[Math.max(4, count * 2)];
+            if(held != null) {
+                System.arraycopy(held, 0, grown, 0, insertion);
+                System.arraycopy(held, insertion, grown, insertion + 1, count - insertion);
+            }
+            held = grown;
+            edges[slot] = held;
+        } else {
+            System.arraycopy(held, insertion, held, insertion + 1, count - insertion);
+        }
+        held[insertion] = packed;
+        degree[slot] = count + 1;
+        edgeCount++;
+        this.checkRep();
+        return true;
+    }
+
+    /**
+     * @param parent is the value of the node the edge leads from
+     * @param child is the value of the node the edge leads to
+     * @param label is the label of the edge
+     * @spec.modifies if such an edge is present it is removed, otherwise nothing is modified
+     * @return true if the edge was removed, false otherwise
+     */
+    public boolean removeEdge(int parent, int child, int label) {
+        int slot = slotOf(parent);
+        if(slot < 0 || edges[slot] == null) {
+            return false;
+        }
+        int index = Arrays.binarySearch(edges[slot], 0, degree[slot], pack(child, label));
+        if(index < 0) {
+            return false;
+        }
+        System.arraycopy(edges[slot], index + 1, edges[slot], index, degree[slot] - index - 1);
+        degree[slot]--;
+        edgeCount--;
+        this.checkRep();
+        return true;
+    }
+
+    /**
+     * @return the number of nodes in this IntGraph
+     */
+    public int numberOfNodes() {
+        return nodeCount;
+    }
+
+    /**
+     * @return the number of edges in this IntGraph
+     */
+    public long numberOfEdges() {
+        return edgeCount;
+    }
+
+    /**
+     * @return the values of every node, in increasing order
+     */
+    public int[] allNodes() {
+        int[] all = new int[nodeCount];
+        int i = 0;
+        for(int s = 0; s < slotCount; s++) {
+            if(degree[s] != FREE) {
+                all[i++] = nodeIds[s];
+            }
+        }
+        Arrays.sort(all);
+        return all;
+    }
+
+    /**
+     * @spec.requires a node with value parent exists
+     * @param parent is the value of the node whose children are sought
+     * @return the value of the child of every edge leading away from parent,
+     * ordered by child and then by label, as Graph.childNodes orders them
+     */
+    public int[] childNodes(int parent) {
+        int slot = slotOf(parent);
+        int[] children = new int[degree[slot]];
+        for(int i = 0; i < children.length; i++) {
+            children[i] = childOf(edges[slot][i]);
+        }
+        return children;
+    }
+
+    /**
+     * @spec.requires a node with value parent exists, and this IntGraph is not
+     * modified while the returned stream is in use
+     * @param parent is the value of the node whose children are sought
+     * @return a stream, read straight from the node's edges, of the values
+     * childNodes(parent) would return
+     */
+    public IntStream childStream(int parent) {
+        int slot = slotOf(parent);
+        long[] held = edges[slot];
+        return IntStream.range(0, degree[slot]).map(i -> childOf(held[i]));
+    }
+
+    /**
+     * @spec.requires a node with value parent exists, and action does not modify this IntGraph
+     * @param parent is the value of the node whose edges are visited
+     * @param action is given the label and child of every edge leading away from
+     * parent, in the order of childNodes
+     */
+    public void forEachEdge(int parent, EdgeConsumer action) {
+        int slot = slotOf(parent);
+        long[] held = edges[slot];
+        for(int i = 0; i < degree[slot]; i++) {
+            action.accept(labelOf(held[i]), childOf(held[i]));
+        }
+    }
+
+    /**
+     * @spec.requires a node with value parent exists
+     * @param parent is the value of the node whose edges are sought
+     * @return a Map from every label on edges leading away from parent to the
+     * values of the children of the edges with that label, in increasing order
+     */
+    public Map<Integer, int[]> edgesOf(int parent) {
+        int slot = slotOf(parent);
+        long[] held = edges[slot];
+        int[] labels = new int[degree[slot]];
+        for(int i = 0; i < labels.length; i++) {
+            labels[i] = labelOf(held[i]);
+        }
+        Arrays.sort(labels);
+        //distinct labels are compacted to the front of labels, each with its count
+        int[] counts = new int[labels.length];
+        int distinct = 0;
+        for(int i = 0; i < labels.length; i++) {
+            if(distinct == 0 || labels[distinct - 1] != labels[i]) {
+                labels[distinct++] = labels[i];
+            }
+            counts[distinct - 1]++;
+        }
+        int[][] children = new int[distinct][];
+        for(int j = 0; j < distinct; j++) {
+            children[j] = new int[counts[j]];
+            counts[j] = 0;
+        }
+        //held is sorted by child, so each label's children are filled in increasing order
+        for(int i = 0; i < degree[slot]; i++) {
+            int j = Arrays.binarySearch(labels, 0, distinct, labelOf(held[i]));
+            children[j][counts[j]++] = childOf(held[i]);
+        }
+        Map<Integer, int[]> edgeToNodes = new TreeMap<Integer, int[]>();
+        for(int j = 0; j < distinct; j++) {
+            edgeToNodes.put(labels[j], children[j]);
+        }
+        return edgeToNodes;
+    }
+
+    /**
+     * @spec.requires a node with value parent exists
+     * @param parent is the value of the parent node of the sought edges
+     * @param child is the value of the child node of the sought edges
+     * @return the labels of every edge leading from parent to child, in increasing
+     * order, found by binary search
+     */
+    public int[] edgesBetween(int parent, int child) {
+        int slot = slotOf(parent);
+        long[] held = edges[slot];
+        int start = firstEdgeTo(slot, child);
+        int end = start;
+        while(end < degree[slot] && childOf(held[end]) == child) {
+            end++;
+        }
+        int[] labels = new int[end - start];
+        for(int i = start; i < end; i++) {
+            labels[i - start] = labelOf(held[i]);
+        }
+        return labels;
+    }
+
+    /**
+     * @spec.requires a node with value parent exists
+     * @param parent is the value of the node this method starts from
+     * @param label is the edge label this method follows
+     * @return the values of every node reached by an edge labeled 'label'
+     * leading away from parent, in increasing order
+     */
+    public int[] nextNodesForLabel(int parent, int label) {
+        int slot = slotOf(parent);
+        long[] held = edges[slot];
+        int[] reached = new int[degree[slot]];
+        int count = 0;
+        for(int i = 0; i < degree[slot]; i++) {
+            if(labelOf(held[i]) == label) {
+                reached[count++] = childOf(held[i]);
+            }
+        }
+        return Arrays.copyOf(reached, count);
+    }
+
+    /**
+     * @spec.requires a node with value parent exists
+     * @param parent is the value of the node whose labels are sought
+     * @return every distinct label on edges leading away from parent, in increasing order
+     */
+    public int[] labelsOf(int parent) {
+        int slot = slotOf(parent);
+        int[] labels = new int[degree[slot]];
+        for(int i = 0; i < labels.length; i++) {
+            labels[i] = labelOf(edges[slot][i]);
+        }
+        return IntStream.of(labels).sorted().distinct().toArray();
+    }
+
+    /**
+     * @return graph as String in the same format as Graph.toString
+     */
+    @Override
+    public String toString() {
+        StringBuilder allGraph = new StringBuilder();
+        for(int node : allNodes()) {
+            if(allGraph.length() > 0) {
+                allGraph.append('\n');
+            }
+            allGraph.append(node).append("'s connections:  {");
+            boolean firstLabel = true;
+            for(Map.Entry<Integer, int[]> entry : edgesOf(node).entrySet()) {
+                if(!firstLabel) {
+                    allGraph.append(", ");
+                }
+                firstLabel = false;
+                allGraph.append(entry.getKey()).append('=').append(Arrays.toString(entry.getValue()));
+            }
+            allGraph.append('}');
+        }
+        return allGraph.toString();
+    }
+
+    /**
+     * @param child is the value of an edge's child
+     * @param label is the edge's label
+     * @return the edge packed so that packed edges order by child, then label
+     */
+    private static long pack(int child, int label) {
+        return ((long) child << 32) | ((label ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @return the child of a packed edge
+     */
+    private static int childOf(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    /**
+     * @return the label of a packed edge
+     */
+    private static int labelOf(long packed) {
+        return ((int) packed) ^ Integer.MIN_VALUE;
+    }
+
+    /**
+     * @spec.requires slot is live
+     * @return the index of the first edge of slot whose child is not less than child
+     */
+    private int firstEdgeTo(int slot, int child) {
+        long[] held = edges[slot];
+        int start = 0;
+        int end = degree[slot];
+        long least = pack(child, Integer.MIN_VALUE);
+        while(start < end) {
+            int middle = (start + end) >>> 1;
+            if(held[middle] < least) {
+                start = middle + 1;
+            } else {
+                end = middle;
+            }
+        }
+        return start;
+    }
+
+    /**
+     * @spec.requires slot is live
+     * @spec.modifies every edge of slot leading to child is removed
+     * @return the number of edges removed
+     */
+    private int removeRange(int slot, int child) {
+        int start = firstEdgeTo(slot, child);
+        int end = start;
+        long[] held = edges[slot];
+        while(end < degree[slot] && childOf(held[end]) == child) {
+            end++;
+        }
+        if(end > start) {
+            System.arraycopy(held, end, held, start, degree[slot] - end);
+            degree[slot] -= end - start;
+        }
+        return end - start;
+    }
+
+    /**
+     * @return the home position in table of the given value
+     */
+    private int home(int node) {
+        int hash = node * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (table.length - 1);
+    }
+
+    /**
+     * @param node is a value
+     * @return the live slot holding node, or -1 if there is none
+     */
+    private int slotOf(int node) {
+        int mask = table.length - 1;
+        for(int i = home(node); table[i] != 0; i = (i + 1) & mask) {
+            if(nodeIds[table[i] - 1] == node) {
+                return table[i] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @spec.requires slot is not in table and table has an empty entry
+     * @spec.modifies slot is added to table
+     */
+    private void insertIntoTable(int slot) {
+        int mask = table.length - 1;
+        int i = home(nodeIds[slot]);
+        while(table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        table[i] = slot + 1;
+    }
+
+    /**
+     * @spec.requires slot is in table
+     * @spec.modifies slot is removed from table, and later entries of its probe run
+     * are shifted back so that no lookup is cut short
+     */
+    private void removeFromTable(int slot) {
+        int mask = table.length - 1;
+        int hole = home(nodeIds[slot]);
+        while(table[hole] != slot + 1) {
+            hole = (hole + 1) & mask;
+        }
+        table[hole] = 0;
+        for(int i = (hole + 1) & mask; table[i] != 0; i = (i + 1) & mask) {
+            int wanted = home(nodeIds[table[i] - 1]);
+            //the entry at i may fill the hole unless its home lies cyclically in (hole, i]
+            boolean homeBetween = hole <= i ? (hole < wanted && wanted <= i) : (hole < wanted || wanted <= i);
+            if(!homeBetween) {
+                table[hole] = table[i];
+                table[i] = 0;
+                hole = i;
+            }
+        }
+    }
+
+    /**
+     * @spec.requires capacity is a power of two at least twice nodeCount
+     * @spec.modifies table is rebuilt with the given capacity
+     */
+    private void rehash(int capacity) {
+        table = new int[capacity];
+        for(int s = 0; s < slotCount; s++) {
+            if(degree[s] != FREE) {
+                insertIntoTable(s);
+            }
+        }
+    }
+
+    /**
+     * Ensures representation invariant holds
+     */
+    private void checkRep() {
+        assert(nodeIds != null && edges != null && degree != null && freeSlots != null && table != null);
+        assert(Integer.bitCount(table.length) == 1 && table.length >= 2 * nodeCount);
+        assert(nodeCount + freeCount == slotCount && edgeCount >= 0);
+    }
+
+    /**
+     * Abstract state:
+     * EdgeConsumer represents an action taken on the label and child of an edge
+     */
+    public interface EdgeConsumer {
+
+        /**
+         * @param label is the edge's label
+         * @param child is the value of the edge's child
+         */
+        void accept(int label, int child);
+    }
+}
@@ -0,0 +1,188 @@
+/**
+ * Abstract state:
+ * JmxMetricsSink represents a MetricsSink that shows the latest MetricsSnapshot it
+ * was given as the attributes of an MXBean registered with the platform MBeanServer,
+ * so that jconsole, VisualVM or any JMX poller can read them. Its attributes are as
+ * fresh as the last GraphMetrics.publish; schedule that as often as they should change
+ */
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+public final class JmxMetricsSink implements MetricsSink, AutoCloseable {
+
+    /**
+     * Abstract state:
+     * GraphMetricsMXBean represents the attributes JmxMetricsSink shows over JMX.
+     * Maps are keyed by the names of GraphMetrics.Operation, and hold only the
+     * operations measured at least once
+     */
+    public interface GraphMetricsMXBean {
+
+        /** @return the number of runs of every operation */
+        Map<String, Long> getCounts();
+
+        /** @return the mean time, in nanoseconds, of a run of every operation */
+        Map<String, Double> getMeanNanos();
+
+        /** @return the 99th percentile time, in nanoseconds, of every operation */
+        Map<String, Double> getP99Nanos();
+
+        /** @return the mean number of Nodes or Edges a run of every operation examined */
+        Map<String, Double> getMeanScanned();
+
+        /** @return the mean number of bytes a run of every operation allocated */
+        Map<String, Double> getMeanAllocatedBytes();
+
+        /** @return the number of times a Node was looked up by its data */
+        long getNodeLookups();
+
+        /** @return the out-degree histogram, in power-of-two buckets */
+        long[] getDegreeHistogram();
+
+        /** @return the largest out-degree seen */
+        int getMaxOutDegree();
+
+        /** @return the data of a Node with the largest out-degree seen, or "" if none */
+        String getMaxOutDegreeNode();
+    }
+
+    private final ObjectName name;
+    private volatile MetricsSnapshot latest;
+
+    // Representation Invariant for every JmxMetricsSink:
+    // name != null, and latest is null until the first report
+
+    /**
+     * @spec.requires objectName is not null
+     * @param objectName is the JMX name to register under, such as
+     * "graph:type=GraphMetrics,name=orders"
+     * @spec.effects Constructs a new JmxMetricsSink, showing no measurements yet,
+     * and registers it with the platform MBeanServer under objectName
+     * @throws IllegalArgumentException if objectName is malformed or already registered
+     */
+    public JmxMetricsSink(String objectName) {
+        try {
+            name = new ObjectName(objectName);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new View(), name);
+        } catch(JMException failed) {
+            throw new IllegalArgumentException("cannot register " + objectName, failed);
+        }
+        latest = null;
+        this.checkRep();
+    }
+
+    /**
+     * @spec.modifies the MXBean shows snapshot from now on
+     */
+    @Override
+    public void report(MetricsSnapshot snapshot) {
+        latest = snapshot;
+    }
+
+    /**
+     * @spec.modifies the MXBean is unregistered, if it still is
+     */
+    @Override
+    public void close() {
+        try {
+            if(ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            }
+        } catch(JMException failed) {
+            throw new IllegalStateException("cannot unregister " + name, failed);
+        }
+    }
+
+    /**
+     * @return for every operation measured in current, its name mapped to what
+     * statistic gives for it, or nothing if current is null
+     */
+    private static <T> Map<String, T> perOperation(MetricsSnapshot current,
+                                                   Function<GraphMetrics.Operation, T> statistic) {
+        Map<String, T> values = new TreeMap<String, T>();
+        if(current == null) {
+            return values;
+        }
+        for(GraphMetrics.Operation op : GraphMetrics.Operation.values()) {
+            if(current.count(op) > 0) {
+                values.put(op.name(), statistic.apply(op));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @return for every operation measured in current, its name mapped to the mean
+     * per run of what total gives for it, or nothing if current is null
+     */
+    private static Map<String, Double> meanPerRun(MetricsSnapshot current,
+                                                  ToDoubleFunction<GraphMetrics.Operation> total) {
+        return perOperation(current, op -> total.applyAsDouble(op) / current.count(op));
+    }
+
+    /**
+     * Ensures representation invariant holds
+     */
+    private void checkRep() {
+        assert(name != null);
+    }
+
+    /**
+     * Abstract state:
+     * View represents the MXBean registered for a JmxMetricsSink
+     */
+    private final class View implements GraphMetricsMXBean {
+
+        public Map<String, Long> getCounts() {
+            MetricsSnapshot current = latest;
+            return perOperation(current, op -> current.count(op));
+        }
+
+        public Map<String, Double> getMeanNanos() {
+            MetricsSnapshot current = latest;
+            return perOperation(current, op -> current.meanNanos(op));
+        }
+
+        public Map<String, Double> getP99Nanos() {
+            MetricsSnapshot current = latest;
+            return perOperation(current, op -> (double) current.percentileNanos(op, 0.99));
+        }
+
+        public Map<String, Double> getMeanScanned() {
+            MetricsSnapshot current = latest;
+            return meanPerRun(current, op -> current.scanned(op));
+        }
+
+        public Map<String, Double> getMeanAllocatedBytes() {
+            MetricsSnapshot current = latest;
+            return meanPerRun(current, op -> current.allocatedBytes(op));
+        }
+
+        public long getNodeLookups() {
+            MetricsSnapshot current = latest;
+            return current == null ? 0 : current.nodeLookups();
+        }
+
+        public long[] getDegreeHistogram() {
+            MetricsSnapshot current = latest;
+            return current == null ? new long[GraphMetrics.BUCKETS] : current.degreeHistogram();
+        }
+
+        public int getMaxOutDegree() {
+            MetricsSnapshot current = latest;
+            return current == null ? 0 : current.maxOutDegree();
+        }
+
+        public String getMaxOutDegreeNode() {
+            MetricsSnapshot current = latest;
+            return current == null || current.maxOutDegreeNode() == null ? ""
+                    : current.maxOutDegreeNode().toString();
+        }
+    }
+}
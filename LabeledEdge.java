@@ -0,0 +1,110 @@
+/**
+ * Abstract state:
+ * LabeledEdge represents an immutable description of one directed, labeled edge
+ * by the data of its parent node, the data of its child node and its label. It
+ * does not belong to any graph
+ */
+
+import java.util.Objects;
+
+public final class LabeledEdge <N extends Comparable<N>, E extends Comparable<E>>
+        implements Comparable<LabeledEdge<N,E>> {
+
+    private final N parent;
+    private final N child;
+    private final E label;
+
+    // Representation Invariant for every LabeledEdge:
+    // parent != null && child != null && label != null
+    //
+    // Abstraction Function:
+    // LabeledEdge represents the edge leading from the node with data
+    // 'parent' to the node with data 'child', labeled by 'label'
+
+    /**
+     * @spec.requires parent, child and label are not null
+     * @spec.effects Constructs a new LabeledEdge
+     * @param parent is the data of the node the edge leads from
+     * @param child is the data of the node the edge leads to
+     * @param label is the label of the edge
+     */
+    public LabeledEdge(N parent, N child, E label) {
+        this.parent = parent;
+        this.child = child;
+        this.label = label;
+        this.checkRep();
+    }
+
+    /**
+     * @return the data of the node this edge leads from
+     */
+    public N getParent() {
+        return parent;
+    }
+
+    /**
+     * @return the data of the node this edge leads to
+     */
+    public N getChild() {
+        return child;
+    }
+
+    /**
+     * @return the label on this edge
+     */
+    public E getLabel() {
+        return label;
+    }
+
+    /**
+     * @param other is the LabeledEdge compared against this one
+     * @return a negative value, zero or a positive value as this edge comes before,
+     * equals or comes after other, ordering by parent, then child, then label
+     */
+    public int compareTo(LabeledEdge<N,E> other) {
+        int comparison = parent.compareTo(other.parent);
+        if(comparison == 0) {
+            comparison = child.compareTo(other.child);
+        }
+        if(comparison == 0) {
+            comparison = label.compareTo(other.label);
+        }
+        return comparison;
+    }
+
+    /**
+     * @param other is the object compared against this one
+     * @return true if other is a LabeledEdge with equal parent, child and label
+     */
+    @Override
+    public boolean equals(Object other) {
+        if(!(other instanceof LabeledEdge<?,?>)) {
+            return false;
+        }
+        LabeledEdge<?,?> edge = (LabeledEdge<?,?>) other;
+        return parent.equals(edge.parent) && child.equals(edge.child) && label.equals(edge.label);
+    }
+
+    /**
+     * @return a hash code consistent with equals
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(parent, child, label);
+    }
+
+    /**
+     * @return this edge as "parent -label-> child"
+     */
+    @Override
+    public String toString() {
+        return parent + " -" + label + "-> " + child;
+    }
+
+    /**
+     * Ensures representation invariant holds
+     */
+    private void checkRep() {
+        assert(parent != null && child != null && label != null);
+    }
+}
@@ -0,0 +1,361 @@
+/**
+ * Abstract state:
+ * MappedGraph represents an immutable directed multi-graph stored in a file in the
+ * binary graph format of GraphFiles. Nodes and edges are read from the memory-mapped
+ * file only as queries need them, so opening even a very large graph is nearly instant
+ * and its edges never occupy the heap
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+public final class MappedGraph <N extends Comparable<N>, E extends Comparable<E>> {
+
+    private final GraphCodec<N> nodeCodec;
+    private final int nodeCount;
+    private final int edgeCount;
+    private final E[] labels;
+    private final Map<E, Integer> labelIds;
+    private final Region nodeBlobs;
+    private final Region nodeIndex;
+    private final Region offsets;
+    private final Region targets;
+    private final Region edgeLabels;
+
+    // Abstraction Function:
+    // MappedGraph, m, represents the directed multigraph whose node with id i
+    // holds the data decoded from nodeBlobs between the longs at i and i + 1
+    // of nodeIndex. The edges leading away from node i are those numbered from
+    // the int at i of offsets up to but not including the int at i + 1, and
+    // edge k leads to the node whose id is the int at k of targets and is
+    // labeled by labels[the int at k of edgeLabels].
+    //
+    // Representation Invariant for every MappedGraph m:
+    // no field is null, and the Regions hold a file satisfying the format
+    // described in GraphFiles with nodeCount nodes, labels.length labels and
+    // edgeCount edges
+    // labelIds maps exactly labels[j] to j for every j
+
+    /**
+     * @spec.requires no argument is null
+     * @spec.effects Constructs a new MappedGraph by mapping the file at path and
+     * decoding its labels, which are few, onto the heap
+     * @param path is a file written by GraphFiles.write
+     * @param nodeCodec converts bytes back to node data
+     * @param labelCodec converts bytes back to labels
+     * @throws IOException if the file cannot be read or is not in a supported
+     * version of the binary graph format
+     */
+    MappedGraph(Path path, GraphCodec<N> nodeCodec, GraphCodec<E> labelCodec) throws IOException {
+        this.nodeCodec = nodeCodec;
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if(channel.size() < GraphFiles.HEADER_BYTES) {
+                throw new IOException(path + " is too short to be a graph file");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, GraphFiles.HEADER_BYTES);
+            if(header.getInt() != GraphFiles.MAGIC) {
+                throw new IOException(path + " is not a graph file");
+            }
+            int version = header.getInt();
+            if(version != GraphFiles.VERSION) {
+                throw new IOException(path + " has unsupported graph file version " + version);
+            }
+            nodeCount = header.getInt();
+            int labelCount = header.getInt();
+            edgeCount = header.getInt();
+            header.getInt();
+            long[] sections = new long[8];
+            for(int i = 0; i < 7; i++) {
+                sections[i] = header.getLong();
+            }
+            sections[7] = sections[6] + (long) edgeCount * Integer.BYTES;
+            if(sections[7] > channel.size()) {
+                throw new IOException(path + " is truncated");
+            }
+            nodeBlobs = new Region(channel, sections[0], sections[1] - sections[0]);
+            nodeIndex = new Region(channel, sections[1], (nodeCount + 1L) * Long.BYTES);
+            Region labelBlobs = new Region(channel, sections[2], sections[3] - sections[2]);
+            Region labelIndex = new Region(channel, sections[3], (labelCount + 1L) * Long.BYTES);
+            offsets = new Region(channel, sections[4], (nodeCount + 1L) * Integer.BYTES);
+            targets = new Region(channel, sections[5], (long) edgeCount * Integer.BYTES);
+            edgeLabels = new Region(channel, sections[6], (long) edgeCount * Integer.BYTES);
+
+            @SuppressWarnings("unchecked")
+            E[] decoded = (E[]) new Comparable<?>[labelCount];
+            labels = decoded;
+            labelIds = new HashMap<E, Integer>(labelCount * 2);
+            for(int i = 0; i < labelCount; i++) {
+                long start = labelIndex.getLong((long) i * Long.BYTES);
+                long end = labelIndex.getLong((long) (i + 1) * Long.BYTES);
+                labels[i] = labelCodec.decode(labelBlobs.slice(start, end - start));
+                labelIds.put(labels[i], i);
+            }
+        }
+        this.checkRep();
+    }
+
+    /**
+     * @param nodeData is the data of the node being sought
+     * @return true if a node with the given data is in this MappedGraph, false otherwise
+     */
+    public boolean containsNode(N nodeData) {
+        return idOf(nodeData) >= 0;
+    }
+
+    /**
+     * @return the number of nodes in this MappedGraph
+     */
+    public int numberOfNodes() {
+        return nodeCount;
+    }
+
+    /**
+     * @return the number of edges in this MappedGraph
+     */
+    public int numberOfEdges() {
+        return edgeCount;
+    }
+
+    /**
+     * @return a List of the data of every node sorted lexicographically
+     */
+    public List<N> allNodes() {
+        List<N> allNodes = new ArrayList<N>(nodeCount);
+        for(int i = 0; i < nodeCount; i++) {
+            allNodes.add(nodeAt(i));
+        }
+        return allNodes;
+    }
+
+    /**
+     * @spec.requires node with startingData exists in this MappedGraph
+     * @param startingData is the data of the node whose children are sought
+     * @return a List containing the data of the child of every edge leading
+     * away from the node with given data, in the same order as Graph.childNodes
+     */
+    public List<N> childNodes(N startingData) {
+        int id = idOf(startingData);
+        List<N> children = new ArrayList<N>();
+        for(int k = edgeStart(id); k < edgeEnd(id); k++) {
+            children.add(nodeAt(targetOf(k)));
+        }
+        return children;
+    }
+
+    /**
+     * @spec.requires node with nodeData exists in this MappedGraph
+     * @param nodeData is the data of the node whose edges are sought
+     * @return a Map where the keys are the labels of the edges leading away
+     * from the node with the given data and the internal data is a List
+     * containing the data of the nodes those edges lead to
+     */
+    public Map<E, List<N>> edgesOf(N nodeData) {
+        int id = idOf(nodeData);
+        Map<E, List<N>> edgeToNodes = new TreeMap<E, List<N>>();
+        for(int k = edgeStart(id); k < edgeEnd(id); k++) {
+            E label = labels[edgeLabels.getInt((long) k * Integer.BYTES)];
+            if(!edgeToNodes.containsKey(label)) {
+                edgeToNodes.put(label, new ArrayList<N>());
+            }
+            edgeToNodes.get(label).add(nodeAt(targetOf(k)));
+        }
+        return edgeToNodes;
+    }
+
+    /**
+     * @spec.requires nodes exist with startingData and endingData as their respective data
+     * @param startingData is the data of the parent node of the sought edges
+     * @param endingData is the data of the child node of the sought edges
+     * @return a List of the labels of edges leading from the node with
+     * startingData to the node with endingData, sorted lexicographically
+     */
+    public List<E> edgesBetween(N startingData, N endingData) {
+        int id = idOf(startingData);
+        int child = idOf(endingData);
+        int start = edgeStart(id);
+        int end = edgeEnd(id);
+        //inv: every edge before start leads to a node before child and no edge from end on does
+        while(start < end) {
+            int middle = (start + end) >>> 1;
+            if(targetOf(middle) < child) {
+                start = middle + 1;
+            } else {
+                end = middle;
+            }
+        }
+        List<E> between = new ArrayList<E>();
+        for(int k = start; k < edgeEnd(id) && targetOf(k) == child; k++) {
+            between.add(labels[edgeLabels.getInt((long) k * Integer.BYTES)]);
+        }
+        return between;
+    }
+
+    /**
+     * @spec.requires node with startingData exists in this MappedGraph
+     * @param startingData is the data of the node this method starts from
+     * @param label is the edge label this method follows
+     * @return a List of the data of every node reached by an edge labeled by
+     * 'label' leading away from the node with startingData, sorted lexicographically
+     */
+    public List<N> nextNodesForLabel(N startingData, E label) {
+        int id = idOf(startingData);
+        List<N> reachable = new ArrayList<N>();
+        Integer labelId = labelIds.get(label);
+        if(labelId == null) {
+            return reachable;
+        }
+        for(int k = edgeStart(id); k < edgeEnd(id); k++) {
+            if(edgeLabels.getInt((long) k * Integer.BYTES) == labelId) {
+                reachable.add(nodeAt(targetOf(k)));
+            }
+        }
+        return reachable;
+    }
+
+    /**
+     * @param nodeData is the data of the node whose id is sought
+     * @return the id of the node with given data, found by binary search over
+     * the sorted node data in the file, or -1 if there is none
+     */
+    public int idOf(N nodeData) {
+        int start = 0;
+        int end = nodeCount - 1;
+        while(start <= end) {
+            int middle = (start + end) >>> 1;
+            int comparison = nodeAt(middle).compareTo(nodeData);
+            if(comparison < 0) {
+                start = middle + 1;
+            } else if(comparison > 0) {
+                end = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @spec.requires 0 <= id < numberOfNodes()
+     * @param id is the id of the node whose data is sought
+     * @return the data of the node with given id, decoded from the file
+     */
+    public N nodeAt(int id) {
+        long start = nodeIndex.getLong((long) id * Long.BYTES);
+        long end = nodeIndex.getLong((long) (id + 1) * Long.BYTES);
+        return nodeCodec.decode(nodeBlobs.slice(start, end - start));
+    }
+
+    /**
+     * @spec.requires 0 <= id < numberOfNodes()
+     * @return the number of the first edge leading away from the node with given id
+     */
+    public int edgeStart(int id) {
+        return offsets.getInt((long) id * Integer.BYTES);
+    }
+
+    /**
+     * @spec.requires 0 <= id < numberOfNodes()
+     * @return one past the number of the last edge leading away from the node with given id
+     */
+    public int edgeEnd(int id) {
+        return offsets.getInt((long) (id + 1) * Integer.BYTES);
+    }
+
+    /**
+     * @spec.requires 0 <= edge < numberOfEdges()
+     * @return the id of the node the given edge leads to
+     */
+    public int targetOf(int edge) {
+        return targets.getInt((long) edge * Integer.BYTES);
+    }
+
+    /**
+     * Ensures representation invariant holds
+     */
+    private void checkRep() {
+        assert(nodeCodec != null && labels != null && labelIds != null);
+        assert(nodeBlobs != null && nodeIndex != null && offsets != null
+                && targets != null && edgeLabels != null);
+        assert(labelIds.size() == labels.length);
+    }
+
+    /**
+     * Abstract state:
+     * Region represents a read-only, memory-mapped stretch of a file of any
+     * length. A single mapping cannot exceed 2GB, so longer stretches are
+     * mapped in several chunks
+     */
+    private static final class Region {
+
+        private static final int CHUNK_SHIFT = 30;
+        private static final long CHUNK_BYTES = 1L << CHUNK_SHIFT;
+
+        private final MappedByteBuffer[] chunks;
+
+        // Representation Invariant:
+        // every chunk but the last is CHUNK_BYTES long, and the region
+        // starts at a multiple of eight bytes in the file, so no int or
+        // long read at an aligned offset straddles two chunks
+
+        /**
+         * @spec.requires start is a multiple of eight and start + length is
+         * within the file
+         * @spec.effects Constructs a new Region mapping 'length' bytes of channel from start
+         */
+        public Region(FileChannel channel, long start, long length) throws IOException {
+            int count = (int) ((length + CHUNK_BYTES - 1) >>> CHUNK_SHIFT);
+            chunks = new MappedByteBuffer[Math.max(count, 1)];
+            for(int i = 0; i < chunks.length; i++) {
+                long offset = (long) i << CHUNK_SHIFT;
+                long size = Math.min(CHUNK_BYTES, length - offset);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start + offset, Math.max(size, 0));
+            }
+        }
+
+        /**
+         * @spec.requires offset is a multiple of four within this Region
+         * @return the int at offset
+         */
+        public int getInt(long offset) {
+            return chunks[(int) (offset >>> CHUNK_SHIFT)].getInt((int) (offset & (CHUNK_BYTES - 1)));
+        }
+
+        /**
+         * @spec.requires offset is a multiple of eight within this Region
+         * @return the long at offset
+         */
+        public long getLong(long offset) {
+            return chunks[(int) (offset >>> CHUNK_SHIFT)].getLong((int) (offset & (CHUNK_BYTES - 1)));
+        }
+
+        /**
+         * @spec.requires the bytes from offset up to offset + length are within this Region
+         * @return a ByteBuffer whose remaining bytes are those bytes, sharing the
+         * mapping unless they straddle two chunks, in which case they are copied,
+         * or an empty ByteBuffer if length is 0
+         */
+        public ByteBuffer slice(long offset, long length) {
+            //an empty blob may end a Region whose length fills its last chunk exactly,
+            //leaving offset one past every chunk
+            if(length == 0) {
+                return ByteBuffer.allocate(0);
+            }
+            int chunk = (int) (offset >>> CHUNK_SHIFT);
+            int within = (int) (offset & (CHUNK_BYTES - 1));
+            if(within + length <= chunks[chunk].capacity()) {
+                return chunks[chunk].duplicate().position(within).limit(within + (int) length);
+            }
+            byte[] copy = new byte[(int) length];
+            for(int i = 0; i < copy.length; i++) {
+                long at = offset + i;
+                copy[i] = chunks[(int) (at >>> CHUNK_SHIFT)].get((int) (at & (CHUNK_BYTES - 1)));
+            }
+            return ByteBuffer.wrap(copy);
+        }
+    }
+}
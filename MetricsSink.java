@@ -0,0 +1,15 @@
+/**
+ * Abstract state:
+ * MetricsSink represents a destination for the measurements of a GraphMetrics,
+ * such as a monitoring system, given each MetricsSnapshot the GraphMetrics publishes
+ */
+
+public interface MetricsSink {
+
+    /**
+     * @spec.requires snapshot is not null
+     * @spec.effects snapshot is passed on to wherever this sink sends measurements
+     * @param snapshot is the latest measurements
+     */
+    void report(MetricsSnapshot snapshot);
+}
@@ -0,0 +1,189 @@
+/**
+ * Abstract state:
+ * MetricsSnapshot represents an immutable copy of the measurements a GraphMetrics had
+ * made at some moment. Histograms have GraphMetrics' power-of-two buckets: bucket 0
+ * holds the value 0, and bucket b > 0 the values from 2^(b-1) up to 2^b - 1
+ */
+
+import java.util.Arrays;
+
+public final class MetricsSnapshot {
+
+    private final long[] counts;
+    private final long[] nanos;
+    private final long[] scanned;
+    private final long[] allocated;
+    private final long[][] latencies;
+    private final long[] degrees;
+    private final long lookups;
+    private final int maxOutDegree;
+    private final Object hub;
+    private final boolean tracksAllocation;
+
+    // Representation Invariant for every MetricsSnapshot:
+    // no field is null but hub; counts, nanos, scanned, allocated and latencies
+    // have one element per GraphMetrics.Operation, and every element of
+    // latencies, and degrees, has GraphMetrics.BUCKETS elements
+    // The elements of latencies[o] sum to counts[o]
+
+    /**
+     * @spec.requires the arrays are laid out as described above, and are not
+     * retained or modified by the caller afterwards
+     * @spec.effects Constructs a new MetricsSnapshot of the given measurements
+     */
+    MetricsSnapshot(long[] counts, long[] nanos, long[] scanned, long[] allocated, long[][] latencies,
+                    long[] degrees, long lookups, int maxOutDegree, Object hub, boolean tracksAllocation) {
+        this.counts = counts;
+        this.nanos = nanos;
+        this.scanned = scanned;
+        this.allocated = allocated;
+        this.latencies = latencies;
+        this.degrees = degrees;
+        this.lookups = lookups;
+        this.maxOutDegree = maxOutDegree;
+        this.hub = hub;
+        this.tracksAllocation = tracksAllocation;
+        this.checkRep();
+    }
+
+    /**
+     * @return the number of runs of op measured
+     */
+    public long count(GraphMetrics.Operation op) {
+        return counts[op.ordinal()];
+    }
+
+    /**
+     * @return the total time, in nanoseconds, of the runs of op measured
+     */
+    public long totalNanos(GraphMetrics.Operation op) {
+        return nanos[op.ordinal()];
+    }
+
+    /**
+     * @return the mean time, in nanoseconds, of a run of op, or 0 if none was measured
+     */
+    public double meanNanos(GraphMetrics.Operation op) {
+        long count = count(op);
+        return count == 0 ? 0 : (double) totalNanos(op) / count;
+    }
+
+    /**
+     * @spec.requires 0 <= fraction <= 1
+     * @return the upper end of the histogram bucket holding the run of op that took
+     * longer than 'fraction' of the runs measured, in nanoseconds, or 0 if none was.
+     * It is at most twice the true time
+     */
+    public long percentileNanos(GraphMetrics.Operation op, double fraction) {
+        long[] histogram = latencies[op.ordinal()];
+        long rank = (long) Math.ceil(fraction * count(op));
+        long seen = 0;
+        for(int b = 0; b < histogram.length; b++) {
+            seen += histogram[b];
+            if(seen >= rank && seen > 0) {
+                return b == 0 ? 0 : b >= 63 ? Long.MAX_VALUE : (1L << b) - 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return a copy of the histogram of the times, in nanoseconds, of the runs of op
+     */
+    public long[] latencyHistogram(GraphMetrics.Operation op) {
+        return latencies[op.ordinal()].clone();
+    }
+
+    /**
+     * @return the total number of Nodes or Edges the runs of op examined, such as the
+     * Nodes a removeNode swept for Edges into the removed one, or the Edges a
+     * removeEdge scanned
+     */
+    public long scanned(GraphMetrics.Operation op) {
+        return scanned[op.ordinal()];
+    }
+
+    /**
+     * @return the total number of bytes the runs of op allocated, or 0 if allocation
+     * was not measured
+     */
+    public long allocatedBytes(GraphMetrics.Operation op) {
+        return allocated[op.ordinal()];
+    }
+
+    /**
+     * @return true if allocation was measured, false otherwise
+     */
+    public boolean tracksAllocation() {
+        return tracksAllocation;
+    }
+
+    /**
+     * @return the number of times a Node was looked up by its data
+     */
+    public long nodeLookups() {
+        return lookups;
+    }
+
+    /**
+     * @return a copy of the histogram of the out-degrees of the Nodes operations
+     * centred on, one entry per operation
+     */
+    public long[] degreeHistogram() {
+        return degrees.clone();
+    }
+
+    /**
+     * @return the largest out-degree of a Node an operation centred on, or 0 if none did
+     */
+    public int maxOutDegree() {
+        return maxOutDegree;
+    }
+
+    /**
+     * @return the data of a Node with out-degree maxOutDegree(), or null if no
+     * operation centred on a Node
+     */
+    public Object maxOutDegreeNode() {
+        return hub;
+    }
+
+    /**
+     * @return a table with one line per operation measured giving its count, mean,
+     * 50th and 99th percentile time, mean Nodes or Edges examined and, if measured,
+     * mean bytes allocated, followed by the lookups and largest out-degree
+     */
+    @Override
+    public String toString() {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%-22s %12s %12s %12s %12s %12s%s%n", "operation", "count", "mean ns",
+                "p50 ns", "p99 ns", "scanned/op", tracksAllocation ? String.format(" %12s", "bytes/op") : ""));
+        for(GraphMetrics.Operation op : GraphMetrics.Operation.values()) {
+            long count = count(op);
+            if(count == 0) {
+                continue;
+            }
+            table.append(String.format("%-22s %12d %12.0f %12d %12d %12.1f", op, count, meanNanos(op),
+                    percentileNanos(op, 0.5), percentileNanos(op, 0.99), (double) scanned(op) / count));
+            if(tracksAllocation) {
+                table.append(String.format(" %12.0f", (double) allocatedBytes(op) / count));
+            }
+            table.append(System.lineSeparator());
+        }
+        table.append("node lookups: ").append(lookups);
+        table.append(", max out-degree: ").append(maxOutDegree);
+        if(hub != null) {
+            table.append(" (").append(hub).append(')');
+        }
+        return table.toString();
+    }
+
+    /**
+     * Ensures representation invariant holds
+     */
+    private void checkRep() {
+        assert(counts != null && nanos != null && scanned != null && allocated != null);
+        assert(latencies.length == counts.length && degrees.length == GraphMetrics.BUCKETS);
+        assert(Arrays.stream(latencies).allMatch(histogram -> histogram.length == GraphMetrics.BUCKETS));
+    }
+}
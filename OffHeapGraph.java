@@ -0,0 +1,803 @@
+/**
+ * Abstract state:
+ * OffHeapGraph represents a mutable directed multi-graph with labeled edges whose
+ * edges are kept outside the Java heap. Node data and labels are mapped to dense
+ * int ids by on-heap dictionaries, and every edge is stored as a packed pair of
+ * ids in blocks of direct memory, so the heap holds a few words per node and
+ * label but nothing per edge, and the garbage collector never traces an edge.
+ * Direct memory is accounted for by reservedBytes and usedBytes, and is given
+ * back when the OffHeapGraph is closed
+ */
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.*;
+
+public final class OffHeapGraph <N extends Comparable<N>, E extends Comparable<E>> implements AutoCloseable {
+
+    /** the default size in bytes of the direct buffers edges are allocated from */
+    public static final int DEFAULT_CHUNK_BYTES = 1 << 26;
+
+    /** the most edges a single node can lead away from */
+    public static final int MAX_DEGREE = 1 << Arena.MAX_CLASS;
+
+    private final Arena arena;
+    private final Map<N, Integer> nodeIds;
+    private final List<N> nodes;
+    private final Map<E, Integer> labelIds;
+    private final List<E> labels;
+    private int[] freeIds;
+    private int freeCount;
+    private long[] blockOf;
+    private int[] degree;
+    private byte[] sizeClass;
+    private long edgeCount;
+
+    // Abstraction Function:
+    // OffHeapGraph, g, represents the directed multigraph holding a node with
+    // data nodes.get(i) for every id i whose entry in nodes is not null. The
+    // edges leading away from node i are the degree[i] longs at the start of
+    // the arena block at blockOf[i]; each packs the id of the edge's child in
+    // its upper 32 bits and the id of its label, an index into labels, in its
+    // lower 32 bits.
+    //
+    // Representation Invariant for every OffHeapGraph g:
+    // no field is null; nodeIds maps the data of every live id to that id
+    // and nothing else; freeIds[0] up to but not including freeIds[freeCount]
+    // are exactly the ids whose entry in nodes is null
+    // labelIds maps every element of labels to its index
+    // For every live id i, sizeClass[i] is 0 and degree[i] is 0 if i has no
+    // block, otherwise blockOf[i] is a block of the arena holding 1 << sizeClass[i]
+    // longs, the first degree[i] of which are strictly increasing and name live
+    // ids as children
+    // edgeCount is the sum of degree over live ids
+
+    /**
+     * @spec.effects creates a new, empty OffHeapGraph allocating edges from direct
+     * buffers of DEFAULT_CHUNK_BYTES bytes
+     */
+    public OffHeapGraph() {
+        this(DEFAULT_CHUNK_BYTES);
+    }
+
+    /**
+     * @spec.requires chunkBytes is a power of two from 32 up to 2^30
+     * @param chunkBytes is the size in bytes of each direct buffer edges are
+     * allocated from. A node with more edges than fit in one chunk is given a
+     * direct buffer of its own
+     * @spec.effects creates a new, empty OffHeapGraph
+     */
+    public OffHeapGraph(int chunkBytes) {
+        arena = new Arena(chunkBytes);
+        nodeIds = new HashMap<N, Integer>();
+        nodes = new ArrayList<N>();
+        labelIds = new HashMap<E, Integer>();
+        labels = new ArrayList<E>();
+        freeIds = new int[16];
+        freeCount = 0;
+        blockOf = new long[16];
+        degree = new int[16];
+        sizeClass = new byte[16];
+        edgeCount = 0;
+        this.checkRep();
+    }
+
+    /**
+     * @param nodeData is the data of the node being sought
+     * @return true if a node with the given data is in this OffHeapGraph, false otherwise
+     * @throws IllegalStateException if this OffHeapGraph has been closed
+     */
+    public boolean containsNode(N nodeData) {
+        arena.ensureOpen();
+        return nodeIds.containsKey(nodeData);
+    }
+
+    /**
+     * @spec.requires data is not null and its hashCode is consistent with equals
+     * @param data is the data of the node being added
+     * @spec.modifies if no node has the given data, a node with it is added
+     * @return true if the node was added, false if one with the same data was present
+     * @throws IllegalStateException if this OffHeapGraph has been closed
+     */
+    public boolean addNode(N data) {
+        arena.ensureOpen();
+        if(nodeIds.containsKey(data)) {
+            return false;
+        }
+        int id;
+        if(freeCount > 0) {
+            id = freeIds[--freeCount];
+            nodes.set(id, data);
+        } else {
+            id = nodes.size();
+            nodes.add(data);
+            if(id == degree.length) {
+                int grown = degree.length * 2;
+                blockOf = Arrays.copyOf(blockOf, grown);
+                degree = Arrays.copyOf(degree, grown);
+                sizeClass = Arrays.copyOf(sizeClass, grown);
+            }
+        }
+        nodeIds.put(data, id);
+        degree[id] = 0;
+        sizeClass[id] = 0;
+        this.checkRep();
+        return true;
+    }
+
+    /**
+     * @param data is the data of the node being removed
+     * @spec.modifies if a node has the given data, it and every edge leading into
+     * or away from it are removed and its block of direct memory is freed for reuse
+     * @return true if the node was found and removed, false otherwise
+     * @throws IllegalStateException if this OffHeapGraph has been closed
+     */
+    public boolean removeNode(N data) {
+        arena.ensureOpen();
+        Integer unwanted = nodeIds.remove(data);
+        if(unwanted == null) {
+            return false;
+        }
+        edgeCount -= degree[unwanted];
+        releaseBlock(unwanted);
+        nodes.set(unwanted, null);
+        //inv: no live id before i has an edge leading to unwanted
+        for(int i = 0; i < nodes.size(); i++) {
+            if(degree[i] > 0) {
+                edgeCount -= removeEdgesTo(i, unwanted);
+            }
+        }
+        if(freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = unwanted;
+        this.checkRep();
+        return true;
+    }
+
+    /**
+     * @spec.requires label is not null
+     * @param parentData is the data of the node the new edge leads from
+     * @param childData is the data of the node the new edge leads to
+     * @param label is the label of the new edge
+     * @spec.modifies if both nodes are present and no edge from parent to child has
+     * the given label, such an edge is added, otherwise nothing is modified
+     * @return true if the edge was added, false otherwise
+     * @throws IllegalStateException if this OffHeapGraph has been closed, or the
+     * parent already leads away by MAX_DEGREE edges
+     */
+    public boolean addEdge(N parentData, N childData, E label) {
+        arena.ensureOpen();
+        Integer parent = nodeIds.get(parentData);
+        Integer child = nodeIds.get(childData);
+        if(parent == null || child == null) {
+            return false;
+        }
+        Integer labelId = labelIds.get(label);
+        if(labelId == null) {
+            labelId = labels.size();
+            labels.add(label);
+            labelIds.put(label, labelId);
+        }
+        long packed = pack(child, labelId);
+        int index = search(parent, packed);
+        if(index >= 0) {
+            return false;
+        }
+        insertAt(parent, -1 * index - 1, packed);
+        edgeCount++;
+        this.checkRep();
+        return true;
+    }
+
+    /**
+     * @param parentData is the data of the node the edge leads from
+     * @param childData is the data of the node the edge leads to
+     * @param label is the label of the edge
+     * @spec.modifies if such an edge is present it is removed, and the parent's
+     * block shrinks once it is no more than a quarter full
+     * @return true if the edge was found and removed, false otherwise
+     * @throws IllegalStateException if this OffHeapGraph has been closed
+     */
+    public boolean removeEdge(N parentData, N childData, E label) {
+        arena.ensureOpen();
+        Integer parent = nodeIds.get(parentData);
+        Integer child = nodeIds.get(childData);
+        Integer labelId = labelIds.get(label);
+        if(parent == null || child == null || labelId == null) {
+            return false;
+        }
+        int index = search(parent, pack(child, labelId));
+        if(index < 0) {
+            return false;
+        }
+        removeRange(parent, index, index + 1);
+        edgeCount--;
+        this.checkRep();
+        return true;
+    }
+
+    /**
+     * @return the number of nodes in this OffHeapGraph
+     */
+    public int numberOfNodes() {
+        return nodeIds.size();
+    }
+
+    /**
+     * @return the number of edges in this OffHeapGraph
+     */
+    public long numberOfEdges() {
+        return edgeCount;
+    }
+
+    /**
+     * @return a List of the data of every node sorted lexicographically
+     * @throws IllegalStateException if this OffHeapGraph has been closed
+     */
+    public List<N> allNodes() {
+        arena.ensureOpen();
+        List<N> allNodes = new ArrayList<N>(nodeIds.keySet());
+        Collections.sort(allNodes);
+        return allNodes;
+    }
+
+    /**
+     * @spec.requires node with startingData exists in this OffHeapGraph
+     * @param startingData is the data of the node whose children are sought
+     * @return a List containing the data of the child of every edge leading
+     * away from the node with given data, in the same order as Graph.childNodes
+     * @throws IllegalStateException if this OffHeapGraph has been closed
+     */
+    public List<N> childNodes(N startingData) {
+        long[] sorted = sortedEdgesOf(startingData);
+        List<N> children = new ArrayList<N>(sorted.length);
+        for(long packed : sorted) {
+            children.add(nodes.get(childOf(packed)));
+        }
+        return children;
+    }
+
+    /**
+     * @spec.requires node with nodeData exists in this OffHeapGraph
+     * @param nodeData is the data of the node whose edges are sought
+     * @return a Map where the keys are the labels of the edges leading away
+     * from the node with the given data and the internal data is a List
+     * containing the data of the nodes those edges lead to, sorted lexicographically
+     * @throws IllegalStateException if this OffHeapGraph has been closed
+     */
+    public Map<E, List<N>> edgesOf(N nodeData) {
+        Map<E, List<N>> edgeToNodes = new TreeMap<E, List<N>>();
+        for(long packed : sortedEdgesOf(nodeData)) {
+            edgeToNodes.computeIfAbsent(labels.get(labelOf(packed)), label -> new ArrayList<N>())
+                    .add(nodes.get(childOf(packed)));
+        }
+        return edgeToNodes;
+    }
+
+    /**
+     * @spec.requires nodes exist with startingData and endingData as their respective data
+     * @param startingData is the data of the parent node of the sought edges
+     * @param endingData is the data of the child node of the sought edges
+     * @return a List of the labels of edges leading from the node with
+     * startingData to the node with endingData, sorted lexicographically.
+     * The edges are found by binary search
+     * @throws IllegalStateException if this OffHeapGraph has been closed
+     */
+    public List<E> edgesBetween(N startingData, N endingData) {
+        arena.ensureOpen();
+        int parent = nodeIds.get(startingData);
+        int child = nodeIds.get(endingData);
+        int start = firstEdgeTo(parent, child);
+        int end = start;
+        while(end < degree[parent] && childOf(arena.getLong(blockOf[parent], end)) == child) {
+            end++;
+        }
+        long[] found = new long[end - start];
+        for(int i = start; i < end; i++) {
+            found[i - start] = arena.getLong(blockOf[parent], i);
+        }
+        sortEdges(found, found.length);
+        List<E> between = new ArrayList<E>(found.length);
+        for(long packed : found) {
+            between.add(labels.get(labelOf(packed)));
+        }
+        return between;
+    }
+
+    /**
+     * @spec.requires node with startingData exists in this OffHeapGraph
+     * @param startingData is the data of the node this method starts from
+     * @param label is the edge label this method follows
+     * @return a List of the data of every node reached by an edge labeled by
+     * 'label' leading away from the node with startingData, sorted lexicographically
+     * @throws IllegalStateException if this OffHeapGraph has been closed
+     */
+    public List<N> nextNodesForLabel(N startingData, E label) {
+        arena.ensureOpen();
+        int parent = nodeIds.get(startingData);
+        Integer labelId = labelIds.get(label);
+        if(labelId == null) {
+            return new ArrayList<N>();
+        }
+        long[] found = new long[degree[parent]];
+        int count = 0;
+        for(int i = 0; i < degree[parent]; i++) {
+            long packed = arena.getLong(blockOf[parent], i);
+            if(labelOf(packed) == labelId) {
+                found[count++] = packed;
+            }
+        }
+        sortEdges(found, count);
+        List<N> reachable = new ArrayList<N>(count);
+        for(int i = 0; i < count; i++) {
+            reachable.add(nodes.get(childOf(found[i])));
+        }
+        return reachable;
+    }
+
+    /**
+     * @return the number of bytes of direct memory this OffHeapGraph holds,
+     * whether or not they are in use
+     */
+    public long reservedBytes() {
+        return arena.reserved;
+    }
+
+    /**
+     * @return the number of bytes of direct memory in blocks currently given to
+     * nodes; the rest of reservedBytes is free for reuse by later edges
+     */
+    public long usedBytes() {
+        return arena.used;
+    }
+
+    /**
+     * @spec.modifies every block of direct memory is given back straight away,
+     * rather than when the buffers are garbage collected, and this OffHeapGraph
+     * can no longer be used. Closing an OffHeapGraph twice has no further effect
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    /**
+     * @spec.requires node with nodeData exists in this OffHeapGraph
+     * @return a copy of every edge leading away from the node with nodeData,
+     * packed, in the order of Graph.childNodes
+     */
+    private long[] sortedEdgesOf(N nodeData) {
+        arena.ensureOpen();
+        int parent = nodeIds.get(nodeData);
+        long[] found = new long[degree[parent]];
+        for(int i = 0; i < found.length; i++) {
+            found[i] = arena.getLong(blockOf[parent], i);
+        }
+        sortEdges(found, found.length);
+        return found;
+    }
+
+    /**
+     * @spec.requires edges[0] up to but not including edges[count] are distinct
+     * packed edges of live ids
+     * @spec.modifies edges[0] up to but not including edges[count] are heapsorted
+     * in place by the data of their child and then by their label, so that only
+     * the nodes and labels the edges touch are compared and nothing is allocated
+     */
+    private void sortEdges(long[] edges, int count) {
+        for(int i = count / 2 - 1; i >= 0; i--) {
+            siftDown(edges, i, count);
+        }
+        //inv: edges from end on are sorted and follow every edge before end
+        for(int end = count - 1; end > 0; end--) {
+            long largest = edges[0];
+            edges[0] = edges[end];
+            edges[end] = largest;
+            siftDown(edges, 0, end);
+        }
+    }
+
+    /**
+     * @spec.modifies the edge at index i sinks through the heap held in
+     * edges[0] up to but not including edges[count] until it follows its children
+     */
+    private void siftDown(long[] edges, int i, int count) {
+        long sinking = edges[i];
+        int child = 2 * i + 1;
+        while(child < count) {
+            if(child + 1 < count && compareEdges(edges[child + 1], edges[child]) > 0) {
+                child++;
+            }
+            if(compareEdges(edges[child], sinking) <= 0) {
+                break;
+            }
+            edges[i] = edges[child];
+            i = child;
+            child = 2 * i + 1;
+        }
+        edges[i] = sinking;
+    }
+
+    /**
+     * @return a negative value, zero or a positive value as the packed edge first
+     * comes before, matches or comes after the packed edge second, ordering by the
+     * data of their children and then by their labels
+     */
+    private int compareEdges(long first, long second) {
+        int firstChild = childOf(first);
+        int secondChild = childOf(second);
+        if(firstChild != secondChild) {
+            return nodes.get(firstChild).compareTo(nodes.get(secondChild));
+        }
+        int firstLabel = labelOf(first);
+        int secondLabel = labelOf(second);
+        if(firstLabel == secondLabel) {
+            return 0;
+        }
+        return labels.get(firstLabel).compareTo(labels.get(secondLabel));
+    }
+
+    /**
+     * @return the edge from a parent to child, labeled by the label with id labelId, packed
+     */
+    private static long pack(int child, int labelId) {
+        return ((long) child << 32) | labelId;
+    }
+
+    /**
+     * @return the id of the child of a packed edge
+     */
+    private static int childOf(long packed) {
+        return (int) (packed >>> 32);
+    }
+
+    /**
+     * @return the id of the label of a packed edge
+     */
+    private static int labelOf(long packed) {
+        return (int) packed;
+    }
+
+    /**
+     * @spec.requires id is live
+     * @return the index of packed among the edges of id if present, otherwise
+     * (-(insertion point) - 1), as for Arrays.binarySearch
+     */
+    private int search(int id, long packed) {
+        int start = 0;
+        int end = degree[id] - 1;
+        while(start <= end) {
+            int middle = (start + end) >>> 1;
+            long found = arena.getLong(blockOf[id], middle);
+            if(found < packed) {
+                start = middle + 1;
+            } else if(found > packed) {
+                end = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1 * start - 1;
+    }
+
+    /**
+     * @spec.requires id is live
+     * @return the index of the first edge of id leading to child or to a later id
+     */
+    private int firstEdgeTo(int id, int child) {
+        int index = search(id, pack(child, 0));
+        return index >= 0 ? index : -1 * index - 1;
+    }
+
+    /**
+     * @spec.requires id is live and child is an id
+     * @spec.modifies every edge of id leading to child is removed
+     * @return the number of edges removed
+     */
+    private int removeEdgesTo(int id, int child) {
+        int start = firstEdgeTo(id, child);
+        int end = start;
+        while(end < degree[id] && childOf(arena.getLong(blockOf[id], end)) == child) {
+            end++;
+        }
+        if(end > start) {
+            removeRange(id, start, end);
+        }
+        return end - start;
+    }
+
+    /**
+     * @spec.requires id is live, 0 <= index <= degree[id], and packed belongs at index
+     * @spec.modifies packed is inserted at index, moving the edges of id to a
+     * block twice the size if their block is full
+     * @throws IllegalStateException if id already has MAX_DEGREE edges
+     */
+    private void insertAt(int id, int index, long packed) {
+        int count = degree[id];
+        if(sizeClass[id] == 0 || count == 1 << sizeClass[id]) {
+            int grown = sizeClass[id] == 0 ? Arena.MIN_CLASS : sizeClass[id] + 1;
+            if(grown > Arena.MAX_CLASS) {
+                throw new IllegalStateException("node already has " + MAX_DEGREE + " edges");
+            }
+            long block = arena.allocate(grown);
+            arena.copy(blockOf[id], 0, block, 0, index);
+            arena.copy(blockOf[id], index, block, index + 1, count - index);
+            if(sizeClass[id] != 0) {
+                arena.free(blockOf[id], sizeClass[id]);
+            }
+            blockOf[id] = block;
+            sizeClass[id] = (byte) grown;
+        } else {
+            arena.copy(blockOf[id], index, blockOf[id], index + 1, count - index);
+        }
+        arena.putLong(blockOf[id], index, packed);
+        degree[id] = count + 1;
+    }
+
+    /**
+     * @spec.requires id is live and 0 <= start < end <= degree[id]
+     * @spec.modifies the edges of id from start up to but not including end are
+     * removed, and the rest are moved to a block half the size, or none, while
+     * their block is no more than a quarter full
+     */
+    private void removeRange(int id, int start, int end) {
+        arena.copy(blockOf[id], end, blockOf[id], start, degree[id] - end);
+        degree[id] -= end - start;
+        if(degree[id] == 0) {
+            releaseBlock(id);
+            return;
+        }
+        int shrunk = sizeClass[id];
+        while(shrunk > Arena.MIN_CLASS && degree[id] <= 1 << (shrunk - 2)) {
+            shrunk--;
+        }
+        if(shrunk != sizeClass[id]) {
+            long block = arena.allocate(shrunk);
+            arena.copy(blockOf[id], 0, block, 0, degree[id]);
+            arena.free(blockOf[id], sizeClass[id]);
+            blockOf[id] = block;
+            sizeClass[id] = (byte) shrunk;
+        }
+    }
+
+    /**
+     * @spec.modifies the block of id, if any, is freed and id is left with no edges
+     */
+    private void releaseBlock(int id) {
+        if(sizeClass[id] != 0) {
+            arena.free(blockOf[id], sizeClass[id]);
+        }
+        sizeClass[id] = 0;
+        degree[id] = 0;
+    }
+
+    /**
+     * Ensures representation invariant holds
+     */
+    private void checkRep() {
+        assert(arena != null && nodeIds != null && nodes != null && labelIds != null && labels != null);
+        assert(freeIds != null && blockOf != null && degree != null && sizeClass != null);
+        assert(nodeIds.size() + freeCount == nodes.size() && labelIds.size() == labels.size());
+        assert(edgeCount >= 0 && arena.used <= arena.reserved);
+    }
+
+    /**
+     * Abstract state:
+     * Arena represents a heap of direct memory from which blocks of longs are
+     * allocated and freed. Blocks hold a power of two of longs and are carved
+     * from fixed-size chunks, except that a block larger than a chunk is given a
+     * chunk of its own. Freed blocks are kept on a free list for their size,
+     * linked through their first long, so the heap holds nothing per block
+     */
+    private static final class Arena {
+
+        private static final int MIN_CLASS = 2;
+        private static final int MAX_CLASS = 27;
+        private static final long NONE = -1;
+        private static final MethodHandle INVOKE_CLEANER = findCleaner();
+
+        private final int chunkBytes;
+        private final List<ByteBuffer> chunks;
+        private final long[] freeHeads;
+        private int bumpChunk;
+        private int bumpOffset;
+        private long reserved;
+        private long used;
+        private boolean closed;
+
+        // Representation Invariant:
+        // a block is addressed by the index of its chunk in the upper 32 bits
+        // and its byte offset within the chunk in the lower 32 bits
+        // freeHeads[c] is NONE or the address of a free block of 1 << c longs,
+        // whose first long is the address of the next such block or NONE
+        // chunks[bumpChunk], unless bumpChunk is -1, is a shared chunk whose
+        // bytes from bumpOffset on have never been allocated
+        // every entry of chunks is null once its memory has been given back
+
+        /**
+         * @spec.requires chunkBytes is a power of two from 32 up to 2^30
+         * @spec.effects Constructs a new Arena holding no memory
+         */
+        public Arena(int chunkBytes) {
+            this.chunkBytes = chunkBytes;
+            this.chunks = new ArrayList<ByteBuffer>();
+            this.freeHeads = new long[MAX_CLASS + 1];
+            Arrays.fill(freeHeads, NONE);
+            this.bumpChunk = -1;
+            this.bumpOffset = 0;
+        }
+
+        /**
+         * @throws IllegalStateException if this Arena has been closed
+         */
+        public void ensureOpen() {
+            if(closed) {
+                throw new IllegalStateException("graph has been closed");
+            }
+        }
+
+        /**
+         * @spec.requires MIN_CLASS <= sizeClass <= MAX_CLASS
+         * @return the address of a block of 1 << sizeClass longs, taken from the free
+         * list for its size if possible, otherwise from fresh memory
+         */
+        public long allocate(int sizeClass) {
+            int bytes = Long.BYTES << sizeClass;
+            used += bytes;
+            long block = freeHeads[sizeClass];
+            if(block != NONE) {
+                freeHeads[sizeClass] = getLong(block, 0);
+                return block;
+            }
+            if(bytes > chunkBytes) {
+                return address(newChunk(bytes), 0);
+            }
+            if(bumpChunk < 0 || bumpOffset + bytes > chunkBytes) {
+                if(bumpChunk >= 0) {
+                    freeTail();
+                }
+                bumpChunk = newChunk(chunkBytes);
+                bumpOffset = 0;
+            }
+            block = address(bumpChunk, bumpOffset);
+            bumpOffset += bytes;
+            return block;
+        }
+
+        /**
+         * @spec.requires block was allocated with sizeClass and has not been freed
+         * @spec.modifies block is put on the free list for its size, or its chunk is
+         * given back if the block had the chunk to itself
+         */
+        public void free(long block, int sizeClass) {
+            int bytes = Long.BYTES << sizeClass;
+            used -= bytes;
+            if(bytes > chunkBytes) {
+                int chunk = (int) (block >>> 32);
+                release(chunks.get(chunk));
+                chunks.set(chunk, null);
+                reserved -= bytes;
+                return;
+            }
+            putLong(block, 0, freeHeads[sizeClass]);
+            freeHeads[sizeClass] = block;
+        }
+
+        /**
+         * @return the long at index of block
+         */
+        public long getLong(long block, int index) {
+            return chunks.get((int) (block >>> 32)).getLong((int) block + index * Long.BYTES);
+        }
+
+        /**
+         * @spec.modifies the long at index of block is set to value
+         */
+        public void putLong(long block, int index, long value) {
+            chunks.get((int) (block >>> 32)).putLong((int) block + index * Long.BYTES, value);
+        }
+
+        /**
+         * @spec.requires both ranges lie within their blocks
+         * @spec.modifies the 'count' longs of 'from' starting at fromIndex are copied
+         * to 'to' starting at toIndex, correctly even if the two ranges overlap
+         */
+        public void copy(long from, int fromIndex, long to, int toIndex, int count) {
+            if(from == to && fromIndex < toIndex) {
+                for(int i = count - 1; i >= 0; i--) {
+                    putLong(to, toIndex + i, getLong(from, fromIndex + i));
+                }
+            } else {
+                for(int i = 0; i < count; i++) {
+                    putLong(to, toIndex + i, getLong(from, fromIndex + i));
+                }
+            }
+        }
+
+        /**
+         * @spec.modifies every chunk is given back and this Arena can no longer be used
+         */
+        public void close() {
+            if(closed) {
+                return;
+            }
+            closed = true;
+            for(ByteBuffer chunk : chunks) {
+                if(chunk != null) {
+                    release(chunk);
+                }
+            }
+            chunks.clear();
+            reserved = 0;
+            used = 0;
+        }
+
+        /**
+         * @return the address of the byte at offset within chunk
+         */
+        private static long address(int chunk, int offset) {
+            return ((long) chunk << 32) | offset;
+        }
+
+        /**
+         * @spec.modifies a new chunk of 'bytes' bytes of direct memory is added
+         * @return the index of the new chunk
+         */
+        private int newChunk(int bytes) {
+            chunks.add(ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder()));
+            reserved += bytes;
+            return chunks.size() - 1;
+        }
+
+        /**
+         * @spec.modifies the never-allocated tail of the shared chunk being carved is
+         * split into the largest blocks that fit and put on the free lists
+         */
+        private void freeTail() {
+            for(int sizeClass = MAX_CLASS; sizeClass >= MIN_CLASS; sizeClass--) {
+                int bytes = Long.BYTES << sizeClass;
+                while(bumpOffset + bytes <= chunkBytes) {
+                    used += bytes;
+                    free(address(bumpChunk, bumpOffset), sizeClass);
+                    bumpOffset += bytes;
+                }
+            }
+        }
+
+        /**
+         * @spec.modifies the memory of the direct buffer is given back straight away
+         * if the JDK allows it, otherwise when the buffer is garbage collected
+         */
+        private static void release(ByteBuffer chunk) {
+            if(INVOKE_CLEANER == null) {
+                return;
+            }
+            try {
+                INVOKE_CLEANER.invokeExact(chunk);
+            } catch(Throwable unsupported) {
+                //the buffer is left for the garbage collector to free
+            }
+        }
+
+        /**
+         * @return a handle on sun.misc.Unsafe.invokeCleaner bound to the Unsafe
+         * instance, or null if the JDK does not offer it
+         */
+        private static MethodHandle findCleaner() {
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Field instance = unsafeClass.getDeclaredField("theUnsafe");
+                instance.setAccessible(true);
+                return MethodHandles.lookup().findVirtual(unsafeClass, "invokeCleaner",
+                        MethodType.methodType(void.class, ByteBuffer.class)).bindTo(instance.get(null));
+            } catch(ReflectiveOperationException | RuntimeException unavailable) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,661 @@
+/**
+ * Abstract state:
+ * PathQuery represents a compiled regular path query: a regular expression over
+ * edge labels, such as "owns, then any number of subsidiaryOf, then locatedIn",
+ * turned once into a deterministic automaton that can then be evaluated against
+ * any Graph from any starting node with Graph.pathQuery, as often as needed.
+ * A path matches when the sequence of its edge labels is in the language of the
+ * expression
+ *
+ * Patterns are built from the static factories here, or parsed from text with
+ * parse, whose syntax, from loosest to tightest binding, is
+ *   a | b      either a or b
+ *   a / b      a followed by b
+ *   a*  a+  a? a repeated any number of times, at least once, or at most once
+ *   ( a )      grouping
+ *   .          any single label
+ *   name       the label named by a run of characters other than whitespace and
+ *              the eight characters ( ) | / * + ? and ', or by any text in single
+ *              quotes, where '' stands for one quote
+ */
+
+import java.util.*;
+import java.util.function.Function;
+
+public final class PathQuery <E extends Comparable<E>> {
+
+    private final String description;
+    private final boolean[] accepting;
+    private final List<TreeMap<E, Integer>> transitions;
+    private final int[] otherwise;
+
+    // Abstraction Function:
+    // PathQuery, q, represents the regular language accepted by the automaton
+    // whose states are 0 up to accepting.length, starting at 0. From state s
+    // a label e leads to transitions.get(s).get(e) if present, otherwise to
+    // otherwise[s], and to no state if that is -1. description is how the
+    // pattern is written.
+    //
+    // Representation Invariant for every PathQuery q:
+    // no field is null, accepting.length == transitions.size() == otherwise.length > 0
+    // every state named by transitions or otherwise is a valid state or, for
+    // otherwise, -1; no state reached from 0 is a dead end that cannot reach an
+    // accepting state unless it is state 0 itself
+
+    /**
+     * @spec.effects Constructs a new PathQuery over the given automaton
+     */
+    private PathQuery(String description, boolean[] accepting, List<TreeMap<E, Integer>> transitions,
+                      int[] otherwise) {
+        this.description = description;
+        this.accepting = accepting;
+        this.transitions = transitions;
+        this.otherwise = otherwise;
+        this.checkRep();
+    }
+
+    /**
+     * @spec.requires pattern is not null
+     * @param pattern is the pattern to compile
+     * @return a PathQuery matching exactly the label sequences pattern describes
+     */
+    public static <E extends Comparable<E>> PathQuery<E> compile(Pattern<E> pattern) {
+        return compile(pattern, pattern.toString());
+    }
+
+    /**
+     * @return a PathQuery matching what pattern matches, described by description
+     */
+    private static <E extends Comparable<E>> PathQuery<E> compile(Pattern<E> pattern, String description) {
+        Automaton<E> nfa = new Automaton<E>();
+        int end = pattern.build(nfa, 0);
+        return nfa.determinize(end, description);
+    }
+
+    /**
+     * @spec.requires text and labelParser are not null
+     * @param text is a pattern in the syntax described above
+     * @param labelParser turns the name of a label into the label
+     * @return a PathQuery matching exactly the label sequences text describes
+     * @throws IllegalArgumentException if text is not a well-formed pattern, or
+     * labelParser throws it for some name
+     */
+    public static <E extends Comparable<E>> PathQuery<E> parse(String text, Function<String, E> labelParser) {
+        return compile(new Parser<E>(text, labelParser).parse(), text.strip());
+    }
+
+    /**
+     * @spec.requires label is not null
+     * @return a Pattern matching just the one-edge path labeled by label
+     */
+    public static <E extends Comparable<E>> Pattern<E> label(E label) {
+        return new Pattern<E>(Pattern.LABEL, label, List.of());
+    }
+
+    /**
+     * @return a Pattern matching any one-edge path
+     */
+    public static <E extends Comparable<E>> Pattern<E> anyLabel() {
+        return new Pattern<E>(Pattern.ANY, null, List.of());
+    }
+
+    /**
+     * @spec.requires parts and its elements are not null
+     * @return a Pattern matching a path made of a path matching each of parts in
+     * turn; with no parts, it matches only the empty path
+     */
+    @SafeVarargs
+    public static <E extends Comparable<E>> Pattern<E> sequence(Pattern<E>... parts) {
+        //copied element by element, so that the varargs array never escapes
+        List<Pattern<E>> copy = new ArrayList<Pattern<E>>(parts.length);
+        for(Pattern<E> part : parts) {
+            copy.add(part);
+        }
+        return new Pattern<E>(Pattern.SEQUENCE, null, List.copyOf(copy));
+    }
+
+    /**
+     * @spec.requires choices is not empty and its elements are not null
+     * @return a Pattern matching a path matching any of choices
+     */
+    @SafeVarargs
+    public static <E extends Comparable<E>> Pattern<E> alternative(Pattern<E>... choices) {
+        if(choices.length == 0) {
+            throw new IllegalArgumentException("alternative needs at least one choice");
+        }
+        List<Pattern<E>> copy = new ArrayList<Pattern<E>>(choices.length);
+        for(Pattern<E> choice : choices) {
+            copy.add(choice);
+        }
+        return new Pattern<E>(Pattern.ALTERNATIVE, null, List.copyOf(copy));
+    }
+
+    /**
+     * @spec.requires repeated is not null
+     * @return a Pattern matching zero or more paths matching repeated, one after another
+     */
+    public static <E extends Comparable<E>> Pattern<E> zeroOrMore(Pattern<E> repeated) {
+        return new Pattern<E>(Pattern.STAR, null, List.of(repeated));
+    }
+
+    /**
+     * @spec.requires repeated is not null
+     * @return a Pattern matching one or more paths matching repeated, one after another
+     */
+    public static <E extends Comparable<E>> Pattern<E> oneOrMore(Pattern<E> repeated) {
+        return sequence(repeated, zeroOrMore(repeated));
+    }
+
+    /**
+     * @spec.requires optional is not null
+     * @return a Pattern matching the empty path or a path matching optional
+     */
+    public static <E extends Comparable<E>> Pattern<E> optional(Pattern<E> optional) {
+        return alternative(optional, sequence());
+    }
+
+    /**
+     * @return the number of states of the automaton this PathQuery was compiled to
+     */
+    public int numberOfStates() {
+        return accepting.length;
+    }
+
+    /**
+     * @return the state paths start in
+     */
+    int startState() {
+        return 0;
+    }
+
+    /**
+     * @spec.requires 0 <= state < numberOfStates()
+     * @return true if a path leading to state matches
+     */
+    boolean isAccepting(int state) {
+        return accepting[state];
+    }
+
+    /**
+     * @spec.requires 0 <= state < numberOfStates() and label is not null
+     * @return the state a path in 'state' is in after following an edge labeled
+     * by label, or -1 if no path continuing that way can match
+     */
+    int next(int state, E label) {
+        Integer target = transitions.get(state).get(label);
+        return target != null ? target : otherwise[state];
+    }
+
+    /**
+     * @return the pattern this PathQuery was compiled from, in the syntax of parse:
+     * as it was written if it was parsed
+     */
+    @Override
+    public String toString() {
+        return description;
+    }
+
+    /**
+     * Ensures representation invariant holds
+     */
+    private void checkRep() {
+        assert(description != null && accepting != null && transitions != null && otherwise != null);
+        assert(accepting.length > 0 && accepting.length == transitions.size()
+                && accepting.length == otherwise.length);
+    }
+
+    /**
+     * Abstract state:
+     * Pattern represents an immutable regular expression over edge labels
+     */
+    public static final class Pattern <E extends Comparable<E>> {
+
+        private static final int LABEL = 0;
+        private static final int ANY = 1;
+        private static final int SEQUENCE = 2;
+        private static final int ALTERNATIVE = 3;
+        private static final int STAR = 4;
+
+        private final int kind;
+        private final E label;
+        private final List<Pattern<E>> parts;
+
+        // Representation Invariant:
+        // parts != null; label is not null exactly when kind is LABEL; parts is
+        // empty for LABEL and ANY, not empty for ALTERNATIVE, and holds one
+        // element for STAR
+
+        /**
+         * @spec.effects Constructs a new Pattern
+         */
+        private Pattern(int kind, E label, List<Pattern<E>> parts) {
+            this.kind = kind;
+            this.label = label;
+            this.parts = parts;
+        }
+
+        /**
+         * @spec.requires start is a state of nfa
+         * @spec.modifies states and transitions are added to nfa so that the paths
+         * from start to the returned state spell exactly the matches of this Pattern
+         * @return the state the fragment ends in
+         */
+        private int build(Automaton<E> nfa, int start) {
+            switch(kind) {
+                case LABEL:
+                case ANY: {
+                    int end = nfa.newState();
+                    nfa.addLabeled(start, kind == ANY, label, end);
+                    return end;
+                }
+                case SEQUENCE: {
+                    int end = start;
+                    for(Pattern<E> part : parts) {
+                        end = part.build(nfa, end);
+                    }
+                    return end;
+                }
+                case ALTERNATIVE: {
+                    int end = nfa.newState();
+                    for(Pattern<E> part : parts) {
+                        int branch = nfa.newState();
+                        nfa.addEmpty(start, branch);
+                        nfa.addEmpty(part.build(nfa, branch), end);
+                    }
+                    return end;
+                }
+                default: {
+                    int loop = nfa.newState();
+                    nfa.addEmpty(start, loop);
+                    nfa.addEmpty(parts.get(0).build(nfa, loop), loop);
+                    return loop;
+                }
+            }
+        }
+
+        /**
+         * @return this Pattern in the syntax of PathQuery.parse, fully parenthesized
+         * where precedence would otherwise be needed
+         */
+        @Override
+        public String toString() {
+            switch(kind) {
+                case LABEL:
+                    return quote(label.toString());
+                case ANY:
+                    return ".";
+                case SEQUENCE:
+                    if(parts.isEmpty()) {
+                        return "()";
+                    }
+                    StringBuilder sequence = new StringBuilder();
+                    for(Pattern<E> part : parts) {
+                        if(sequence.length() > 0) {
+                            sequence.append('/');
+                        }
+                        sequence.append(part.kind == ALTERNATIVE ? "(" + part + ")" : part.toString());
+                    }
+                    return sequence.toString();
+                case ALTERNATIVE:
+                    StringBuilder alternative = new StringBuilder();
+                    for(Pattern<E> part : parts) {
+                        if(alternative.length() > 0) {
+                            alternative.append('|');
+                        }
+                        alternative.append(part);
+                    }
+                    return alternative.toString();
+                default:
+                    Pattern<E> repeated = parts.get(0);
+                    boolean atomic = repeated.kind == LABEL || repeated.kind == ANY;
+                    return (atomic ? repeated.toString() : "(" + repeated + ")") + "*";
+            }
+        }
+
+        /**
+         * @return name as written by parse: bare if it can be, otherwise quoted
+         */
+        private static String quote(String name) {
+            boolean bare = !name.isEmpty() && !name.equals(".");
+            for(int i = 0; i < name.length() && bare; i++) {
+                bare = !Parser.isSpecial(name.charAt(i));
+            }
+            return bare ? name : "'" + name.replace("'", "''") + "'";
+        }
+    }
+
+    /**
+     * Abstract state:
+     * Automaton represents a nondeterministic finite automaton over labels under
+     * construction, with empty moves, whose start state is 0
+     */
+    private static final class Automaton <E extends Comparable<E>> {
+
+        private final List<List<Integer>> empty;
+        private final List<List<Object[]>> labeled;
+
+        // Representation Invariant:
+        // empty.size() == labeled.size() is the number of states; every entry of
+        // labeled is {Boolean any, E label or null, Integer target}
+
+        /**
+         * @spec.effects Constructs a new Automaton holding only its start state
+         */
+        public Automaton() {
+            empty = new ArrayList<List<Integer>>();
+            labeled = new ArrayList<List<Object[]>>();
+            newState();
+        }
+
+        /**
+         * @return a new state with no moves
+         */
+        public int newState() {
+            empty.add(new ArrayList<Integer>());
+            labeled.add(new ArrayList<Object[]>());
+            return empty.size() - 1;
+        }
+
+        /**
+         * @spec.modifies a move from 'from' to 'to' taking no edge is added
+         */
+        public void addEmpty(int from, int to) {
+            empty.get(from).add(to);
+        }
+
+        /**
+         * @spec.modifies a move from 'from' to 'to' along an edge labeled by label,
+         * or by any label if 'any', is added
+         */
+        public void addLabeled(int from, boolean any, E label, int to) {
+            labeled.get(from).add(new Object[] {any, label, to});
+        }
+
+        /**
+         * @spec.requires accept is a state
+         * @return a PathQuery accepting what this Automaton accepts in state 'accept',
+         * built by the subset construction, with the labels this Automaton never
+         * names all moving alike
+         */
+        @SuppressWarnings("unchecked")
+        public PathQuery<E> determinize(int accept, String description) {
+            Set<E> alphabet = new TreeSet<E>();
+            for(List<Object[]> moves : labeled) {
+                for(Object[] move : moves) {
+                    if(!(Boolean) move[0]) {
+                        alphabet.add((E) move[1]);
+                    }
+                }
+            }
+            Map<BitSet, Integer> ids = new HashMap<BitSet, Integer>();
+            List<BitSet> subsets = new ArrayList<BitSet>();
+            List<TreeMap<E, Integer>> transitions = new ArrayList<TreeMap<E, Integer>>();
+            List<Integer> otherwise = new ArrayList<Integer>();
+            BitSet start = new BitSet();
+            start.set(0);
+            closure(start);
+            ids.put(start, 0);
+            subsets.add(start);
+            //inv: the subsets before i have had their transitions filled in
+            for(int i = 0; i < subsets.size(); i++) {
+                BitSet current = subsets.get(i);
+                TreeMap<E, Integer> moves = new TreeMap<E, Integer>();
+                int fallback = idOf(step(current, true, null), ids, subsets);
+                for(E label : alphabet) {
+                    int target = idOf(step(current, false, label), ids, subsets);
+                    if(target != fallback) {
+                        moves.put(label, target);
+                    }
+                }
+                transitions.add(moves);
+                otherwise.add(fallback);
+            }
+            boolean[] accepting = new boolean[subsets.size()];
+            int[] fallbacks = new int[subsets.size()];
+            for(int i = 0; i < subsets.size(); i++) {
+                accepting[i] = subsets.get(i).get(accept);
+                fallbacks[i] = otherwise.get(i);
+            }
+            prune(accepting, transitions, fallbacks);
+            return new PathQuery<E>(description, accepting, transitions, fallbacks);
+        }
+
+        /**
+         * @spec.modifies states is extended with every state reachable from it by empty moves
+         */
+        private void closure(BitSet states) {
+            ArrayDeque<Integer> pending = new ArrayDeque<Integer>();
+            states.stream().forEach(pending::add);
+            while(!pending.isEmpty()) {
+                for(int next : empty.get(pending.poll())) {
+                    if(!states.get(next)) {
+                        states.set(next);
+                        pending.add(next);
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return the closure of the states reached from 'states' along an edge
+         * labeled by label, or, if 'other', by a label this Automaton never names
+         */
+        private BitSet step(BitSet states, boolean other, E label) {
+            BitSet reached = new BitSet();
+            for(int state = states.nextSetBit(0); state >= 0; state = states.nextSetBit(state + 1)) {
+                for(Object[] move : labeled.get(state)) {
+                    if((Boolean) move[0] || (!other && move[1].equals(label))) {
+                        reached.set((Integer) move[2]);
+                    }
+                }
+            }
+            closure(reached);
+            return reached;
+        }
+
+        /**
+         * @spec.modifies a non-empty subset not yet seen is given the next id
+         * @return the id of subset, or -1 if it is empty
+         */
+        private static int idOf(BitSet subset, Map<BitSet, Integer> ids, List<BitSet> subsets) {
+            if(subset.isEmpty()) {
+                return -1;
+            }
+            Integer id = ids.get(subset);
+            if(id == null) {
+                id = subsets.size();
+                ids.put(subset, id);
+                subsets.add(subset);
+            }
+            return id;
+        }
+
+        /**
+         * @spec.modifies every move into a state other than 0 from which no accepting
+         * state can be reached is redirected to -1, so no search follows it
+         */
+        private static <E> void prune(boolean[] accepting, List<TreeMap<E, Integer>> transitions, int[] otherwise) {
+            boolean[] live = accepting.clone();
+            boolean changed = true;
+            while(changed) {
+                changed = false;
+                for(int state = 0; state < live.length; state++) {
+                    if(live[state]) {
+                        continue;
+                    }
+                    boolean reachesLive = otherwise[state] >= 0 && live[otherwise[state]];
+                    for(int target : transitions.get(state).values()) {
+                        reachesLive |= live[target];
+                    }
+                    if(reachesLive) {
+                        live[state] = true;
+                        changed = true;
+                    }
+                }
+            }
+            for(int state = 0; state < live.length; state++) {
+                if(otherwise[state] >= 0 && !live[otherwise[state]]) {
+                    otherwise[state] = -1;
+                }
+                transitions.get(state).values().removeIf(target -> !live[target]);
+            }
+        }
+    }
+
+    /**
+     * Abstract state:
+     * Parser represents the reading of one pattern written in the syntax of parse
+     */
+    private static final class Parser <E extends Comparable<E>> {
+
+        private final String text;
+        private final Function<String, E> labelParser;
+        private int position;
+
+        /**
+         * @spec.effects Constructs a new Parser at the start of text
+         */
+        public Parser(String text, Function<String, E> labelParser) {
+            this.text = text;
+            this.labelParser = labelParser;
+            this.position = 0;
+        }
+
+        /**
+         * @return true if c cannot appear in a bare label name
+         */
+        private static boolean isSpecial(char c) {
+            return Character.isWhitespace(c) || "()|/*+?'".indexOf(c) >= 0;
+        }
+
+        /**
+         * @return the Pattern the whole text describes
+         * @throws IllegalArgumentException if text is not a well-formed pattern
+         */
+        public Pattern<E> parse() {
+            Pattern<E> pattern = alternative();
+            skipSpace();
+            if(position < text.length()) {
+                throw error("unexpected '" + text.charAt(position) + "'");
+            }
+            return pattern;
+        }
+
+        /**
+         * @return the alternative starting at the current position
+         */
+        private Pattern<E> alternative() {
+            List<Pattern<E>> choices = new ArrayList<Pattern<E>>();
+            choices.add(sequence());
+            while(accept('|')) {
+                choices.add(sequence());
+            }
+            return choices.size() == 1 ? choices.get(0) : new Pattern<E>(Pattern.ALTERNATIVE, null, choices);
+        }
+
+        /**
+         * @return the sequence starting at the current position
+         */
+        private Pattern<E> sequence() {
+            List<Pattern<E>> parts = new ArrayList<Pattern<E>>();
+            parts.add(repetition());
+            while(accept('/')) {
+                parts.add(repetition());
+            }
+            return parts.size() == 1 ? parts.get(0) : new Pattern<E>(Pattern.SEQUENCE, null, parts);
+        }
+
+        /**
+         * @return the atom starting at the current position with any repetitions applied
+         */
+        private Pattern<E> repetition() {
+            Pattern<E> pattern = atom();
+            while(true) {
+                if(accept('*')) {
+                    pattern = zeroOrMore(pattern);
+                } else if(accept('+')) {
+                    pattern = oneOrMore(pattern);
+                } else if(accept('?')) {
+                    pattern = optional(pattern);
+                } else {
+                    return pattern;
+                }
+            }
+        }
+
+        /**
+         * @return the group, wildcard or label at the current position
+         */
+        private Pattern<E> atom() {
+            skipSpace();
+            if(accept('(')) {
+                if(accept(')')) {
+                    return new Pattern<E>(Pattern.SEQUENCE, null, List.of());
+                }
+                Pattern<E> inner = alternative();
+                if(!accept(')')) {
+                    throw error("expected ')'");
+                }
+                return inner;
+            }
+            if(position < text.length() && text.charAt(position) == '\'') {
+                StringBuilder name = new StringBuilder();
+                position++;
+                while(true) {
+                    if(position >= text.length()) {
+                        throw error("unterminated quoted label");
+                    }
+                    char c = text.charAt(position++);
+                    if(c == '\'') {
+                        if(position < text.length() && text.charAt(position) == '\'') {
+                            position++;
+                        } else {
+                            break;
+                        }
+                    }
+                    name.append(c);
+                }
+                return label(labelParser.apply(name.toString()));
+            }
+            int start = position;
+            while(position < text.length() && !isSpecial(text.charAt(position))) {
+                position++;
+            }
+            if(start == position) {
+                throw error(position < text.length() ? "unexpected '" + text.charAt(position) + "'"
+                        : "unexpected end of pattern");
+            }
+            String name = text.substring(start, position);
+            return name.equals(".") ? anyLabel() : label(labelParser.apply(name));
+        }
+
+        /**
+         * @spec.modifies if the next character past any whitespace is c, it is consumed
+         * @return true if c was consumed, false otherwise
+         */
+        private boolean accept(char c) {
+            skipSpace();
+            if(position < text.length() && text.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * @spec.modifies the current position is moved past any whitespace
+         */
+        private void skipSpace() {
+            while(position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        /**
+         * @return an exception reporting message at the current position
+         */
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + position + " of pattern: " + text);
+        }
+    }
+}
@@ -0,0 +1,442 @@
+/**
+ * Abstract state:
+ * QueryCache represents a bounded memo of the answers to reachability and
+ * shortest-path queries on one Graph. Each answer is kept with the version of
+ * every Node whose outgoing Edges the query examined; an answer is given again
+ * only while all of those versions are unchanged, so it is never stale, and is
+ * otherwise computed afresh. Once full, the least recently or least frequently
+ * used answer is evicted, as chosen when the QueryCache is made. Queries may be
+ * asked from several threads at once, but, as for the Graph itself, not while
+ * the Graph is being modified
+ */
+
+import java.util.*;
+
+public final class QueryCache <N extends Comparable<N>, E extends Comparable<E>> {
+
+    /**
+     * Abstract state:
+     * Eviction represents the rule for choosing which answer a full QueryCache drops
+     */
+    public enum Eviction {
+        /** drops the answer asked for longest ago */
+        LRU,
+        /** drops the answer asked for fewest times, the least recently used among ties */
+        LFU
+    }
+
+    private static final int PATH = 0;
+    private static final int REACHABLE = 1;
+
+    private final Graph<N,E> graph;
+    private final int capacity;
+    private final Eviction eviction;
+    private final LinkedHashMap<Query<N,E>, Answer<N>> answers;
+    private final TreeMap<Integer, LinkedHashSet<Query<N,E>>> byFrequency;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    // Abstraction Function:
+    // QueryCache, c, represents the memo holding, for every key q of answers,
+    // the answer answers.get(q).result to the query q on graph, as it stood
+    // when every Node in answers.get(q).footprint had the matching version.
+    //
+    // Representation Invariant for every QueryCache c:
+    // no field is null, capacity > 0 and answers.size() <= capacity
+    // If eviction is LRU, answers is in access order and byFrequency is empty
+    // If eviction is LFU, answers is in insertion order and every key of answers
+    // with frequency f is in byFrequency.get(f), in the order it reached f, and
+    // byFrequency holds nothing else and no empty set
+
+    /**
+     * @spec.requires graph is not null, capacity > 0 and eviction is not null
+     * @param graph is the Graph queries are answered on
+     * @param capacity is the most answers held at once
+     * @param eviction chooses which answer to drop when a new one does not fit
+     * @spec.effects Constructs a new, empty QueryCache
+     */
+    public QueryCache(Graph<N,E> graph, int capacity, Eviction eviction) {
+        this.graph = graph;
+        this.capacity = capacity;
+        this.eviction = eviction;
+        this.answers = new LinkedHashMap<Query<N,E>, Answer<N>>(16, 0.75f, eviction == Eviction.LRU);
+        this.byFrequency = new TreeMap<Integer, LinkedHashSet<Query<N,E>>>();
+        this.checkRep();
+    }
+
+    /**
+     * @spec.requires Nodes with startingData and endingData exist in the Graph
+     * @return the same as Graph.isReachable(startingData, endingData)
+     */
+    public boolean isReachable(N startingData, N endingData) {
+        return !shortestPath(startingData, endingData).isEmpty();
+    }
+
+    /**
+     * @spec.requires Nodes with startingData and endingData exist in the Graph and
+     * labels is not null
+     * @param labels are the labels of the Edges paths may follow
+     * @return the same as Graph.isReachable(startingData, endingData, labels::contains)
+     */
+    public boolean isReachable(N startingData, N endingData, Set<E> labels) {
+        return !shortestPath(startingData, endingData, labels).isEmpty();
+    }
+
+    /**
+     * @spec.requires Nodes with startingData and endingData exist in the Graph
+     * @return an unmodifiable List equal to Graph.shortestPath(startingData, endingData)
+     */
+    public List<N> shortestPath(N startingData, N endingData) {
+        return cachedPath(new Query<N,E>(PATH, startingData, endingData, null));
+    }
+
+    /**
+     * @spec.requires Nodes with startingData and endingData exist in the Graph and
+     * labels is not null
+     * @param labels are the labels of the Edges the path may follow
+     * @return an unmodifiable List equal to
+     * Graph.shortestPath(startingData, endingData, labels::contains)
+     */
+    public List<N> shortestPath(N startingData, N endingData, Set<E> labels) {
+        return cachedPath(new Query<N,E>(PATH, startingData, endingData, Set.copyOf(labels)));
+    }
+
+    /**
+     * @spec.requires Node with startingData exists in the Graph
+     * @return an unmodifiable Set of the data of every Node reachable from the
+     * Node with startingData, including it, iterated in breadth-first order
+     */
+    public Set<N> reachableFrom(N startingData) {
+        return cachedReachable(new Query<N,E>(REACHABLE, startingData, null, null));
+    }
+
+    /**
+     * @spec.requires Node with startingData exists in the Graph and labels is not null
+     * @param labels are the labels of the Edges paths may follow
+     * @return an unmodifiable Set of the data of every Node reachable from the
+     * Node with startingData along Edges with labels in 'labels', including it,
+     * iterated in breadth-first order
+     */
+    public Set<N> reachableFrom(N startingData, Set<E> labels) {
+        return cachedReachable(new Query<N,E>(REACHABLE, startingData, null, Set.copyOf(labels)));
+    }
+
+    /**
+     * @return the number of queries answered from this QueryCache
+     */
+    public synchronized long hits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of queries answered by searching the Graph, whether
+     * no answer was held or the one held had gone stale
+     */
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of answers dropped to make room for others
+     */
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    /**
+     * @return the number of answers dropped because the Graph changed under them
+     */
+    public synchronized long invalidations() {
+        return invalidations;
+    }
+
+    /**
+     * @return the fraction of queries answered from this QueryCache, or 0 if
+     * none have been asked
+     */
+    public synchronized double hitRate() {
+        long asked = hits + misses;
+        return asked == 0 ? 0.0 : (double) hits / asked;
+    }
+
+    /**
+     * @return the number of answers held
+     */
+    public synchronized int size() {
+        return answers.size();
+    }
+
+    /**
+     * @spec.modifies every answer is dropped; the counts are kept
+     */
+    public synchronized void clear() {
+        answers.clear();
+        byFrequency.clear();
+        this.checkRep();
+    }
+
+    /**
+     * @return the counts of this QueryCache as one line
+     */
+    @Override
+    public synchronized String toString() {
+        return String.format("%d/%d answers (%s), %d hits, %d misses, %d evictions, %d invalidations",
+                answers.size(), capacity, eviction, hits, misses, evictions, invalidations);
+    }
+
+    /**
+     * @spec.requires query is a PATH query
+     * @return the answer to query, from this QueryCache if it holds a fresh one
+     */
+    @SuppressWarnings("unchecked")
+    private List<N> cachedPath(Query<N,E> query) {
+        return (List<N>) answer(query);
+    }
+
+    /**
+     * @spec.requires query is a REACHABLE query
+     * @return the answer to query, from this QueryCache if it holds a fresh one
+     */
+    @SuppressWarnings("unchecked")
+    private Set<N> cachedReachable(Query<N,E> query) {
+        return (Set<N>) answer(query);
+    }
+
+    /**
+     * @spec.modifies if a fresh answer to query is held it is counted as a hit and
+     * marked as used, otherwise any stale answer is dropped, the query is answered
+     * on the Graph, counted as a miss and held, evicting another answer if full
+     * @return the answer to query
+     */
+    private synchronized Object answer(Query<N,E> query) {
+        Answer<N> held = answers.get(query);
+        if(held != null && isFresh(held)) {
+            hits++;
+            used(query, held);
+            return held.result;
+        }
+        if(held != null) {
+            invalidations++;
+            forget(query, held);
+        }
+        misses++;
+        Answer<N> computed = query.kind == PATH ? searchPath(query) : searchReachable(query);
+        if(answers.size() >= capacity) {
+            evict();
+        }
+        answers.put(query, computed);
+        if(eviction == Eviction.LFU) {
+            byFrequency.computeIfAbsent(computed.frequency, f -> new LinkedHashSet<Query<N,E>>()).add(query);
+        }
+        this.checkRep();
+        return computed.result;
+    }
+
+    /**
+     * @spec.modifies held is stamped with the Graph's current version if it is fresh
+     * @return true if every Node of held's footprint has the version it had when
+     * held was computed, false otherwise. Checks nothing if the Graph has not
+     * changed since held was last found fresh
+     */
+    private boolean isFresh(Answer<N> held) {
+        long now = graph.version();
+        if(held.stamp == now) {
+            return true;
+        }
+        for(int i = 0; i < held.footprint.size(); i++) {
+            if(graph.versionOf(held.footprint.get(i)) != held.versions[i]) {
+                return false;
+            }
+        }
+        held.stamp = now;
+        return true;
+    }
+
+    /**
+     * @spec.modifies query's use is recorded for eviction
+     */
+    private void used(Query<N,E> query, Answer<N> held) {
+        if(eviction == Eviction.LFU) {
+            unlist(query, held.frequency);
+            held.frequency++;
+            byFrequency.computeIfAbsent(held.frequency, f -> new LinkedHashSet<Query<N,E>>()).add(query);
+        }
+    }
+
+    /**
+     * @spec.modifies query and its answer are dropped
+     */
+    private void forget(Query<N,E> query, Answer<N> held) {
+        answers.remove(query);
+        if(eviction == Eviction.LFU) {
+            unlist(query, held.frequency);
+        }
+    }
+
+    /**
+     * @spec.modifies query is removed from the set of queries used 'frequency' times
+     */
+    private void unlist(Query<N,E> query, int frequency) {
+        LinkedHashSet<Query<N,E>> same = byFrequency.get(frequency);
+        same.remove(query);
+        if(same.isEmpty()) {
+            byFrequency.remove(frequency);
+        }
+    }
+
+    /**
+     * @spec.requires answers is not empty
+     * @spec.modifies the answer chosen by eviction is dropped
+     */
+    private void evict() {
+        Query<N,E> victim;
+        if(eviction == Eviction.LRU) {
+            victim = answers.keySet().iterator().next();
+        } else {
+            victim = byFrequency.firstEntry().getValue().iterator().next();
+        }
+        forget(victim, answers.get(victim));
+        evictions++;
+    }
+
+    /**
+     * @return the answer to a PATH query, found by the same breadth-first search as
+     * Graph.shortestPath, whose footprint is every Node expanded and the goal
+     */
+    private Answer<N> searchPath(Query<N,E> query) {
+        N goal = query.end;
+        Map<N, N> previous = new HashMap<N, N>();
+        ArrayDeque<N> frontier = new ArrayDeque<N>();
+        List<N> footprint = new ArrayList<N>();
+        previous.put(query.start, query.start);
+        frontier.add(query.start);
+        //inv: every node in frontier has been discovered by a path no longer
+        //than that of any undiscovered node, and footprint holds every node expanded
+        while(!frontier.isEmpty() && !previous.containsKey(goal)) {
+            N current = frontier.poll();
+            footprint.add(current);
+            graph.forEachEdge(current, (label, child) -> {
+                if(!previous.containsKey(child) && query.allows(label)) {
+                    previous.put(child, current);
+                    frontier.add(child);
+                }
+            });
+        }
+        footprint.add(goal);
+        List<N> path = new ArrayList<N>();
+        if(previous.containsKey(goal)) {
+            for(N current = goal; !current.equals(query.start); current = previous.get(current)) {
+                path.add(current);
+            }
+            path.add(query.start);
+            Collections.reverse(path);
+        }
+        return new Answer<N>(Collections.unmodifiableList(path), footprint, graph);
+    }
+
+    /**
+     * @return the answer to a REACHABLE query, found by breadth-first search,
+     * whose footprint is every Node reached
+     */
+    private Answer<N> searchReachable(Query<N,E> query) {
+        Set<N> reached = new LinkedHashSet<N>();
+        ArrayDeque<N> frontier = new ArrayDeque<N>();
+        reached.add(query.start);
+        frontier.add(query.start);
+        //inv: every node reached but not in frontier has had its Edges followed
+        while(!frontier.isEmpty()) {
+            graph.forEachEdge(frontier.poll(), (label, child) -> {
+                if(query.allows(label) && reached.add(child)) {
+                    frontier.add(child);
+                }
+            });
+        }
+        return new Answer<N>(Collections.unmodifiableSet(reached), new ArrayList<N>(reached), graph);
+    }
+
+    /**
+     * Ensures representation invariant holds
+     */
+    private void checkRep() {
+        assert(graph != null && eviction != null && answers != null && byFrequency != null);
+        assert(capacity > 0 && answers.size() <= capacity);
+        assert(eviction == Eviction.LFU || byFrequency.isEmpty());
+    }
+
+    /**
+     * Abstract state:
+     * Query represents one question asked of a Graph: the shortest path between
+     * two Nodes, or every Node reachable from one, optionally following only
+     * Edges with certain labels
+     */
+    private static final class Query <N, E> {
+
+        private final int kind;
+        private final N start;
+        private final N end;
+        private final Set<E> labels;
+
+        /**
+         * @spec.effects Constructs a new Query; end is null for REACHABLE queries,
+         * and labels is null if every label may be followed
+         */
+        public Query(int kind, N start, N end, Set<E> labels) {
+            this.kind = kind;
+            this.start = start;
+            this.end = end;
+            this.labels = labels;
+        }
+
+        /**
+         * @return true if this Query may follow an Edge with the given label
+         */
+        public boolean allows(E label) {
+            return labels == null || labels.contains(label);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof Query<?,?>)) {
+                return false;
+            }
+            Query<?,?> other = (Query<?,?>) o;
+            return kind == other.kind && start.equals(other.start) && Objects.equals(end, other.end)
+                    && Objects.equals(labels, other.labels);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, start, end, labels);
+        }
+    }
+
+    /**
+     * Abstract state:
+     * Answer represents the result of a Query together with the Nodes it
+     * depends on and their versions when it was computed
+     */
+    private static final class Answer <N extends Comparable<N>> {
+
+        private final Object result;
+        private final List<N> footprint;
+        private final long[] versions;
+        private long stamp;
+        private int frequency;
+
+        /**
+         * @spec.effects Constructs a new Answer computed on graph as it is now
+         */
+        public Answer(Object result, List<N> footprint, Graph<N,?> graph) {
+            this.result = result;
+            this.footprint = footprint;
+            this.versions = new long[footprint.size()];
+            for(int i = 0; i < versions.length; i++) {
+                versions[i] = graph.versionOf(footprint.get(i));
+            }
+            this.stamp = graph.version();
+            this.frequency = 1;
+        }
+    }
+}
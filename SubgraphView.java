@@ -0,0 +1,232 @@
+/**
+ * Abstract state:
+ * SubgraphView represents a read-only view of part of a Graph: the nodes it
+ * accepts, and the edges between them whose labels it accepts. Nothing is copied;
+ * every query is answered from the Graph as it is at the time, filtering nodes and
+ * edges as it goes, so later modification of the Graph shows through. A view can
+ * be materialized into a compact FrozenGraph with freeze
+ */
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+public final class SubgraphView <N extends Comparable<N>, E extends Comparable<E>> {
+
+    private final Graph<N,E> graph;
+    private final Set<N> members;
+    private final Predicate<? super N> nodeFilter;
+    private final Predicate<? super E> labelFilter;
+
+    // Abstraction Function:
+    // SubgraphView, v, represents the subgraph of graph holding every node of
+    // graph whose data is in members, or, if members is null, is accepted by
+    // nodeFilter, together with every edge of graph between two such nodes whose
+    // label labelFilter accepts.
+    //
+    // Representation Invariant for every SubgraphView v:
+    // graph != null && nodeFilter != null && labelFilter != null
+    // if members is not null, nodeFilter accepts exactly its elements
+
+    /**
+     * @spec.requires graph, nodeFilter and labelFilter are not null; if members is
+     * not null nodeFilter accepts exactly its elements, and neither is modified later
+     * @spec.effects Constructs a new SubgraphView of graph
+     * @param members lists every node the view may hold, or is null to consider
+     * every node of graph
+     */
+    SubgraphView(Graph<N,E> graph, Set<N> members, Predicate<? super N> nodeFilter,
+                 Predicate<? super E> labelFilter) {
+        this.graph = graph;
+        this.members = members;
+        this.nodeFilter = nodeFilter;
+        this.labelFilter = labelFilter;
+        this.checkRep();
+    }
+
+    /**
+     * @param nodeData is the data of the node being sought
+     * @return true if the Graph holds a node with nodeData and this view accepts it,
+     * false otherwise
+     */
+    public boolean containsNode(N nodeData) {
+        return graph.containsNode(nodeData) && nodeFilter.test(nodeData);
+    }
+
+    /**
+     * @return the number of nodes in this view, counted by filtering the Graph's
+     * nodes, or this view's own node set if it was given one
+     */
+    public int numberOfNodes() {
+        int count = 0;
+        for(N node : candidates()) {
+            if(containsNode(node)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of edges in this view, counted by filtering the edges of
+     * every node in it
+     */
+    public int numberOfEdges() {
+        int[] count = new int[1];
+        for(N node : candidates()) {
+            if(containsNode(node)) {
+                forEachEdge(node, (label, child) -> count[0]++);
+            }
+        }
+        return count[0];
+    }
+
+    /**
+     * @return a List of the data of every node in this view sorted lexicographically
+     */
+    public List<N> allNodes() {
+        List<N> allNodes = new ArrayList<N>();
+        for(N node : candidates()) {
+            if(containsNode(node)) {
+                allNodes.add(node);
+            }
+        }
+        Collections.sort(allNodes);
+        return allNodes;
+    }
+
+    /**
+     * @spec.requires node with startingData is in this view
+     * @param startingData is the data of the node whose children are sought
+     * @return a List containing the data of the child of every edge of this view
+     * leading away from the node with given data, in the same order as Graph.childNodes
+     */
+    public List<N> childNodes(N startingData) {
+        List<N> children = new ArrayList<N>();
+        forEachEdge(startingData, (label, child) -> children.add(child));
+        return children;
+    }
+
+    /**
+     * @spec.requires node with nodeData is in this view
+     * @param nodeData is the data of the node whose edges are sought
+     * @return a Map where the keys are the labels of the edges of this view leading
+     * away from the node with the given data and the internal data is a List
+     * containing the data of the nodes those edges lead to, sorted lexicographically
+     */
+    public Map<E, List<N>> edgesOf(N nodeData) {
+        Map<E, List<N>> edgeToNodes = new TreeMap<E, List<N>>();
+        forEachEdge(nodeData, (label, child) ->
+                edgeToNodes.computeIfAbsent(label, key -> new ArrayList<N>()).add(child));
+        return edgeToNodes;
+    }
+
+    /**
+     * @spec.requires nodes with startingData and endingData are in this view
+     * @param startingData is the data of the parent node of the sought edges
+     * @param endingData is the data of the child node of the sought edges
+     * @return a List of the labels of edges of this view leading from the node with
+     * startingData to the node with endingData, sorted lexicographically
+     */
+    public List<E> edgesBetween(N startingData, N endingData) {
+        List<E> between = new ArrayList<E>();
+        for(E label : graph.edgesBetween(startingData, endingData)) {
+            if(labelFilter.test(label)) {
+                between.add(label);
+            }
+        }
+        return between;
+    }
+
+    /**
+     * @spec.requires node with startingData is in this view
+     * @param startingData is the data of the node this method starts from
+     * @param label is the edge label this method follows
+     * @return a List of the data of every node of this view reached by an edge
+     * labeled by 'label' leading away from the node with startingData, sorted
+     * lexicographically
+     */
+    public List<N> nextNodesForLabel(N startingData, E label) {
+        List<N> reachable = new ArrayList<N>();
+        if(!labelFilter.test(label)) {
+            return reachable;
+        }
+        for(N child : graph.nextNodesView(startingData, label)) {
+            if(nodeFilter.test(child)) {
+                reachable.add(child);
+            }
+        }
+        return reachable;
+    }
+
+    /**
+     * @spec.requires node with startingData is in this view, action is not null, and
+     * action does not modify the Graph
+     * @param startingData is the data of the node whose edges are visited
+     * @param action is given the label and child data of every edge of this view
+     * leading away from the node with given data, in the same order as childNodes
+     */
+    public void forEachEdge(N startingData, BiConsumer<? super E, ? super N> action) {
+        graph.forEachEdge(startingData, (label, child) -> {
+            if(labelFilter.test(label) && nodeFilter.test(child)) {
+                action.accept(label, child);
+            }
+        });
+    }
+
+    /**
+     * @return an immutable FrozenGraph holding the same nodes and edges as this
+     * view does now. Later modification of the Graph does not affect it
+     */
+    public FrozenGraph<N,E> freeze() {
+        List<N> sorted = allNodes();
+        Map<N, Integer> ids = new HashMap<N, Integer>(sorted.size() * 2);
+        @SuppressWarnings("unchecked")
+        N[] nodes = (N[]) new Comparable<?>[sorted.size()];
+        Set<E> distinctLabels = new TreeSet<E>();
+        int[] offsets = new int[sorted.size() + 1];
+        for(int i = 0; i < sorted.size(); i++) {
+            nodes[i] = sorted.get(i);
+            ids.put(nodes[i], i);
+            int[] count = new int[1];
+            forEachEdge(nodes[i], (label, child) -> {
+                distinctLabels.add(label);
+                count[0]++;
+            });
+            offsets[i + 1] = offsets[i] + count[0];
+        }
+        @SuppressWarnings("unchecked")
+        E[] labels = (E[]) distinctLabels.toArray(new Comparable<?>[distinctLabels.size()]);
+        Map<E, Integer> labelIds = new HashMap<E, Integer>(labels.length * 2);
+        for(int i = 0; i < labels.length; i++) {
+            labelIds.put(labels[i], i);
+        }
+        int[] targets = new int[offsets[sorted.size()]];
+        int[] edgeLabels = new int[targets.length];
+        //inv: after i iterations the edges of the first i nodes, which are
+        //already sorted by child and label, fill targets and edgeLabels
+        for(int i = 0; i < nodes.length; i++) {
+            int[] k = {offsets[i]};
+            forEachEdge(nodes[i], (label, child) -> {
+                targets[k[0]] = ids.get(child);
+                edgeLabels[k[0]] = labelIds.get(label);
+                k[0]++;
+            });
+        }
+        return new FrozenGraph<N,E>(nodes, labels, offsets, targets, edgeLabels);
+    }
+
+    /**
+     * @return the data of every node that may be in this view
+     */
+    private Collection<N> candidates() {
+        return members != null ? members : graph.allNodesView();
+    }
+
+    /**
+     * Ensures representation invariant holds
+     */
+    private void checkRep() {
+        assert(graph != null && nodeFilter != null && labelFilter != null);
+    }
+}
@@ -0,0 +1,37 @@
+package graphbench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmark jar. Accepts every standard JMH command line
+ * option and, unless they are given, defaults to writing JSON results to
+ * jmh-result.json and to running the GC profiler so allocation rates are
+ * reported alongside times. Pass -Dgraphbench.gc=false to leave the profiler out
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions given = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(given);
+        if(!given.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if(!given.getResult().hasValue()) {
+            options.result("jmh-result.json");
+        }
+        if(given.getProfilers().isEmpty() && Boolean.parseBoolean(System.getProperty("graphbench.gc", "true"))) {
+            options.addProfiler(GCProfiler.class);
+        }
+        new Runner(options.build()).run();
+    }
+}
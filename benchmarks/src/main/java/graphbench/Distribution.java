@@ -0,0 +1,11 @@
+package graphbench;
+
+/**
+ * How the endpoints of the edges of a generated graph are chosen
+ */
+public enum Distribution {
+    /** every node is equally likely to be either endpoint */
+    UNIFORM,
+    /** low node ids are far more likely endpoints, giving a few hub nodes */
+    POWER_LAW
+}
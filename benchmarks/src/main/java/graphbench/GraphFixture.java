@@ -0,0 +1,147 @@
+package graphbench;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Abstract state:
+ * GraphFixture represents a randomly generated Graph of Integer nodes and
+ * Integer labels, together with the edges it was built from, so benchmarks
+ * can pick existing nodes and edges to query or remove
+ */
+final class GraphFixture {
+
+    static final int LABELS = 8;
+
+    final Object graph;
+    final int nodes;
+    final int[] parents;
+    final int[] children;
+    final int[] labels;
+
+    // Representation Invariant:
+    // parents, children and labels have equal lengths, and for every i the
+    // graph holds an edge from parents[i] to children[i] labeled labels[i]
+    // The graph holds exactly the nodes 0 up to but not including nodes
+
+    /**
+     * @spec.requires edges > 0
+     * @spec.effects Constructs a new Graph with about one node per eight edges and
+     * adds edges whose endpoints are drawn from distribution until it holds 'edges' of them
+     * @param edges is the number of edges in the generated graph
+     * @param distribution is how edge endpoints are drawn
+     * @param seed makes the generated graph reproducible
+     */
+    GraphFixture(int edges, Distribution distribution, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        graph = GraphHandles.newGraph();
+        nodes = Math.max(16, edges / 8);
+        for(int i = 0; i < nodes; i++) {
+            GraphHandles.addNode(graph, i);
+        }
+        parents = new int[edges];
+        children = new int[edges];
+        labels = new int[edges];
+        int added = 0;
+        //inv: the first 'added' entries of parents, children and labels are edges of graph
+        while(added < edges) {
+            int parent = pick(random, distribution);
+            int child = pick(random, distribution);
+            int label = random.nextInt(LABELS);
+            if(GraphHandles.addEdge(graph, parent, child, label)) {
+                parents[added] = parent;
+                children[added] = child;
+                labels[added] = label;
+                added++;
+            }
+        }
+    }
+
+    /**
+     * @param random is the source of randomness
+     * @param distribution is how the node is drawn
+     * @return the id of a node of the graph drawn from distribution
+     */
+    int pick(SplittableRandom random, Distribution distribution) {
+        if(distribution == Distribution.UNIFORM) {
+            return random.nextInt(nodes);
+        }
+        //u cubed piles probability onto small ids, with density falling off as a power of the id
+        double u = random.nextDouble();
+        return (int) (nodes * u * u * u);
+    }
+
+    /**
+     * @spec.requires the graph has at least 'count' distinct parent and child pairs
+     * @param random is the source of randomness
+     * @param count is how many indices to draw
+     * @return 'count' indices of edges, drawn uniformly without replacement, no two
+     * of which share both parent and child
+     */
+    int[] distinctPairs(SplittableRandom random, int count) {
+        int[] order = new int[parents.length];
+        for(int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Set<Long> seen = new HashSet<Long>();
+        int[] drawn = new int[count];
+        int found = 0;
+        //inv: order[0..i) is a uniform sample of the edges, and drawn holds those
+        //among them whose pair had not come up before
+        for(int i = 0; found < count; i++) {
+            int j = i + random.nextInt(order.length - i);
+            int edge = order[j];
+            order[j] = order[i];
+            order[i] = edge;
+            if(seen.add((long) parents[edge] * nodes + children[edge])) {
+                drawn[found++] = edge;
+            }
+        }
+        return drawn;
+    }
+
+    /**
+     * @spec.requires 0 <= count <= bound
+     * @param random is the source of randomness
+     * @param count is how many indices to draw
+     * @param bound is one past the largest index
+     * @return 'count' distinct indices drawn uniformly below bound, in random order
+     */
+    static int[] distinctIndices(SplittableRandom random, int count, int bound) {
+        Set<Integer> seen = new HashSet<Integer>();
+        int[] drawn = new int[count];
+        //Floyd's algorithm: each step draws below a bound one larger than the last,
+        //taking that bound itself if the draw repeats, so no index comes up twice
+        for(int i = 0; i < count; i++) {
+            int candidate = random.nextInt(bound - count + i + 1);
+            if(!seen.add(candidate)) {
+                candidate = bound - count + i;
+                seen.add(candidate);
+            }
+            drawn[i] = candidate;
+        }
+        //Floyd's order favours large indices late, so shuffle before returning
+        for(int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swapped = drawn[j];
+            drawn[j] = drawn[i];
+            drawn[i] = swapped;
+        }
+        return drawn;
+    }
+
+    /**
+     * @param random is the source of randomness
+     * @param count is how many indices to draw
+     * @param bound is one past the largest index
+     * @return 'count' indices drawn uniformly below bound, with replacement
+     */
+    static int[] indices(SplittableRandom random, int count, int bound) {
+        int[] drawn = new int[count];
+        for(int i = 0; i < count; i++) {
+            drawn[i] = random.nextInt(bound);
+        }
+        return drawn;
+    }
+}
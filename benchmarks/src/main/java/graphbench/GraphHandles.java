@@ -0,0 +1,195 @@
+package graphbench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Abstract state:
+ * GraphHandles represents the public operations of Graph, bound once as method
+ * handles. Graph lives in the default package, which no named package can refer
+ * to, and JMH refuses benchmarks in the default package. Calls through these
+ * static final handles are inlined by the JIT like direct calls
+ */
+final class GraphHandles {
+
+    private static final Class<?> GRAPH = graphClass();
+
+    private static final MethodHandle NEW = constructor();
+    private static final MethodHandle ADD_NODE = method("addNode", boolean.class, Comparable.class);
+    private static final MethodHandle REMOVE_NODE = method("removeNode", boolean.class, Comparable.class);
+    private static final MethodHandle CONTAINS_NODE = method("containsNode", boolean.class, Comparable.class);
+    private static final MethodHandle ADD_EDGE =
+            method("addEdge", boolean.class, Comparable.class, Comparable.class, Comparable.class);
+    private static final MethodHandle REMOVE_EDGE =
+            method("removeEdge", boolean.class, Comparable.class, Comparable.class, Comparable.class);
+    private static final MethodHandle REMOVE_EDGES_BETWEEN =
+            method("removeEdgesBetween", int.class, Comparable.class, Comparable.class);
+    private static final MethodHandle EDGES_OF = method("edgesOf", Map.class, Comparable.class);
+    private static final MethodHandle EDGES_BETWEEN =
+            method("edgesBetween", List.class, Comparable.class, Comparable.class);
+    private static final MethodHandle NEXT_NODES_FOR_LABEL =
+            method("nextNodesForLabel", List.class, Comparable.class, Comparable.class);
+    private static final MethodHandle CHILD_NODES = method("childNodes", List.class, Comparable.class);
+    private static final MethodHandle NUMBER_OF_EDGES = method("numberOfEdges", int.class);
+
+    private GraphHandles() {
+    }
+
+    /**
+     * @return a new, empty Graph
+     */
+    static Object newGraph() {
+        try {
+            return (Object) NEW.invokeExact();
+        } catch(Throwable thrown) {
+            throw rethrown(thrown);
+        }
+    }
+
+    static boolean addNode(Object graph, Integer data) {
+        try {
+            return (boolean) ADD_NODE.invokeExact(graph, (Comparable<?>) data);
+        } catch(Throwable thrown) {
+            throw rethrown(thrown);
+        }
+    }
+
+    static boolean removeNode(Object graph, Integer data) {
+        try {
+            return (boolean) REMOVE_NODE.invokeExact(graph, (Comparable<?>) data);
+        } catch(Throwable thrown) {
+            throw rethrown(thrown);
+        }
+    }
+
+    static boolean containsNode(Object graph, Integer data) {
+        try {
+            return (boolean) CONTAINS_NODE.invokeExact(graph, (Comparable<?>) data);
+        } catch(Throwable thrown) {
+            throw rethrown(thrown);
+        }
+    }
+
+    static boolean addEdge(Object graph, Integer parent, Integer child, Integer label) {
+        try {
+            return (boolean) ADD_EDGE.invokeExact(graph, (Comparable<?>) parent, (Comparable<?>) child,
+                    (Comparable<?>) label);
+        } catch(Throwable thrown) {
+            throw rethrown(thrown);
+        }
+    }
+
+    static boolean removeEdge(Object graph, Integer parent, Integer child, Integer label) {
+        try {
+            return (boolean) REMOVE_EDGE.invokeExact(graph, (Comparable<?>) parent, (Comparable<?>) child,
+                    (Comparable<?>) label);
+        } catch(Throwable thrown) {
+            throw rethrown(thrown);
+        }
+    }
+
+    static int removeEdgesBetween(Object graph, Integer parent, Integer child) {
+        try {
+            return (int) REMOVE_EDGES_BETWEEN.invokeExact(graph, (Comparable<?>) parent, (Comparable<?>) child);
+        } catch(Throwable thrown) {
+            throw rethrown(thrown);
+        }
+    }
+
+    static Map<?, ?> edgesOf(Object graph, Integer data) {
+        try {
+            return (Map<?, ?>) EDGES_OF.invokeExact(graph, (Comparable<?>) data);
+        } catch(Throwable thrown) {
+            throw rethrown(thrown);
+        }
+    }
+
+    static List<?> edgesBetween(Object graph, Integer parent, Integer child) {
+        try {
+            return (List<?>) EDGES_BETWEEN.invokeExact(graph, (Comparable<?>) parent, (Comparable<?>) child);
+        } catch(Throwable thrown) {
+            throw rethrown(thrown);
+        }
+    }
+
+    static List<?> nextNodesForLabel(Object graph, Integer data, Integer label) {
+        try {
+            return (List<?>) NEXT_NODES_FOR_LABEL.invokeExact(graph, (Comparable<?>) data, (Comparable<?>) label);
+        } catch(Throwable thrown) {
+            throw rethrown(thrown);
+        }
+    }
+
+    static List<?> childNodes(Object graph, Integer data) {
+        try {
+            return (List<?>) CHILD_NODES.invokeExact(graph, (Comparable<?>) data);
+        } catch(Throwable thrown) {
+            throw rethrown(thrown);
+        }
+    }
+
+    static int numberOfEdges(Object graph) {
+        try {
+            return (int) NUMBER_OF_EDGES.invokeExact(graph);
+        } catch(Throwable thrown) {
+            throw rethrown(thrown);
+        }
+    }
+
+    /**
+     * @return the Graph class from the default package
+     */
+    private static Class<?> graphClass() {
+        try {
+            return Class.forName("Graph");
+        } catch(ClassNotFoundException missing) {
+            throw new IllegalStateException("Graph is not on the class path", missing);
+        }
+    }
+
+    /**
+     * @return a handle taking no arguments and returning a new Graph as an Object
+     */
+    private static MethodHandle constructor() {
+        try {
+            return MethodHandles.publicLookup()
+                    .findConstructor(GRAPH, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+        } catch(ReflectiveOperationException missing) {
+            throw new IllegalStateException(missing);
+        }
+    }
+
+    /**
+     * @param name is the name of a public Graph method
+     * @param returned is the method's return type
+     * @param parameters are the method's erased parameter types
+     * @return a handle to the method that takes its receiver as an Object
+     */
+    private static MethodHandle method(String name, Class<?> returned, Class<?>... parameters) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup()
+                    .findVirtual(GRAPH, name, MethodType.methodType(returned, parameters));
+            return handle.asType(handle.type().changeParameterType(0, Object.class));
+        } catch(ReflectiveOperationException missing) {
+            throw new IllegalStateException(missing);
+        }
+    }
+
+    /**
+     * @param thrown is what a handle threw
+     * @return thrown if it is unchecked, otherwise thrown wrapped as unchecked
+     */
+    private static RuntimeException rethrown(Throwable thrown) {
+        if(thrown instanceof RuntimeException) {
+            return (RuntimeException) thrown;
+        }
+        if(thrown instanceof Error) {
+            throw (Error) thrown;
+        }
+        return new IllegalStateException(thrown);
+    }
+}
@@ -0,0 +1,131 @@
+package graphbench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures Graph modifications. Each iteration rebuilds the graph and then
+ * times one batch of BATCH calls, or fewer where a benchmark says so, so
+ * destructive operations such as removeNode always act on a graph of the stated
+ * size. Destructive calls never repeat a target within a batch, so each one
+ * removes something. Reported times are per batch
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, batchSize = MutationBenchmarks.BATCH)
+@Measurement(iterations = 5, batchSize = MutationBenchmarks.BATCH)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class MutationBenchmarks {
+
+    static final int BATCH = 1000;
+    //the smallest power-law fixture has only about 800 distinct parent and child pairs
+    static final int PAIR_BATCH = 500;
+    //the smallest fixture has only 125 nodes
+    static final int NODE_BATCH = 100;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int edges;
+
+    @Param({"UNIFORM", "POWER_LAW"})
+    public Distribution distribution;
+
+    private GraphFixture fixture;
+    private int[] newParents;
+    private int[] newChildren;
+    private int[] removedEdges;
+    private int[] removedPairs;
+    private int[] removedNodes;
+    private int cursor;
+    private int pairCursor;
+    private int nodeCursor;
+    private long iteration;
+
+    @Setup(Level.Iteration)
+    public void build() {
+        fixture = new GraphFixture(edges, distribution, 42);
+        SplittableRandom random = new SplittableRandom(7 + iteration++);
+        newParents = new int[BATCH];
+        newChildren = new int[BATCH];
+        for(int i = 0; i < BATCH; i++) {
+            newParents[i] = fixture.pick(random, distribution);
+            newChildren[i] = fixture.pick(random, distribution);
+        }
+        removedEdges = GraphFixture.distinctIndices(random, BATCH, edges);
+        removedPairs = fixture.distinctPairs(random, PAIR_BATCH);
+        removedNodes = GraphFixture.distinctIndices(random, NODE_BATCH, fixture.nodes);
+        cursor = 0;
+        pairCursor = 0;
+        nodeCursor = 0;
+    }
+
+    /**
+     * @return the index of the next pre-drawn argument in this batch
+     */
+    private int next() {
+        int i = cursor;
+        cursor = (cursor + 1) % BATCH;
+        return i;
+    }
+
+    @Benchmark
+    public boolean addNode() {
+        return GraphHandles.addNode(fixture.graph, fixture.nodes + next());
+    }
+
+    @Benchmark
+    public boolean addEdge() {
+        int i = next();
+        //labels past those the fixture uses make every added edge new
+        return GraphHandles.addEdge(fixture.graph, newParents[i], newChildren[i], GraphFixture.LABELS + i);
+    }
+
+    /**
+     * Removes a different existing edge on every call of the batch
+     */
+    @Benchmark
+    public boolean removeEdge() {
+        int edge = removedEdges[next()];
+        return GraphHandles.removeEdge(fixture.graph, fixture.parents[edge], fixture.children[edge],
+                fixture.labels[edge]);
+    }
+
+    /**
+     * Times batches of PAIR_BATCH calls, each on a parent and child pair no other
+     * call in the batch uses, so that every call removes at least one edge
+     */
+    @Benchmark
+    @Warmup(iterations = 2, batchSize = MutationBenchmarks.PAIR_BATCH)
+    @Measurement(iterations = 5, batchSize = MutationBenchmarks.PAIR_BATCH)
+    public int removeEdgesBetween() {
+        int edge = removedPairs[pairCursor];
+        pairCursor = (pairCursor + 1) % PAIR_BATCH;
+        return GraphHandles.removeEdgesBetween(fixture.graph, fixture.parents[edge], fixture.children[edge]);
+    }
+
+    /**
+     * Times batches of NODE_BATCH calls, each removing a node no other call in
+     * the batch removes
+     */
+    @Benchmark
+    @Warmup(iterations = 2, batchSize = MutationBenchmarks.NODE_BATCH)
+    @Measurement(iterations = 5, batchSize = MutationBenchmarks.NODE_BATCH)
+    public boolean removeNode() {
+        int node = removedNodes[nodeCursor];
+        nodeCursor = (nodeCursor + 1) % NODE_BATCH;
+        return GraphHandles.removeNode(fixture.graph, node);
+    }
+}
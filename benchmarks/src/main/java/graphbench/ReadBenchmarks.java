@@ -0,0 +1,102 @@
+package graphbench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the average time of each read-only Graph query against a graph
+ * built once per fork. Every call queries a different, pre-drawn node or edge
+ * so that results are not dominated by one cached node
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class ReadBenchmarks {
+
+    private static final int QUERIES = 1 << 16;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int edges;
+
+    @Param({"UNIFORM", "POWER_LAW"})
+    public Distribution distribution;
+
+    private GraphFixture fixture;
+    private int[] queriedNodes;
+    private int[] missingNodes;
+    private int[] queriedEdges;
+    private int cursor;
+
+    @Setup
+    public void build() {
+        fixture = new GraphFixture(edges, distribution, 42);
+        SplittableRandom random = new SplittableRandom(7);
+        queriedNodes = new int[QUERIES];
+        missingNodes = new int[QUERIES];
+        for(int i = 0; i < QUERIES; i++) {
+            queriedNodes[i] = fixture.pick(random, distribution);
+            missingNodes[i] = fixture.nodes + random.nextInt(fixture.nodes);
+        }
+        queriedEdges = GraphFixture.indices(random, QUERIES, edges);
+    }
+
+    /**
+     * @return the index of the next pre-drawn query
+     */
+    private int next() {
+        cursor = (cursor + 1) & (QUERIES - 1);
+        return cursor;
+    }
+
+    @Benchmark
+    public boolean containsNodePresent() {
+        return GraphHandles.containsNode(fixture.graph, queriedNodes[next()]);
+    }
+
+    @Benchmark
+    public boolean containsNodeAbsent() {
+        return GraphHandles.containsNode(fixture.graph, missingNodes[next()]);
+    }
+
+    @Benchmark
+    public Object edgesOf() {
+        return GraphHandles.edgesOf(fixture.graph, queriedNodes[next()]);
+    }
+
+    @Benchmark
+    public Object childNodes() {
+        return GraphHandles.childNodes(fixture.graph, queriedNodes[next()]);
+    }
+
+    @Benchmark
+    public Object nextNodesForLabel() {
+        int i = next();
+        return GraphHandles.nextNodesForLabel(fixture.graph, queriedNodes[i], i % GraphFixture.LABELS);
+    }
+
+    @Benchmark
+    public Object edgesBetween() {
+        int edge = queriedEdges[next()];
+        return GraphHandles.edgesBetween(fixture.graph, fixture.parents[edge], fixture.children[edge]);
+    }
+
+    @Benchmark
+    public int numberOfEdges() {
+        return GraphHandles.numberOfEdges(fixture.graph);
+    }
+}
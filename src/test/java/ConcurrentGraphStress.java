@@ -0,0 +1,279 @@
+/**
+ * Abstract state:
+ * ConcurrentGraphStress represents a stress run of ConcurrentGraph: for several rounds,
+ * writer threads add and remove Edges and Nodes while reader threads query the Nodes
+ * that are never removed, and once every thread has stopped the whole graph is checked.
+ * Run it with
+ *
+ *     mvn test-compile
+ *     java -ea -cp target/classes:target/test-classes ConcurrentGraphStress [threads] [rounds] [millis] [seed]
+ *
+ * It exits with status 1, after printing what went wrong, if any check fails.
+ * Given "throughput" first, it instead times a fixed mix of operations, about 60%
+ * reads, at each of the given thread counts, 1, 4 and 16 by default, and prints
+ * the operations per second reached at each:
+ *
+ *     java -cp target/classes:target/test-classes ConcurrentGraphStress throughput [operations] [threads...]
+ */
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+public final class ConcurrentGraphStress {
+
+    private static final int STABLE_NODES = 64;
+    private static final int CHURNED_NODES = 64;
+    private static final int LABELS = 4;
+
+    private final ConcurrentGraph<Integer, Integer> graph;
+    private final ConcurrentLinkedQueue<String> failures;
+    private volatile boolean stopped;
+
+    // Representation Invariant for every ConcurrentGraphStress:
+    // graph and failures are not null, and graph holds every Node from 0 to
+    // STABLE_NODES - 1, which no writer removes
+    //
+    // Abstraction Function:
+    // ConcurrentGraphStress represents a stress run of graph, which has found the
+    // problems described by failures so far
+
+    /**
+     * @spec.effects Constructs a new ConcurrentGraphStress over a graph holding every
+     * stable and churned Node and no Edges
+     */
+    private ConcurrentGraphStress() {
+        graph = new ConcurrentGraph<Integer, Integer>();
+        failures = new ConcurrentLinkedQueue<String>();
+        for(int node = 0; node < STABLE_NODES + CHURNED_NODES; node++) {
+            graph.addNode(node);
+        }
+    }
+
+    /**
+     * @param args are optionally the number of threads, the number of rounds, the
+     * length of each round in milliseconds and the random seed, in that order
+     * @spec.effects runs the stress rounds and reports the outcome, exiting with
+     * status 1 if any check failed
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if(args.length > 0 && args[0].equals("throughput")) {
+            throughput(args);
+            return;
+        }
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(4, Runtime.getRuntime().availableProcessors());
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        long millis = args.length > 2 ? Long.parseLong(args[2]) : 500;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+        ConcurrentGraphStress stress = new ConcurrentGraphStress();
+        SplittableRandom seeds = new SplittableRandom(seed);
+        for(int round = 0; round < rounds && stress.failures.isEmpty(); round++) {
+            stress.runRound(threads, millis, seeds);
+            stress.checkQuiescent();
+            System.out.printf("round %d: %d nodes, %d edges%n", round, stress.graph.numberOfNodes(),
+                    stress.graph.numberOfEdges());
+        }
+        if(!stress.failures.isEmpty()) {
+            System.out.println("FAILED with seed " + seed + ":");
+            for(String failure : stress.failures) {
+                System.out.println("  " + failure);
+            }
+            System.exit(1);
+        }
+        System.out.println("passed with seed " + seed);
+    }
+
+    /**
+     * @param args are "throughput", then optionally the total number of operations
+     * and the thread counts to time them at
+     * @spec.effects for each thread count, times the operations split evenly across
+     * that many threads, each mixing reads and writes, on a fresh graph after one
+     * untimed warm-up run, and prints the operations per second reached
+     */
+    private static void throughput(String[] args) throws InterruptedException {
+        long operations = args.length > 1 ? Long.parseLong(args[1]) : 2_000_000;
+        int[] counts = {1, 4, 16};
+        if(args.length > 2) {
+            counts = new int[args.length - 2];
+            for(int i = 0; i < counts.length; i++) {
+                counts[i] = Integer.parseInt(args[i + 2]);
+            }
+        }
+        System.out.printf("%d operations, about 60%% reads, on %d processors%n", operations,
+                Runtime.getRuntime().availableProcessors());
+        for(int threads : counts) {
+            new ConcurrentGraphStress().timeMix(threads, operations);
+            long nanos = new ConcurrentGraphStress().timeMix(threads, operations);
+            System.out.printf("%3d threads: %.2f Mops/s%n", threads, operations * 1e3 / nanos);
+        }
+    }
+
+    /**
+     * @spec.modifies graph is read and modified by 'threads' threads, each doing an
+     * equal share of 'operations', 60% of them reads and the rest writes
+     * @return the nanoseconds from releasing the threads until the last one finished
+     */
+    private long timeMix(int threads, long operations) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<Thread>(threads);
+        SplittableRandom seeds = new SplittableRandom(threads);
+        for(int i = 0; i < threads; i++) {
+            SplittableRandom random = seeds.split();
+            long share = operations / threads + (i < operations % threads ? 1 : 0);
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    for(long done = 0; done < share; done++) {
+                        if(random.nextInt(10) < 6) {
+                            read(random);
+                        } else {
+                            write(random);
+                        }
+                    }
+                } catch(InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "worker-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        for(Thread worker : workers) {
+            worker.join();
+        }
+        return System.nanoTime() - started;
+    }
+
+    /**
+     * @spec.modifies graph is read and modified by 'threads' threads, half of them
+     * writers and half readers, for about 'millis' milliseconds, and failures
+     * gains whatever the readers found wrong
+     * @spec.effects returns once every thread has stopped
+     */
+    private void runRound(int threads, long millis, SplittableRandom seeds) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<Thread>(threads);
+        stopped = false;
+        for(int i = 0; i < threads; i++) {
+            SplittableRandom random = seeds.split();
+            boolean writer = i % 2 == 0;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    while(!stopped) {
+                        if(writer) {
+                            write(random);
+                        } else {
+                            read(random);
+                        }
+                    }
+                } catch(Throwable thrown) {
+                    failures.add(Thread.currentThread().getName() + " threw " + thrown);
+                }
+            }, (writer ? "writer-" : "reader-") + i);
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        Thread.sleep(millis);
+        stopped = true;
+        for(Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    /**
+     * @spec.modifies graph gains or loses one random Edge, or a churned Node is
+     * removed and added back, taking its Edges with it
+     */
+    private void write(SplittableRandom random) {
+        int parent = random.nextInt(STABLE_NODES + CHURNED_NODES);
+        int child = random.nextInt(STABLE_NODES + CHURNED_NODES);
+        int label = random.nextInt(LABELS);
+        int choice = random.nextInt(100);
+        if(choice < 50) {
+            graph.addEdge(parent, child, label);
+        } else if(choice < 90) {
+            graph.removeEdge(parent, child, label);
+        } else if(choice < 95) {
+            graph.removeNode(STABLE_NODES + random.nextInt(CHURNED_NODES));
+        } else {
+            graph.addNode(STABLE_NODES + random.nextInt(CHURNED_NODES));
+        }
+    }
+
+    /**
+     * @spec.modifies failures gains a description of anything wrong with one
+     * random read of a stable Node: each read must see the Node's Edges as they
+     * were after some complete modification, so in strictly increasing order
+     */
+    private void read(SplittableRandom random) {
+        int node = random.nextInt(STABLE_NODES);
+        switch(random.nextInt(4)) {
+            case 0:
+                checkSorted("childNodes(" + node + ")", graph.childNodes(node), false);
+                break;
+            case 1:
+                checkSorted("parentNodes(" + node + ")", graph.parentNodes(node), false);
+                break;
+            case 2:
+                int child = random.nextInt(STABLE_NODES);
+                checkSorted("edgesBetween(" + node + ", " + child + ")", graph.edgesBetween(node, child), true);
+                break;
+            default:
+                for(List<Integer> children : graph.edgesOf(node).values()) {
+                    checkSorted("edgesOf(" + node + ")", children, true);
+                }
+                break;
+        }
+    }
+
+    /**
+     * @spec.modifies failures gains a description of what was read if values is
+     * out of order, or has repeats when strict
+     */
+    private void checkSorted(String read, List<Integer> values, boolean strict) {
+        for(int i = 1; i < values.size(); i++) {
+            int comparison = values.get(i - 1).compareTo(values.get(i));
+            if(comparison > 0 || (strict && comparison == 0)) {
+                failures.add(read + " returned " + values);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @spec.requires no thread is modifying graph
+     * @spec.modifies failures gains a description of every way graph is inconsistent:
+     * an Edge count that differs from a recount, a child or parent that is not in
+     * the graph, or an Edge that is not mirrored in its child's incoming Edges
+     */
+    private void checkQuiescent() {
+        int outgoing = 0;
+        int incoming = 0;
+        for(Integer node : graph.allNodes()) {
+            for(Map.Entry<Integer, List<Integer>> edges : graph.edgesOf(node).entrySet()) {
+                for(Integer child : edges.getValue()) {
+                    outgoing++;
+                    if(!graph.containsNode(child)) {
+                        failures.add(node + " has an Edge " + edges.getKey() + " to absent " + child);
+                    } else if(!graph.edgesInto(child).getOrDefault(edges.getKey(), List.of()).contains(node)) {
+                        failures.add(node + " has an Edge " + edges.getKey() + " to " + child
+                                + " missing from its incoming Edges");
+                    }
+                }
+            }
+            for(Integer parent : graph.parentNodes(node)) {
+                incoming++;
+                if(!graph.containsNode(parent)) {
+                    failures.add(node + " has an Edge from absent " + parent);
+                }
+            }
+        }
+        if(outgoing != graph.numberOfEdges() || incoming != graph.numberOfEdges()) {
+            failures.add("numberOfEdges() is " + graph.numberOfEdges() + " but " + outgoing
+                    + " Edges lead out of Nodes and " + incoming + " into them");
+        }
+    }
+}